@@ -114,9 +114,19 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   static final String TERMS_INDEX_EXTENSION = "tip";
   final static String TERMS_INDEX_CODEC_NAME = "BlockTreeTermsIndex";
 
+  /** {@link FieldInfo} attribute key which is set to {@code true}
+   *  for fields whose terms index FST is read directly from the
+   *  terms index file instead of being loaded on the heap.
+   *  @see BlockTreeTermsWriter */
+  public static final String FST_OFF_HEAP_KEY = BlockTreeTermsReader.class.getSimpleName() + ".fstOffHeap";
+
   // Open input to the main terms dict file (_X.tib)
   final IndexInput termsIn;
 
+  // Open input to the terms index file (_X.tip), only if
+  // some fields read their terms index FST off-heap
+  private final IndexInput offHeapIndexIn;
+
   //private static final boolean DEBUG = BlockTreeTermsWriter.DEBUG;
 
   // Reads the terms dict entries, to gather state to
@@ -192,6 +202,8 @@ public final class BlockTreeTermsReader extends FieldsProducer {
         throw new CorruptIndexException("invalid numFields: " + numFields, termsIn);
       }
 
+      boolean anyOffHeap = false;
+
       for (int i = 0; i < numFields; ++i) {
         final int field = termsIn.readVInt();
         final long numTerms = termsIn.readVLong();
@@ -228,15 +240,22 @@ public final class BlockTreeTermsReader extends FieldsProducer {
           throw new CorruptIndexException("invalid sumTotalTermFreq: " + sumTotalTermFreq + " sumDocFreq: " + sumDocFreq, termsIn);
         }
         final long indexStartFP = indexIn.readVLong();
+        final boolean fstOffHeap = Boolean.parseBoolean(fieldInfo.getAttribute(FST_OFF_HEAP_KEY));
+        anyOffHeap |= fstOffHeap;
         FieldReader previous = fields.put(fieldInfo.name,       
                                           new FieldReader(this, fieldInfo, numTerms, rootCode, sumTotalTermFreq, sumDocFreq, docCount,
-                                                          indexStartFP, longsSize, indexIn, minTerm, maxTerm));
+                                                          indexStartFP, longsSize, indexIn, fstOffHeap, minTerm, maxTerm));
         if (previous != null) {
           throw new CorruptIndexException("duplicate field: " + fieldInfo.name, termsIn);
         }
       }
       
-      indexIn.close();
+      if (anyOffHeap) {
+        offHeapIndexIn = indexIn;
+      } else {
+        offHeapIndexIn = null;
+        indexIn.close();
+      }
       success = true;
     } finally {
       if (!success) {
@@ -270,7 +289,7 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   @Override
   public void close() throws IOException {
     try {
-      IOUtils.close(termsIn, postingsReader);
+      IOUtils.close(termsIn, offHeapIndexIn, postingsReader);
     } finally { 
       // Clear so refs to terms index is GCable even if
       // app hangs onto us:
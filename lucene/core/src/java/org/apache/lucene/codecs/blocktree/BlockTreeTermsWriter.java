@@ -225,6 +225,7 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
   final int maxItemsInBlock;
   final int minItemsInAutoPrefix;
   final int maxItemsInAutoPrefix;
+  final boolean fstOffHeap;
 
   final PostingsWriterBase postingsWriter;
   final FieldInfos fieldInfos;
@@ -298,6 +299,23 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
                               int minItemsInAutoPrefix,
                               int maxItemsInAutoPrefix)
     throws IOException
+  {
+    this(state, postingsWriter, minItemsInBlock, maxItemsInBlock, minItemsInAutoPrefix, maxItemsInAutoPrefix, false);
+  }
+
+  /** Create a new writer, like {@link
+   *  #BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int,int,int)},
+   *  and record in the field infos whether the terms index
+   *  FST of the fields written by this writer should be
+   *  loaded off-heap by {@link BlockTreeTermsReader}. */
+  public BlockTreeTermsWriter(SegmentWriteState state,
+                              PostingsWriterBase postingsWriter,
+                              int minItemsInBlock,
+                              int maxItemsInBlock,
+                              int minItemsInAutoPrefix,
+                              int maxItemsInAutoPrefix,
+                              boolean fstOffHeap)
+    throws IOException
   {
     validateSettings(minItemsInBlock,
                      maxItemsInBlock);
@@ -320,6 +338,8 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
     this.minItemsInAutoPrefix = minItemsInAutoPrefix;
     this.maxItemsInAutoPrefix = maxItemsInAutoPrefix;
 
+    this.fstOffHeap = fstOffHeap;
+
     this.maxDoc = state.segmentInfo.maxDoc();
     this.fieldInfos = state.fieldInfos;
     this.postingsWriter = postingsWriter;
@@ -414,6 +434,9 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
         continue;
       }
       FieldInfo fieldInfo = fieldInfos.fieldInfo(field);
+      if (fstOffHeap) {
+        fieldInfo.putAttribute(BlockTreeTermsReader.FST_OFF_HEAP_KEY, "true");
+      }
 
       // First pass to find all prefix terms we should compile into the index:
       List<PrefixTerm> prefixTerms;
@@ -389,6 +389,7 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
 
   private final int minTermBlockSize;
   private final int maxTermBlockSize;
+  private final boolean fstOffHeap;
 
   /**
    * Fixed packed block size, number of integers encoded in 
@@ -408,10 +409,23 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
    *  maxBlockSize} passed to block terms dictionary.
    *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int) */
   public Lucene50PostingsFormat(int minTermBlockSize, int maxTermBlockSize) {
+    this(minTermBlockSize, maxTermBlockSize, false);
+  }
+
+  /** Creates {@code Lucene50PostingsFormat} with custom
+   *  values for {@code minBlockSize} and {@code
+   *  maxBlockSize}, and whether the terms index FST of
+   *  the fields written with this format should be read
+   *  off-heap, from the terms index file. Use this through
+   *  a per-field postings format for fields with large
+   *  terms indexes, ideally with {@link org.apache.lucene.store.MMapDirectory}.
+   *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int,int,int,boolean) */
+  public Lucene50PostingsFormat(int minTermBlockSize, int maxTermBlockSize, boolean fstOffHeap) {
     super("Lucene50");
     BlockTreeTermsWriter.validateSettings(minTermBlockSize, maxTermBlockSize);
     this.minTermBlockSize = minTermBlockSize;
     this.maxTermBlockSize = maxTermBlockSize;
+    this.fstOffHeap = fstOffHeap;
   }
 
   @Override
@@ -428,7 +442,9 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
       FieldsConsumer ret = new BlockTreeTermsWriter(state, 
                                                     postingsWriter,
                                                     minTermBlockSize, 
-                                                    maxTermBlockSize);
+                                                    maxTermBlockSize,
+                                                    0, 0,
+                                                    fstOffHeap);
       success = true;
       return ret;
     } finally {
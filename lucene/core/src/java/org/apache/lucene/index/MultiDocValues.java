@@ -298,6 +298,13 @@ public class MultiDocValues {
    * </p>  
    */
   public static SortedDocValues getSortedValues(final IndexReader r, final String field) throws IOException {
+    return getSortedValues(r, field, null);
+  }
+
+  /** Same as {@link #getSortedValues(IndexReader, String)}, but takes the
+   *  {@link OrdinalMap} from the given cache, which may be null.
+   * @lucene.experimental */
+  public static SortedDocValues getSortedValues(final IndexReader r, final String field, OrdinalMapCache cache) throws IOException {
     final List<LeafReaderContext> leaves = r.leaves();
     final int size = leaves.size();
     
@@ -326,7 +333,9 @@ public class MultiDocValues {
     if (!anyReal) {
       return null;
     } else {
-      OrdinalMap mapping = OrdinalMap.build(r.getCoreCacheKey(), values, PackedInts.DEFAULT);
+      OrdinalMap mapping = cache == null
+          ? OrdinalMap.build(r.getCoreCacheKey(), values, PackedInts.DEFAULT)
+          : cache.getSorted(r, field, values);
       return new MultiSortedDocValues(values, starts, mapping);
     }
   }
@@ -338,6 +347,13 @@ public class MultiDocValues {
    * </p>  
    */
   public static SortedSetDocValues getSortedSetValues(final IndexReader r, final String field) throws IOException {
+    return getSortedSetValues(r, field, null);
+  }
+
+  /** Same as {@link #getSortedSetValues(IndexReader, String)}, but takes the
+   *  {@link OrdinalMap} from the given cache, which may be null.
+   * @lucene.experimental */
+  public static SortedSetDocValues getSortedSetValues(final IndexReader r, final String field, OrdinalMapCache cache) throws IOException {
     final List<LeafReaderContext> leaves = r.leaves();
     final int size = leaves.size();
     
@@ -366,7 +382,9 @@ public class MultiDocValues {
     if (!anyReal) {
       return null;
     } else {
-      OrdinalMap mapping = OrdinalMap.build(r.getCoreCacheKey(), values, PackedInts.DEFAULT);
+      OrdinalMap mapping = cache == null
+          ? OrdinalMap.build(r.getCoreCacheKey(), values, PackedInts.DEFAULT)
+          : cache.getSortedSet(r, field, values);
       return new MultiSortedSetDocValues(values, starts, mapping);
     }
   }
@@ -498,6 +516,16 @@ public class MultiDocValues {
     final SegmentMap segmentMap;
     // ram usage
     final long ramBytesUsed;
+
+    /** Shares the mappings of another map, for a different owner. */
+    OrdinalMap(Object owner, OrdinalMap other) {
+      this.owner = owner;
+      this.globalOrdDeltas = other.globalOrdDeltas;
+      this.firstSegments = other.firstSegments;
+      this.segmentToGlobalOrds = other.segmentToGlobalOrds;
+      this.segmentMap = other.segmentMap;
+      this.ramBytesUsed = other.ramBytesUsed;
+    }
     
     OrdinalMap(Object owner, TermsEnum subs[], SegmentMap segmentMap, float acceptableOverheadRatio) throws IOException {
       // create the ordinal mappings by pulling a termsenum over each sub's 
@@ -0,0 +1,194 @@
+package org.apache.lucene.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.lucene.index.MultiDocValues.OrdinalMap;
+import org.apache.lucene.util.packed.PackedInts;
+
+/**
+ * Shares {@link OrdinalMap}s between top-level readers over the same segments.
+ * An ordinal map only depends on the terms of each segment, which do not change
+ * with deletions, so e.g. an NRT reader reopened after only deletions, or a new
+ * {@link SlowCompositeReaderWrapper} around the same reader, can reuse the map
+ * instead of merging all the terms again.
+ * <p>
+ * Maps are keyed by field and by the core cache keys of the leaves. The least
+ * recently used maps are evicted once more than {@code maxSize} maps are
+ * cached, and a map is dropped as soon as the core of one of its segments is
+ * closed.
+ * <p>
+ * <b>NOTE</b>: the cache can not tell apart two leaves which share a core but
+ * expose different doc values, such as a segment and a {@link FilterLeafReader}
+ * which uninverts a field of it. Only use a cache with readers which expose
+ * the same doc values for the same segment cores, typically those opened from
+ * one {@link IndexWriter} or directory.
+ *
+ * @see MultiDocValues#getSortedValues(IndexReader, String, OrdinalMapCache)
+ * @see MultiDocValues#getSortedSetValues(IndexReader, String, OrdinalMapCache)
+ * @lucene.experimental
+ */
+public final class OrdinalMapCache {
+
+  /** Default maximum number of cached maps. */
+  public static final int DEFAULT_MAX_SIZE = 16;
+
+  private static final class Key {
+    final String field;
+    final boolean sortedSet;
+    final Object[] coreKeys;
+    final int hashCode;
+
+    Key(String field, boolean sortedSet, Object[] coreKeys) {
+      this.field = field;
+      this.sortedSet = sortedSet;
+      this.coreKeys = coreKeys;
+      this.hashCode = 31 * (31 * field.hashCode() + Boolean.hashCode(sortedSet)) + Arrays.hashCode(coreKeys);
+    }
+
+    boolean contains(Object coreKey) {
+      for (Object key : coreKeys) {
+        if (key == coreKey) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof Key == false) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return field.equals(other.field) && sortedSet == other.sortedSet && Arrays.equals(coreKeys, other.coreKeys);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private final int maxSize;
+  // guarded by this
+  private final Map<Key,OrdinalMap> cache;
+  // cores we already evict on; guarded by this
+  private final Set<Object> listenedCores = Collections.newSetFromMap(new IdentityHashMap<Object,Boolean>());
+
+  private final LeafReader.CoreClosedListener evict = new LeafReader.CoreClosedListener() {
+    @Override
+    public void onClose(Object ownerCoreCacheKey) {
+      evict(ownerCoreCacheKey);
+    }
+  };
+
+  /** Creates a cache of at most {@link #DEFAULT_MAX_SIZE} maps. */
+  public OrdinalMapCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /** Creates a cache of at most {@code maxSize} maps. */
+  public OrdinalMapCache(int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be >= 1; got " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.cache = new LinkedHashMap<Key,OrdinalMap>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key,OrdinalMap> eldest) {
+        return size() > OrdinalMapCache.this.maxSize;
+      }
+    };
+  }
+
+  /** Returns an {@link OrdinalMap} owned by the given reader for its sorted doc values. */
+  OrdinalMap getSorted(IndexReader reader, String field, SortedDocValues[] values) throws IOException {
+    final Key key = new Key(field, false, coreKeys(reader));
+    OrdinalMap map = get(key);
+    if (map == null) {
+      // owned by the key, so that the cache doesn't keep the top-level reader alive
+      map = OrdinalMap.build(key, values, PackedInts.DEFAULT);
+      put(reader, key, map);
+    }
+    return new OrdinalMap(reader.getCoreCacheKey(), map);
+  }
+
+  /** Returns an {@link OrdinalMap} owned by the given reader for its sorted set doc values. */
+  OrdinalMap getSortedSet(IndexReader reader, String field, SortedSetDocValues[] values) throws IOException {
+    final Key key = new Key(field, true, coreKeys(reader));
+    OrdinalMap map = get(key);
+    if (map == null) {
+      // owned by the key, so that the cache doesn't keep the top-level reader alive
+      map = OrdinalMap.build(key, values, PackedInts.DEFAULT);
+      put(reader, key, map);
+    }
+    return new OrdinalMap(reader.getCoreCacheKey(), map);
+  }
+
+  private static Object[] coreKeys(IndexReader reader) {
+    final List<LeafReaderContext> leaves = reader.leaves();
+    final Object[] coreKeys = new Object[leaves.size()];
+    for (int i = 0; i < coreKeys.length; i++) {
+      coreKeys[i] = leaves.get(i).reader().getCoreCacheKey();
+    }
+    return coreKeys;
+  }
+
+  private synchronized OrdinalMap get(Key key) {
+    return cache.get(key);
+  }
+
+  private synchronized void put(IndexReader reader, Key key, OrdinalMap map) {
+    cache.put(key, map);
+    for (LeafReaderContext context : reader.leaves()) {
+      final LeafReader leaf = context.reader();
+      if (listenedCores.add(leaf.getCoreCacheKey())) {
+        leaf.addCoreClosedListener(evict);
+      }
+    }
+  }
+
+  private synchronized void evict(Object coreKey) {
+    listenedCores.remove(coreKey);
+    for (Iterator<Key> it = cache.keySet().iterator(); it.hasNext(); ) {
+      if (it.next().contains(coreKey)) {
+        it.remove();
+      }
+    }
+  }
+
+  /** Removes all cached maps. */
+  public synchronized void clear() {
+    cache.clear();
+  }
+
+  /** Returns the number of maps which are currently cached. */
+  public synchronized int size() {
+    return cache.size();
+  }
+}
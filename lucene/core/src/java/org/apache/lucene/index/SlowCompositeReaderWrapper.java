@@ -46,14 +46,22 @@ public final class SlowCompositeReaderWrapper extends LeafReader {
   private final CompositeReader in;
   private final Fields fields;
   private final boolean merging;
+  private final OrdinalMapCache ordinalMapCache;
   
   /** This method is sugar for getting an {@link LeafReader} from
    * an {@link IndexReader} of any kind. If the reader is already atomic,
    * it is returned unchanged, otherwise wrapped by this class.
    */
   public static LeafReader wrap(IndexReader reader) throws IOException {
+    return wrap(reader, null);
+  }
+
+  /** Same as {@link #wrap(IndexReader)}, but takes the ordinal maps of
+   * sorted and sorted set doc values from the given cache, which may be null.
+   * @lucene.experimental */
+  public static LeafReader wrap(IndexReader reader, OrdinalMapCache ordinalMapCache) throws IOException {
     if (reader instanceof CompositeReader) {
-      return new SlowCompositeReaderWrapper((CompositeReader) reader, false);
+      return new SlowCompositeReaderWrapper((CompositeReader) reader, false, ordinalMapCache);
     } else {
       assert reader instanceof LeafReader;
       return (LeafReader) reader;
@@ -61,11 +69,16 @@ public final class SlowCompositeReaderWrapper extends LeafReader {
   }
 
   SlowCompositeReaderWrapper(CompositeReader reader, boolean merging) throws IOException {
+    this(reader, merging, null);
+  }
+
+  private SlowCompositeReaderWrapper(CompositeReader reader, boolean merging, OrdinalMapCache ordinalMapCache) throws IOException {
     super();
     in = reader;
     fields = MultiFields.getFields(in);
     in.registerParentReader(this);
     this.merging = merging;
+    this.ordinalMapCache = ordinalMapCache;
   }
 
   @Override
@@ -121,7 +134,7 @@ public final class SlowCompositeReaderWrapper extends LeafReader {
       map = cachedOrdMaps.get(field);
       if (map == null) {
         // uncached, or not a multi dv
-        SortedDocValues dv = MultiDocValues.getSortedValues(in, field);
+        SortedDocValues dv = MultiDocValues.getSortedValues(in, field, ordinalMapCache);
         if (dv instanceof MultiSortedDocValues) {
           map = ((MultiSortedDocValues)dv).mapping;
           if (map.owner == getCoreCacheKey() && merging == false) {
@@ -160,7 +173,7 @@ public final class SlowCompositeReaderWrapper extends LeafReader {
       map = cachedOrdMaps.get(field);
       if (map == null) {
         // uncached, or not a multi dv
-        SortedSetDocValues dv = MultiDocValues.getSortedSetValues(in, field);
+        SortedSetDocValues dv = MultiDocValues.getSortedSetValues(in, field, ordinalMapCache);
         if (dv instanceof MultiSortedSetDocValues) {
           map = ((MultiSortedSetDocValues)dv).mapping;
           if (map.owner == getCoreCacheKey() && merging == false) {
@@ -98,8 +98,20 @@ public class AutomatonQuery extends MultiTermQuery {
     super(term.field());
     this.term = term;
     this.automaton = automaton;
+    this.compiled = compile(automaton, maxDeterminizedStates, isBinary);
+  }
+
+  /** Creates a query from an automaton which was compiled by a {@link CompiledAutomatonCache}. */
+  AutomatonQuery(final Term term, CompiledAutomatonCache.Entry entry) {
+    super(term.field());
+    this.term = term;
+    this.automaton = entry.automaton;
+    this.compiled = entry.compiled;
+  }
+
+  static CompiledAutomaton compile(Automaton automaton, int maxDeterminizedStates, boolean isBinary) {
     // TODO: we could take isFinite too, to save a bit of CPU in CompiledAutomaton ctor?:
-    this.compiled = new CompiledAutomaton(automaton, null, true, maxDeterminizedStates, isBinary);
+    return new CompiledAutomaton(automaton, null, true, maxDeterminizedStates, isBinary);
   }
 
   @Override
@@ -0,0 +1,286 @@
+package org.apache.lucene.search;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.AutomatonProvider;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
+import org.apache.lucene.util.automaton.LevenshteinAutomata;
+import org.apache.lucene.util.automaton.RegExp;
+
+/**
+ * A bounded cache of the determinized and compiled automata of
+ * {@link RegexpQuery}, {@link WildcardQuery} and {@link FuzzyQuery}, so that
+ * queries which repeat the same pattern, e.g. from auto-complete traffic,
+ * share a single automaton instead of building it again for every query
+ * instance (regexp and wildcard queries) or every rewrite (fuzzy queries).
+ * <p>
+ * Entries are keyed by the pattern and all options which affect the
+ * automaton, but not by field, and the least recently used entries are
+ * evicted once more than {@code maxSize} automata are cached or the cache
+ * uses more than {@code maxRamBytesUsed} bytes of memory. Since a
+ * determinized automaton may have up to {@code maxDeterminizedStates} states,
+ * the RAM bound is what actually limits the memory usage; an automaton which
+ * alone is larger than it is not cached at all. A single instance can be
+ * shared by all threads; automata are built outside of the cache's lock, so
+ * two threads which miss on the same pattern at the same time may both build
+ * it.
+ * <p>
+ * This cache exposes some statistics ({@link #getHitCount() hit count},
+ * {@link #getMissCount() miss count}, {@link #getCacheSize() number of cached
+ * automata}, {@link #ramBytesUsed() memory usage}) in order to help tune its
+ * size.
+ *
+ * @lucene.experimental
+ */
+public final class CompiledAutomatonCache implements Accountable {
+
+  /** Default maximum number of cached automata. */
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  /** Default maximum memory usage of the cached automata, 32MB. */
+  public static final long DEFAULT_MAX_RAM_BYTES_USED = 32 * 1024L * 1024L;
+
+  /** The automaton of a query and its compiled form. */
+  static final class Entry implements Accountable {
+    final Automaton automaton;
+    final CompiledAutomaton compiled;
+
+    Entry(Automaton automaton, CompiledAutomaton compiled) {
+      this.automaton = automaton;
+      this.compiled = compiled;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      long ramBytesUsed = RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + 2 * RamUsageEstimator.NUM_BYTES_OBJECT_REF
+          + compiled.ramBytesUsed();
+      if (automaton != compiled.automaton) {
+        ramBytesUsed += automaton.ramBytesUsed();
+      }
+      return ramBytesUsed;
+    }
+  }
+
+  private static final class Key implements Accountable {
+    private final Object[] parts;
+    private final int hashCode;
+
+    Key(Object... parts) {
+      this.parts = parts;
+      this.hashCode = Arrays.hashCode(parts);
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      // the class, numbers, booleans and the provider are shared or small; only count the patterns
+      long ramBytesUsed = RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + RamUsageEstimator.NUM_BYTES_OBJECT_REF
+          + RamUsageEstimator.NUM_BYTES_INT
+          + RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + parts.length * RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+      for (Object part : parts) {
+        if (part instanceof String) {
+          ramBytesUsed += STRING_RAM_BYTES_USED + RamUsageEstimator.alignObjectSize(
+              RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + ((String) part).length() * RamUsageEstimator.NUM_BYTES_CHAR);
+        }
+      }
+      return ramBytesUsed;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Key && Arrays.equals(parts, ((Key) obj).parts);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final long STRING_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(String.class);
+
+  private final int maxSize;
+  private final long maxRamBytesUsed;
+  // guarded by this
+  private final Map<Key,Accountable> cache;
+  private long ramBytesUsed;
+  private long hitCount, missCount;
+
+  /**
+   * Creates a cache of at most {@link #DEFAULT_MAX_SIZE} automata and
+   * {@link #DEFAULT_MAX_RAM_BYTES_USED} bytes of memory.
+   */
+  public CompiledAutomatonCache() {
+    this(DEFAULT_MAX_SIZE, DEFAULT_MAX_RAM_BYTES_USED);
+  }
+
+  /**
+   * Creates a cache of at most {@code maxSize} automata, which together use
+   * at most {@code maxRamBytesUsed} bytes of memory.
+   */
+  public CompiledAutomatonCache(int maxSize, long maxRamBytesUsed) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be >= 1; got " + maxSize);
+    }
+    if (maxRamBytesUsed < 1) {
+      throw new IllegalArgumentException("maxRamBytesUsed must be >= 1; got " + maxRamBytesUsed);
+    }
+    this.maxSize = maxSize;
+    this.maxRamBytesUsed = maxRamBytesUsed;
+    this.cache = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /** Returns the automaton of a {@link RegexpQuery}; the provider is compared by equals. */
+  Entry getRegexp(Term term, int flags, AutomatonProvider provider, int maxDeterminizedStates) {
+    final Key key = new Key(RegexpQuery.class, term.text(), flags, provider, maxDeterminizedStates);
+    Entry entry = (Entry) get(key);
+    if (entry == null) {
+      entry = buildRegexp(term, flags, provider, maxDeterminizedStates);
+      put(key, entry);
+    }
+    return entry;
+  }
+
+  /** Builds the automaton of a {@link RegexpQuery} without caching it. */
+  static Entry buildRegexp(Term term, int flags, AutomatonProvider provider, int maxDeterminizedStates) {
+    final Automaton automaton = new RegExp(term.text(), flags).toAutomaton(provider, maxDeterminizedStates);
+    return new Entry(automaton, AutomatonQuery.compile(automaton, maxDeterminizedStates, false));
+  }
+
+  /** Returns the automaton of a {@link WildcardQuery}. */
+  Entry getWildcard(Term term, int maxDeterminizedStates) {
+    final Key key = new Key(WildcardQuery.class, term.text(), maxDeterminizedStates);
+    Entry entry = (Entry) get(key);
+    if (entry == null) {
+      entry = buildWildcard(term, maxDeterminizedStates);
+      put(key, entry);
+    }
+    return entry;
+  }
+
+  /** Builds the automaton of a {@link WildcardQuery} without caching it. */
+  static Entry buildWildcard(Term term, int maxDeterminizedStates) {
+    final Automaton automaton = WildcardQuery.toAutomaton(term);
+    return new Entry(automaton, AutomatonQuery.compile(automaton, maxDeterminizedStates, false));
+  }
+
+  /**
+   * Returns the compiled Levenshtein automaton which accepts {@code prefix}
+   * followed by any term within {@code editDistance} edits of {@code suffix},
+   * as used by {@link FuzzyTermsEnum}.
+   */
+  CompiledAutomaton getLevenshtein(String prefix, String suffix, int editDistance, boolean transpositions) {
+    final Key key = new Key(FuzzyQuery.class, prefix, suffix, editDistance, transpositions);
+    CompiledAutomaton compiled = (CompiledAutomaton) get(key);
+    if (compiled == null) {
+      final Automaton automaton = new LevenshteinAutomata(suffix, transpositions).toAutomaton(editDistance, prefix);
+      compiled = new CompiledAutomaton(automaton, true, false);
+      put(key, compiled);
+    }
+    return compiled;
+  }
+
+  private synchronized Accountable get(Key key) {
+    final Accountable value = cache.get(key);
+    if (value == null) {
+      missCount++;
+    } else {
+      hitCount++;
+    }
+    return value;
+  }
+
+  private synchronized void put(Key key, Accountable value) {
+    final long entryRamBytesUsed = ramBytesUsed(key, value);
+    if (entryRamBytesUsed > maxRamBytesUsed) {
+      // would evict everything else and then itself
+      return;
+    }
+    final Accountable previous = cache.put(key, value);
+    if (previous != null) {
+      // another thread built the same automaton concurrently
+      ramBytesUsed -= ramBytesUsed(key, previous);
+    }
+    ramBytesUsed += entryRamBytesUsed;
+    evictIfNecessary();
+  }
+
+  private void evictIfNecessary() {
+    assert Thread.holdsLock(this);
+    final Iterator<Map.Entry<Key,Accountable>> iterator = cache.entrySet().iterator();
+    while ((cache.size() > maxSize || ramBytesUsed > maxRamBytesUsed) && iterator.hasNext()) {
+      final Map.Entry<Key,Accountable> eldest = iterator.next();
+      iterator.remove();
+      ramBytesUsed -= ramBytesUsed(eldest.getKey(), eldest.getValue());
+    }
+  }
+
+  private static long ramBytesUsed(Key key, Accountable value) {
+    return LRUQueryCache.LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY + key.ramBytesUsed() + value.ramBytesUsed();
+  }
+
+  /** Removes all cached automata; statistics are kept. */
+  public synchronized void clear() {
+    cache.clear();
+    ramBytesUsed = 0;
+  }
+
+  /**
+   * Return the total number of times that an automaton has been looked up in
+   * this cache. This is the sum of {@link #getHitCount()} and
+   * {@link #getMissCount()}.
+   */
+  public synchronized long getTotalCount() {
+    return hitCount + missCount;
+  }
+
+  /**
+   * Over the {@link #getTotalCount() total} number of lookups, return how
+   * many times a cached automaton has been found and returned.
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Over the {@link #getTotalCount() total} number of lookups, return how
+   * many times the automaton had to be built.
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /** Return the number of automata which are currently cached. */
+  public synchronized int getCacheSize() {
+    return cache.size();
+  }
+
+  /** Return the estimated memory usage of the cached automata. */
+  @Override
+  public synchronized long ramBytesUsed() {
+    return ramBytesUsed;
+  }
+}
@@ -62,6 +62,7 @@ public class FuzzyQuery extends MultiTermQuery {
   private final boolean transpositions;
   private final int prefixLength;
   private final Term term;
+  private final CompiledAutomatonCache automatonCache;
   
   /**
    * Create a new FuzzyQuery that will match terms with an edit distance 
@@ -80,6 +81,19 @@ public class FuzzyQuery extends MultiTermQuery {
    *        Levenshtein algorithm.
    */
   public FuzzyQuery(Term term, int maxEdits, int prefixLength, int maxExpansions, boolean transpositions) {
+    this(term, maxEdits, prefixLength, maxExpansions, transpositions, null);
+  }
+
+  /**
+   * Same as {@link #FuzzyQuery(Term, int, int, int, boolean)}, but takes the
+   * Levenshtein automata from the given cache when the query is rewritten,
+   * so that they are shared with other fuzzy queries on the same term.
+   * 
+   * @param automatonCache cache of compiled automata, or null to build them
+   *        for every rewrite
+   */
+  public FuzzyQuery(Term term, int maxEdits, int prefixLength, int maxExpansions, boolean transpositions,
+      CompiledAutomatonCache automatonCache) {
     super(term.field());
     
     if (maxEdits < 0 || maxEdits > LevenshteinAutomata.MAXIMUM_SUPPORTED_DISTANCE) {
@@ -97,6 +111,7 @@ public class FuzzyQuery extends MultiTermQuery {
     this.prefixLength = prefixLength;
     this.transpositions = transpositions;
     this.maxExpansions = maxExpansions;
+    this.automatonCache = automatonCache;
     setRewriteMethod(new MultiTermQuery.TopTermsBlendedFreqScoringRewrite(maxExpansions));
   }
   
@@ -151,7 +166,7 @@ public class FuzzyQuery extends MultiTermQuery {
     if (maxEdits == 0 || prefixLength >= term.text().length()) {  // can only match if it's exact
       return new SingleTermsEnum(terms.iterator(), term.bytes());
     }
-    return new FuzzyTermsEnum(terms, atts, getTerm(), maxEdits, prefixLength, transpositions);
+    return new FuzzyTermsEnum(terms, atts, getTerm(), maxEdits, prefixLength, transpositions, automatonCache);
   }
   
   /**
@@ -77,6 +77,7 @@ public class FuzzyTermsEnum extends TermsEnum {
   protected final int realPrefixLength;
   
   private final boolean transpositions;
+  private final CompiledAutomatonCache automatonCache;
   
   /**
    * Constructor for enumeration of all terms from specified <code>reader</code> which share a prefix of
@@ -98,6 +99,17 @@ public class FuzzyTermsEnum extends TermsEnum {
    */
   public FuzzyTermsEnum(Terms terms, AttributeSource atts, Term term, 
       final float minSimilarity, final int prefixLength, boolean transpositions) throws IOException {
+    this(terms, atts, term, minSimilarity, prefixLength, transpositions, null);
+  }
+
+  /**
+   * Same as {@link #FuzzyTermsEnum(Terms, AttributeSource, Term, float, int, boolean)},
+   * but takes the Levenshtein automata from the given cache, if not null.
+   * @throws IOException if there is a low-level IO error
+   */
+  public FuzzyTermsEnum(Terms terms, AttributeSource atts, Term term, 
+      final float minSimilarity, final int prefixLength, boolean transpositions,
+      CompiledAutomatonCache automatonCache) throws IOException {
     if (minSimilarity >= 1.0f && minSimilarity != (int)minSimilarity)
       throw new IllegalArgumentException("fractional edit distances are not allowed");
     if (minSimilarity < 0.0f)
@@ -134,6 +146,7 @@ public class FuzzyTermsEnum extends TermsEnum {
         + LevenshteinAutomata.MAXIMUM_SUPPORTED_DISTANCE + " are not supported ");
     }
     this.transpositions = transpositions;
+    this.automatonCache = automatonCache;
     this.scale_factor = 1.0f / (1.0f - this.minSimilarity);
 
     this.maxBoostAtt = atts.addAttribute(MaxNonCompetitiveBoostAttribute.class);
@@ -165,14 +178,19 @@ public class FuzzyTermsEnum extends TermsEnum {
     //System.out.println("cached automata size: " + runAutomata.size());
     if (runAutomata.size() <= maxDistance &&
         maxDistance <= LevenshteinAutomata.MAXIMUM_SUPPORTED_DISTANCE) {
-      LevenshteinAutomata builder = 
-        new LevenshteinAutomata(UnicodeUtil.newString(termText, realPrefixLength, termText.length - realPrefixLength), transpositions);
-
+      String suffix = UnicodeUtil.newString(termText, realPrefixLength, termText.length - realPrefixLength);
       String prefix = UnicodeUtil.newString(termText, 0, realPrefixLength);
-      for (int i = runAutomata.size(); i <= maxDistance; i++) {
-        Automaton a = builder.toAutomaton(i, prefix);
-        //System.out.println("compute automaton n=" + i);
-        runAutomata.add(new CompiledAutomaton(a, true, false));
+      if (automatonCache != null) {
+        for (int i = runAutomata.size(); i <= maxDistance; i++) {
+          runAutomata.add(automatonCache.getLevenshtein(prefix, suffix, i, transpositions));
+        }
+      } else {
+        LevenshteinAutomata builder = new LevenshteinAutomata(suffix, transpositions);
+        for (int i = runAutomata.size(); i <= maxDistance; i++) {
+          Automaton a = builder.toAutomaton(i, prefix);
+          //System.out.println("compute automaton n=" + i);
+          runAutomata.add(new CompiledAutomaton(a, true, false));
+        }
       }
     }
     return runAutomata;
@@ -109,6 +109,43 @@ public class RegexpQuery extends AutomatonQuery {
           new RegExp(term.text(), flags).toAutomaton(
                        provider, maxDeterminizedStates), maxDeterminizedStates);
   }
+
+  /**
+   * Constructs a query for terms matching <code>term</code>, sharing the
+   * compiled automaton with other queries through the given cache.
+   * 
+   * @param term regular expression.
+   * @param flags optional RegExp features from {@link RegExp}
+   * @param maxDeterminizedStates maximum number of states that compiling the
+   *  automaton for the regexp can result in.  Set higher to allow more complex
+   *  queries and lower to prevent memory exhaustion.
+   * @param cache cache of compiled automata, or null to compile the
+   *  automaton for this query only
+   */
+  public RegexpQuery(Term term, int flags, int maxDeterminizedStates, CompiledAutomatonCache cache) {
+    this(term, flags, defaultProvider, maxDeterminizedStates, cache);
+  }
+
+  /**
+   * Constructs a query for terms matching <code>term</code>, sharing the
+   * compiled automaton with other queries through the given cache.
+   * 
+   * @param term regular expression.
+   * @param flags optional RegExp features from {@link RegExp}
+   * @param provider custom AutomatonProvider for named automata; only
+   *  queries with equal providers share automata
+   * @param maxDeterminizedStates maximum number of states that compiling the
+   *  automaton for the regexp can result in.  Set higher to allow more complex
+   *  queries and lower to prevent memory exhaustion.
+   * @param cache cache of compiled automata, or null to compile the
+   *  automaton for this query only
+   */
+  public RegexpQuery(Term term, int flags, AutomatonProvider provider,
+      int maxDeterminizedStates, CompiledAutomatonCache cache) {
+    super(term, cache == null
+        ? CompiledAutomatonCache.buildRegexp(term, flags, provider, maxDeterminizedStates)
+        : cache.getRegexp(term, flags, provider, maxDeterminizedStates));
+  }
   
   /** Prints a user-readable version of this query. */
   @Override
@@ -67,6 +67,22 @@ public class WildcardQuery extends AutomatonQuery {
     super(term, toAutomaton(term), maxDeterminizedStates);
   }
 
+  /**
+   * Constructs a query for terms matching <code>term</code>, sharing the
+   * compiled automaton with other queries through the given cache.
+   * @param maxDeterminizedStates maximum number of states in the resulting
+   *   automata.  If the automata would need more than this many states
+   *   TooComplextToDeterminizeException is thrown.  Higher number require more
+   *   space but can process more complex automata.
+   * @param cache cache of compiled automata, or null to compile the
+   *   automaton for this query only
+   */
+  public WildcardQuery(Term term, int maxDeterminizedStates, CompiledAutomatonCache cache) {
+    super(term, cache == null
+        ? CompiledAutomatonCache.buildWildcard(term, maxDeterminizedStates)
+        : cache.getWildcard(term, maxDeterminizedStates));
+  }
+
   /**
    * Convert Lucene wildcard syntax into an automaton.
    * @lucene.internal
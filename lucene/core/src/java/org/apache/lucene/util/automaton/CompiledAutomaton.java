@@ -24,9 +24,11 @@ import java.util.List;
 import org.apache.lucene.index.SingleTermsEnum;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.UnicodeUtil;
 
@@ -37,7 +39,9 @@ import org.apache.lucene.util.UnicodeUtil;
  *
  * @lucene.experimental
  */
-public class CompiledAutomaton {
+public class CompiledAutomaton implements Accountable {
+  private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(CompiledAutomaton.class);
+
   /**
    * Automata are compiled into different internal forms for the
    * most efficient execution depending upon the language they accept.
@@ -253,11 +257,9 @@ public class CompiledAutomaton {
     sinkState = findSinkState(this.automaton);
   }
 
-  private Transition transition = new Transition();
-  
   //private static final boolean DEBUG = BlockTreeTermsWriter.DEBUG;
 
-  private BytesRef addTail(int state, BytesRefBuilder term, int idx, int leadLabel) {
+  private BytesRef addTail(int state, BytesRefBuilder term, int idx, int leadLabel, Transition transition) {
     //System.out.println("addTail state=" + state + " term=" + term.utf8ToString() + " idx=" + idx + " leadLabel=" + (char) leadLabel);
     //System.out.println(automaton.toDot());
     // Find biggest transition that's < label
@@ -351,6 +353,8 @@ public class CompiledAutomaton {
 
     //if (DEBUG) System.out.println("CA.floor input=" + input.utf8ToString());
 
+    // not a field, so that several threads can share this instance
+    final Transition transition = new Transition();
     int state = runAutomaton.getInitialState();
 
     // Special case empty string:
@@ -424,7 +428,7 @@ public class CompiledAutomaton {
 
         //if (DEBUG) System.out.println("  label=" + (char) label + " idx=" + idx);
 
-        return addTail(state, output, idx, label);
+        return addTail(state, output, idx, label, transition);
         
       } else {
         output.grow(1+idx);
@@ -461,4 +465,17 @@ public class CompiledAutomaton {
 
     return true;
   }
+
+  @Override
+  public long ramBytesUsed() {
+    // automaton is the run automaton's own, which accounts for it
+    return BASE_RAM_BYTES_USED +
+      (runAutomaton == null ? 0 : runAutomaton.ramBytesUsed()) +
+      sizeOf(term) +
+      sizeOf(commonSuffixRef);
+  }
+
+  private static long sizeOf(BytesRef ref) {
+    return ref == null ? 0 : RamUsageEstimator.shallowSizeOfInstance(BytesRef.class) + RamUsageEstimator.sizeOf(ref.bytes);
+  }
 }
@@ -31,12 +31,17 @@ package org.apache.lucene.util.automaton;
 
 import java.util.Arrays;
 
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
 /**
  * Finite-state automaton with fast run operation.
  * 
  * @lucene.experimental
  */
-public abstract class RunAutomaton {
+public abstract class RunAutomaton implements Accountable {
+  private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(RunAutomaton.class);
+
   final Automaton automaton;
   final int maxInterval;
   final int size;
@@ -209,4 +214,14 @@ public abstract class RunAutomaton {
     if (!Arrays.equals(transitions, other.transitions)) return false;
     return true;
   }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED +
+      automaton.ramBytesUsed() +
+      RamUsageEstimator.sizeOf(accept) +
+      RamUsageEstimator.sizeOf(transitions) +
+      RamUsageEstimator.sizeOf(points) +
+      (classmap == null ? 0 : RamUsageEstimator.sizeOf(classmap));
+  }
 }
@@ -233,6 +233,19 @@ public class Builder<T> {
     return fn;
   }
 
+  /** Compiles a node whose arcs all point to compiled
+   *  nodes already, sharing it if an equal node was
+   *  compiled before; used by {@link ParallelBuilder}. */
+  long addNode(UnCompiledNode<T> nodeIn) throws IOException {
+    return compileNode(nodeIn, 0).node;
+  }
+
+  /** Returns the root node, which is only compiled by
+   *  {@link #finish}; used by {@link ParallelBuilder}. */
+  UnCompiledNode<T> getRoot() {
+    return frontier[0];
+  }
+
   private void freezeTail(int prefixLenPlus1) throws IOException {
     //System.out.println("  compileTail " + prefixLenPlus1);
     final int downTo = Math.max(1, prefixLenPlus1);
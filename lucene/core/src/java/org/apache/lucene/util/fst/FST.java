@@ -34,9 +34,11 @@ import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.store.ByteArrayDataOutput;
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.InputStreamDataInput;
 import org.apache.lucene.store.OutputStreamDataOutput;
 import org.apache.lucene.store.RAMOutputStream;
+import org.apache.lucene.store.RandomAccessInput;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
 import org.apache.lucene.util.ArrayUtil;
@@ -164,6 +166,10 @@ public final class FST<T> implements Accountable {
   /** Used at read time when the FST fits into a single byte[]. */
   final byte[] bytesArray;
 
+  /** Used at read time when the FST was loaded off-heap: a slice of
+   *  the {@link IndexInput} it was loaded from. */
+  private final IndexInput offHeapBytes;
+
   private long startNode = -1;
 
   public final Outputs<T> outputs;
@@ -289,6 +295,7 @@ public final class FST<T> implements Accountable {
     this.outputs = outputs;
     version = VERSION_CURRENT;
     bytesArray = null;
+    offHeapBytes = null;
     bytes = new BytesStore(bytesPageBits);
     // pad: ensure no node gets address 0 which is reserved to mean
     // the stop state w/ no arcs
@@ -316,6 +323,21 @@ public final class FST<T> implements Accountable {
   /** Load a previously saved FST; maxBlockBits allows you to
    *  control the size of the byte[] pages used to hold the FST bytes. */
   public FST(DataInput in, Outputs<T> outputs, int maxBlockBits) throws IOException {
+    this(in, outputs, maxBlockBits, false);
+  }
+
+  /** Load a previously saved FST; if offHeap is true, the
+   *  FST bytes are not copied to the heap but read directly
+   *  from a slice of the given input, which must then stay
+   *  open for as long as this FST is used. This is best used
+   *  with a memory-mapped input, so that large FSTs live in
+   *  the OS page cache instead. In both cases the input is
+   *  positioned after the FST once this returns. */
+  public FST(IndexInput in, Outputs<T> outputs, boolean offHeap) throws IOException {
+    this(in, outputs, DEFAULT_MAX_BLOCK_BITS, offHeap);
+  }
+
+  private FST(DataInput in, Outputs<T> outputs, int maxBlockBits, boolean offHeap) throws IOException {
     this.outputs = outputs;
 
     if (maxBlockBits < 1 || maxBlockBits > 30) {
@@ -377,15 +399,25 @@ public final class FST<T> implements Accountable {
     }
 
     long numBytes = in.readVLong();
-    if (numBytes > 1 << maxBlockBits) {
+    if (offHeap) {
+      // leave the bytes where they are and only skip them
+      final IndexInput indexInput = (IndexInput) in;
+      final long fp = indexInput.getFilePointer();
+      offHeapBytes = indexInput.slice("fst", fp, numBytes);
+      indexInput.seek(fp + numBytes);
+      bytes = null;
+      bytesArray = null;
+    } else if (numBytes > 1 << maxBlockBits) {
       // FST is big: we need multiple pages
       bytes = new BytesStore(in, numBytes, 1<<maxBlockBits);
       bytesArray = null;
+      offHeapBytes = null;
     } else {
       // FST fits into a single block: use ByteArrayBytesStoreReader for less overhead
       bytes = null;
       bytesArray = new byte[(int) numBytes];
       in.readBytes(bytesArray, 0, bytesArray.length);
+      offHeapBytes = null;
     }
     
     cacheRootArcs();
@@ -421,7 +453,7 @@ public final class FST<T> implements Accountable {
     long size = BASE_RAM_BYTES_USED;
     if (bytesArray != null) {
       size += bytesArray.length;
-    } else {
+    } else if (bytes != null) {
       size += bytes.ramBytesUsed();
     }
     if (packed) {
@@ -585,6 +617,11 @@ public final class FST<T> implements Accountable {
       long numBytes = bytes.getPosition();
       out.writeVLong(numBytes);
       bytes.writeTo(out);
+    } else if (offHeapBytes != null) {
+      final IndexInput in = offHeapBytes.clone();
+      in.seek(0);
+      out.writeVLong(in.length());
+      out.copyBytes(in, in.length());
     } else {
       assert bytesArray != null;
       out.writeVLong(bytesArray.length);
@@ -1340,6 +1377,19 @@ public final class FST<T> implements Accountable {
   /** Returns a {@link BytesReader} for this FST, positioned at
    *  position 0. */
   public BytesReader getBytesReader() {
+    if (offHeapBytes != null) {
+      final RandomAccessInput in;
+      try {
+        in = offHeapBytes.randomAccessSlice(0, offHeapBytes.length());
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      if (packed) {
+        return new ForwardRandomAccessReader(in);
+      } else {
+        return new ReverseRandomAccessReader(in);
+      }
+    }
     if (packed) {
       if (bytesArray != null) {
         return new ForwardBytesReader(bytesArray);
@@ -1480,6 +1530,7 @@ public final class FST<T> implements Accountable {
   private FST(INPUT_TYPE inputType, Outputs<T> outputs, int bytesPageBits) {
     version = VERSION_CURRENT;
     packed = true;
+    offHeapBytes = null;
     this.inputType = inputType;
     bytesArray = null;
     bytes = new BytesStore(bytesPageBits);
@@ -0,0 +1,274 @@
+package org.apache.lucene.util.fst;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.apache.lucene.util.fst.Builder.CompiledNode;
+import org.apache.lucene.util.fst.Builder.UnCompiledNode;
+import org.apache.lucene.util.packed.PackedInts;
+import org.apache.lucene.util.packed.PagedGrowableWriter;
+
+/**
+ * Builds the same minimal FST as {@link Builder} with default
+ * settings, from pre-sorted inputs, using several threads.
+ * <p>
+ * The inputs are cut into shards of about {@code shardSize}
+ * inputs, on a change of the first label, and each shard is
+ * built into a sub-FST by a {@link Builder} on the given
+ * {@link ExecutorService}. The calling thread then copies the
+ * nodes of each sub-FST, in order, into the final FST, through a
+ * single suffix hash so that suffixes are also shared across
+ * shards, and the root arcs of all sub-FSTs become the arcs of
+ * the final root. Copying a sub-FST only costs one hash lookup
+ * per node of the (already minimal) sub-FST, while building it
+ * costs one per node of every input's suffix.
+ * <p>
+ * Since shards are only cut between different first labels,
+ * inputs which mostly share their first label are built by a
+ * single thread.
+ *
+ * @lucene.experimental
+ */
+public class ParallelBuilder<T> {
+
+  /** Default number of inputs per shard. */
+  public static final int DEFAULT_SHARD_SIZE = 1 << 16;
+
+  private final FST.INPUT_TYPE inputType;
+  private final Outputs<T> outputs;
+  private final ExecutorService executor;
+  private final int shardSize;
+  private final int maxPendingShards;
+  private final Builder<T> builder;
+
+  private final Deque<Future<FST<T>>> pendingShards = new ArrayDeque<>();
+  private List<IntsRef> shardInputs = new ArrayList<>();
+  private List<T> shardOutputs = new ArrayList<>();
+  private long inputCount;
+
+  // scratch state for copying sub-FSTs, indexed by depth
+  private final FST.Arc<T> firstArc = new FST.Arc<>();
+  private FST.Arc<T>[] arcs;
+  private UnCompiledNode<T>[] nodes;
+  private long[] subNodes = new long[10];
+
+  /**
+   * Creates a builder with {@link #DEFAULT_SHARD_SIZE} inputs per
+   * shard, which has at most {@code 2 * maxThreads} shards built or
+   * waiting to be built at any time.
+   */
+  public ParallelBuilder(FST.INPUT_TYPE inputType, Outputs<T> outputs, ExecutorService executor, int maxThreads) {
+    this(inputType, outputs, executor, DEFAULT_SHARD_SIZE, 2 * maxThreads);
+  }
+
+  /**
+   * Creates a builder which cuts shards of about {@code shardSize}
+   * inputs, and has at most {@code maxPendingShards} of them built or
+   * waiting to be built at any time; this bounds the number of
+   * inputs held in memory.
+   */
+  @SuppressWarnings({"rawtypes","unchecked"})
+  public ParallelBuilder(FST.INPUT_TYPE inputType, Outputs<T> outputs, ExecutorService executor, int shardSize, int maxPendingShards) {
+    if (shardSize < 1) {
+      throw new IllegalArgumentException("shardSize must be >= 1; got " + shardSize);
+    }
+    if (maxPendingShards < 1) {
+      throw new IllegalArgumentException("maxPendingShards must be >= 1; got " + maxPendingShards);
+    }
+    this.inputType = inputType;
+    this.outputs = outputs;
+    this.executor = executor;
+    this.shardSize = shardSize;
+    this.maxPendingShards = maxPendingShards;
+    this.builder = new Builder<>(inputType, outputs);
+    arcs = new FST.Arc[10];
+    nodes = new UnCompiledNode[10];
+    for (int depth = 0; depth < arcs.length; depth++) {
+      arcs[depth] = new FST.Arc<>();
+    }
+    nodes[0] = builder.getRoot();
+  }
+
+  /** Returns the number of inputs added so far. */
+  public long getTermCount() {
+    return inputCount;
+  }
+
+  /** Returns the number of nodes of the final FST so far. */
+  public long getNodeCount() {
+    return builder.getNodeCount();
+  }
+
+  /**
+   * Adds the next input/output pair; inputs must be added in sorted
+   * order, as with {@link Builder#add}. The input is copied, but
+   * outputs are held on to until their shard is built.
+   */
+  public void add(IntsRef input, T output) throws IOException {
+    if (input.length == 0) {
+      // only allowed as first input; it is accepted by the root of the final FST
+      builder.add(input, output);
+    } else {
+      if (shardInputs.size() >= shardSize) {
+        final IntsRef last = shardInputs.get(shardInputs.size()-1);
+        if (last.ints[last.offset] != input.ints[input.offset]) {
+          flushShard();
+        }
+      }
+      shardInputs.add(IntsRef.deepCopyOf(input));
+      shardOutputs.add(output);
+    }
+    inputCount++;
+  }
+
+  /** Returns the final FST, or null if nothing is accepted by it. */
+  public FST<T> finish() throws IOException {
+    flushShard();
+    while (pendingShards.isEmpty() == false) {
+      stitch(pendingShards.poll());
+    }
+    return builder.finish();
+  }
+
+  private void flushShard() throws IOException {
+    if (shardInputs.isEmpty()) {
+      return;
+    }
+    final List<IntsRef> inputs = shardInputs;
+    final List<T> values = shardOutputs;
+    shardInputs = new ArrayList<>();
+    shardOutputs = new ArrayList<>();
+    pendingShards.add(executor.submit(new Callable<FST<T>>() {
+      @Override
+      public FST<T> call() throws Exception {
+        final Builder<T> shardBuilder = new Builder<>(inputType, outputs);
+        for (int i = 0; i < inputs.size(); i++) {
+          shardBuilder.add(inputs.get(i), values.get(i));
+        }
+        return shardBuilder.finish();
+      }
+    }));
+    // copy the shards that are done, or wait if too many inputs are pending
+    while (pendingShards.size() > maxPendingShards
+        || (pendingShards.isEmpty() == false && pendingShards.peek().isDone())) {
+      stitch(pendingShards.poll());
+    }
+  }
+
+  /** Stops building the remaining shards once a shard failed, since the FST can't be finished anymore. */
+  private void cancelPendingShards() {
+    while (pendingShards.isEmpty() == false) {
+      pendingShards.poll().cancel(true);
+    }
+  }
+
+  /** Copies the nodes of a built shard into the final FST, depth first. */
+  private void stitch(Future<FST<T>> future) throws IOException {
+    final FST<T> sub;
+    try {
+      sub = future.get();
+    } catch (InterruptedException e) {
+      cancelPendingShards();
+      throw new ThreadInterruptedException(e);
+    } catch (ExecutionException e) {
+      cancelPendingShards();
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new RuntimeException(e);
+    }
+
+    sub.getFirstArc(firstArc);
+    assert FST.targetHasArcs(firstArc);
+    final FST.BytesReader in = sub.getBytesReader();
+    // sub-FST node (address) -> final FST node + 1
+    final PagedGrowableWriter copied = new PagedGrowableWriter(sub.bytes.getPosition(), 1 << 27, 8, PackedInts.COMPACT);
+
+    int depth = 0;
+    sub.readFirstRealTargetArc(firstArc.target, arcs[0], in);
+    while (true) {
+      final FST.Arc<T> arc = arcs[depth];
+      final long targetNode;
+      if (FST.targetHasArcs(arc)) {
+        final long copiedNode = copied.get(arc.target);
+        if (copiedNode == 0) {
+          // copy the target first
+          depth++;
+          grow(depth);
+          subNodes[depth] = arc.target;
+          sub.readFirstRealTargetArc(arc.target, arcs[depth], in);
+          continue;
+        }
+        targetNode = copiedNode - 1;
+      } else {
+        targetNode = arc.target;
+      }
+      final CompiledNode target = new CompiledNode();
+      target.node = targetNode;
+
+      final UnCompiledNode<T> node = nodes[depth];
+      node.addArc(arc.label, target);
+      node.replaceLast(arc.label, target, arc.nextFinalOutput, arc.isFinal());
+      node.setLastOutput(arc.label, arc.output);
+
+      if (arc.isLast()) {
+        if (depth == 0) {
+          // the root is compiled by finish
+          break;
+        }
+        copied.set(subNodes[depth], builder.addNode(node) + 1);
+        depth--;
+      } else {
+        sub.readNextRealArc(arc, in);
+      }
+    }
+  }
+
+  @SuppressWarnings({"rawtypes","unchecked"})
+  private void grow(int depth) {
+    if (depth == arcs.length) {
+      final int newLength = ArrayUtil.oversize(depth+1, RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+      final FST.Arc<T>[] newArcs = new FST.Arc[newLength];
+      System.arraycopy(arcs, 0, newArcs, 0, arcs.length);
+      for (int i = arcs.length; i < newLength; i++) {
+        newArcs[i] = new FST.Arc<>();
+      }
+      arcs = newArcs;
+      final UnCompiledNode<T>[] newNodes = new UnCompiledNode[newLength];
+      System.arraycopy(nodes, 0, newNodes, 0, nodes.length);
+      nodes = newNodes;
+      subNodes = ArrayUtil.grow(subNodes, newLength);
+    }
+    if (nodes[depth] == null) {
+      nodes[depth] = new UnCompiledNode<>(builder, depth);
+    }
+  }
+}
@@ -19,6 +19,8 @@ package org.apache.lucene.codecs.lucene50;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsWriter;
 import org.apache.lucene.codecs.blocktree.FieldReader;
 import org.apache.lucene.codecs.blocktree.Stats;
 import org.apache.lucene.document.Document;
@@ -27,7 +29,10 @@ import org.apache.lucene.index.BasePostingsFormatTestCase;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.TestUtil;
 
 /**
@@ -65,6 +70,50 @@ public class TestBlockPostingsFormat extends BasePostingsFormatTestCase {
     d.close();
   }
 
+  /** Make sure terms can be found with a terms index read off-heap. */
+  public void testOffHeapTermsIndex() throws Exception {
+    Directory d = newDirectory();
+    IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setCodec(TestUtil.alwaysPostingsFormat(new Lucene50PostingsFormat(
+        BlockTreeTermsWriter.DEFAULT_MIN_BLOCK_SIZE, BlockTreeTermsWriter.DEFAULT_MAX_BLOCK_SIZE, true)));
+    IndexWriter w = new IndexWriter(d, iwc);
+    int numDocs = atLeast(1000);
+    for(int i=0;i<numDocs;i++) {
+      Document doc = new Document();
+      doc.add(newStringField("id", Integer.toString(i), Field.Store.NO));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+
+    DirectoryReader r = DirectoryReader.open(w);
+    assertEquals(1, r.leaves().size());
+    LeafReader leaf = r.leaves().get(0).reader();
+    assertEquals("true", leaf.getFieldInfos().fieldInfo("id").getAttribute(BlockTreeTermsReader.FST_OFF_HEAP_KEY));
+    TermsEnum termsEnum = leaf.fields().terms("id").iterator();
+    for(int i=0;i<numDocs;i++) {
+      assertTrue(termsEnum.seekExact(new BytesRef(Integer.toString(i))));
+    }
+    assertFalse(termsEnum.seekExact(new BytesRef("foo")));
+    r.close();
+    w.close();
+
+    // segments merged with an on-heap format are read on-heap again
+    iwc = new IndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setCodec(TestUtil.alwaysPostingsFormat(new Lucene50PostingsFormat()));
+    w = new IndexWriter(d, iwc);
+    Document doc = new Document();
+    doc.add(newStringField("id", "foo", Field.Store.NO));
+    w.addDocument(doc);
+    w.forceMerge(1);
+    r = DirectoryReader.open(w);
+    leaf = r.leaves().get(0).reader();
+    assertNull(leaf.getFieldInfos().fieldInfo("id").getAttribute(BlockTreeTermsReader.FST_OFF_HEAP_KEY));
+    assertTrue(leaf.fields().terms("id").iterator().seekExact(new BytesRef("foo")));
+    r.close();
+    w.close();
+    d.close();
+  }
+
   private void shouldFail(int minItemsInBlock, int maxItemsInBlock) {
     try {
       new Lucene50PostingsFormat(minItemsInBlock, maxItemsInBlock);
@@ -26,6 +26,7 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
@@ -412,4 +413,68 @@ public class TestMultiDocValues extends LuceneTestCase {
     ir2.close();
     dir.close();
   }
+
+  public void testOrdinalMapReusedAcrossReopen() throws Exception {
+    Directory dir = newDirectory();
+    
+    IndexWriterConfig iwc = newIndexWriterConfig(random(), null);
+    iwc.setMergePolicy(NoMergePolicy.INSTANCE);
+    IndexWriter iw = new IndexWriter(dir, iwc);
+
+    for (int i = 0; i < 10; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Field.Store.NO));
+      doc.add(new SortedSetDocValuesField("bytes", new BytesRef(Integer.toString(i))));
+      iw.addDocument(doc);
+      if (i % 3 == 0) {
+        iw.commit();
+      }
+    }
+    OrdinalMapCache cache = new OrdinalMapCache();
+    DirectoryReader ir = DirectoryReader.open(iw);
+    SortedSetDocValues dv = MultiDocValues.getSortedSetValues(ir, "bytes", cache);
+    MultiDocValues.OrdinalMap map = ((MultiDocValues.MultiSortedSetDocValues) dv).mapping;
+    assertSame(ir.getCoreCacheKey(), map.owner);
+    assertEquals(1, cache.size());
+
+    // every reader gets its own wrapper, the cached map is not owned by (and doesn't keep alive) a reader
+    dv = MultiDocValues.getSortedSetValues(ir, "bytes", cache);
+    MultiDocValues.OrdinalMap again = ((MultiDocValues.MultiSortedSetDocValues) dv).mapping;
+    assertNotSame(map, again);
+    assertSame(ir.getCoreCacheKey(), again.owner);
+    assertSame(map.segmentToGlobalOrds, again.segmentToGlobalOrds);
+
+    // without the cache, the map is built again
+    dv = MultiDocValues.getSortedSetValues(ir, "bytes");
+    assertNotSame(map.segmentToGlobalOrds, ((MultiDocValues.MultiSortedSetDocValues) dv).mapping.segmentToGlobalOrds);
+
+    // deletes do not change the terms, so the map is shared
+    iw.deleteDocuments(new Term("id", "5"));
+    DirectoryReader ir2 = DirectoryReader.openIfChanged(ir, iw);
+    assertNotNull(ir2);
+    dv = MultiDocValues.getSortedSetValues(ir2, "bytes", cache);
+    MultiDocValues.OrdinalMap map2 = ((MultiDocValues.MultiSortedSetDocValues) dv).mapping;
+    assertSame(ir2.getCoreCacheKey(), map2.owner);
+    assertSame(map.segmentToGlobalOrds, map2.segmentToGlobalOrds);
+
+    // a new segment requires a new map
+    Document doc = new Document();
+    doc.add(new SortedSetDocValuesField("bytes", new BytesRef("new")));
+    iw.addDocument(doc);
+    DirectoryReader ir3 = DirectoryReader.openIfChanged(ir2, iw);
+    assertNotNull(ir3);
+    dv = MultiDocValues.getSortedSetValues(ir3, "bytes", cache);
+    MultiDocValues.OrdinalMap map3 = ((MultiDocValues.MultiSortedSetDocValues) dv).mapping;
+    assertNotSame(map.segmentToGlobalOrds, map3.segmentToGlobalOrds);
+    assertEquals(11, map3.getValueCount());
+    assertEquals(2, cache.size());
+
+    // the maps are dropped with the cores of their segments
+    iw.close();
+    ir.close();
+    ir2.close();
+    ir3.close();
+    assertEquals(0, cache.size());
+    dir.close();
+  }
 }
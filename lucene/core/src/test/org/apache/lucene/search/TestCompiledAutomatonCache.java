@@ -0,0 +1,237 @@
+package org.apache.lucene.search;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+import org.apache.lucene.util.automaton.RegExp;
+
+import static org.apache.lucene.util.automaton.Operations.DEFAULT_MAX_DETERMINIZED_STATES;
+
+public class TestCompiledAutomatonCache extends LuceneTestCase {
+  private IndexSearcher searcher;
+  private IndexReader reader;
+  private Directory directory;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    directory = newDirectory();
+    RandomIndexWriter writer = new RandomIndexWriter(random(), directory);
+    for (String text : new String[] {"the quick brown fox", "jumps over", "the lazy dog", "quack"}) {
+      Document doc = new Document();
+      doc.add(newTextField("field", text, Field.Store.NO));
+      writer.addDocument(doc);
+    }
+    reader = writer.getReader();
+    writer.close();
+    searcher = newSearcher(reader);
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    reader.close();
+    directory.close();
+    super.tearDown();
+  }
+
+  public void testRegexp() throws Exception {
+    CompiledAutomatonCache cache = new CompiledAutomatonCache();
+    RegexpQuery q1 = new RegexpQuery(new Term("field", "qu[ai]c.*"), RegExp.ALL, DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    assertEquals(0, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    RegexpQuery q2 = new RegexpQuery(new Term("other", "qu[ai]c.*"), RegExp.ALL, DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getCacheSize());
+    assertSame(q1.compiled, q2.compiled);
+    assertSame(q1.getAutomaton(), q2.getAutomaton());
+
+    RegexpQuery uncached = new RegexpQuery(new Term("field", "qu[ai]c.*"));
+    assertEquals(uncached, q1);
+    assertEquals(uncached.hashCode(), q1.hashCode());
+    assertEquals(2, searcher.search(q1, 5).totalHits);
+
+    // different flags are a different automaton
+    new RegexpQuery(new Term("field", "qu[ai]c.*"), RegExp.NONE, DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    assertEquals(2, cache.getMissCount());
+    assertEquals(3, cache.getTotalCount());
+  }
+
+  public void testWildcard() throws Exception {
+    CompiledAutomatonCache cache = new CompiledAutomatonCache();
+    WildcardQuery q1 = new WildcardQuery(new Term("field", "l?z*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    WildcardQuery q2 = new WildcardQuery(new Term("field", "l?z*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    assertSame(q1.compiled, q2.compiled);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(new WildcardQuery(new Term("field", "l?z*")), q1);
+    assertEquals(1, searcher.search(q2, 5).totalHits);
+  }
+
+  public void testFuzzy() throws Exception {
+    CompiledAutomatonCache cache = new CompiledAutomatonCache();
+    FuzzyQuery query = new FuzzyQuery(new Term("field", "quick"), 2, 0, 50, true, cache);
+    assertEquals(searcher.search(new FuzzyQuery(new Term("field", "quick"), 2, 0, 50, true), 5).totalHits,
+        searcher.search(query, 5).totalHits);
+    assertTrue(cache.getMissCount() > 0);
+    final long misses = cache.getMissCount();
+    final int size = cache.getCacheSize();
+    searcher.search(new FuzzyQuery(new Term("field", "quick"), 2, 0, 50, true, cache), 5);
+    assertEquals(misses, cache.getMissCount());
+    assertEquals(size, cache.getCacheSize());
+    assertTrue(cache.getHitCount() > 0);
+  }
+
+  public void testNullCache() throws Exception {
+    RegexpQuery regexp = new RegexpQuery(new Term("field", "qu[ai]c.*"), RegExp.ALL, DEFAULT_MAX_DETERMINIZED_STATES, null);
+    assertEquals(new RegexpQuery(new Term("field", "qu[ai]c.*")), regexp);
+    assertEquals(2, searcher.search(regexp, 5).totalHits);
+    WildcardQuery wildcard = new WildcardQuery(new Term("field", "l?z*"), DEFAULT_MAX_DETERMINIZED_STATES, null);
+    assertEquals(new WildcardQuery(new Term("field", "l?z*")), wildcard);
+    assertEquals(1, searcher.search(wildcard, 5).totalHits);
+  }
+
+  public void testConcurrentSearches() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter writer = new RandomIndexWriter(random(), dir);
+    int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      // a small alphabet, so that fuzzy queries match more terms than they
+      // can expand to, and move to smaller edit distances while enumerating
+      doc.add(newStringField("field", TestUtil.randomSimpleStringRange(random(), 'a', 'e', 6), Field.Store.NO));
+      writer.addDocument(doc);
+    }
+    IndexReader reader = writer.getReader();
+    writer.close();
+    final IndexSearcher searcher = newSearcher(reader);
+
+    final String[] patterns = new String[] {"abcde", "aacc", "edcba", "bbbb", "cad"};
+    final int[] expected = new int[3 * patterns.length];
+    for (int i = 0; i < patterns.length; i++) {
+      Term term = new Term("field", patterns[i]);
+      expected[3*i] = searcher.search(new FuzzyQuery(term, 2, 0, 10, true), 10).totalHits;
+      expected[3*i+1] = searcher.search(new RegexpQuery(new Term("field", patterns[i] + ".*")), 10).totalHits;
+      expected[3*i+2] = searcher.search(new WildcardQuery(new Term("field", "?" + patterns[i].substring(1) + "*")), 10).totalHits;
+    }
+
+    final CompiledAutomatonCache cache = new CompiledAutomatonCache();
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+    final int numThreads = TestUtil.nextInt(random(), 2, 6);
+    final int iters = atLeast(20);
+    for (int t = 0; t < numThreads; t++) {
+      Thread thread = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            for (int iter = 0; iter < iters; iter++) {
+              for (int i = 0; i < patterns.length; i++) {
+                Term term = new Term("field", patterns[i]);
+                assertEquals(expected[3*i],
+                    searcher.search(new FuzzyQuery(term, 2, 0, 10, true, cache), 10).totalHits);
+                assertEquals(expected[3*i+1], searcher.search(new RegexpQuery(new Term("field", patterns[i] + ".*"),
+                    RegExp.ALL, DEFAULT_MAX_DETERMINIZED_STATES, cache), 10).totalHits);
+                assertEquals(expected[3*i+2], searcher.search(new WildcardQuery(new Term("field", "?" + patterns[i].substring(1) + "*"),
+                    DEFAULT_MAX_DETERMINIZED_STATES, cache), 10).totalHits);
+              }
+            }
+          } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+          }
+        }
+      };
+      threads.add(thread);
+      thread.start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    reader.close();
+    dir.close();
+    if (failure.get() != null) {
+      throw new AssertionError("a search thread failed", failure.get());
+    }
+    assertTrue(cache.getHitCount() > 0);
+  }
+
+  public void testEviction() {
+    CompiledAutomatonCache cache = new CompiledAutomatonCache(2, Long.MAX_VALUE);
+    new WildcardQuery(new Term("field", "a*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    new WildcardQuery(new Term("field", "b*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    // a* is now the most recently used
+    new WildcardQuery(new Term("field", "a*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    new WildcardQuery(new Term("field", "c*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    assertEquals(2, cache.getCacheSize());
+    assertEquals(1, cache.getHitCount());
+    new WildcardQuery(new Term("field", "a*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    assertEquals(2, cache.getHitCount());
+    new WildcardQuery(new Term("field", "b*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    assertEquals(4, cache.getMissCount());
+
+    cache.clear();
+    assertEquals(0, cache.getCacheSize());
+  }
+
+  public void testRamBytesUsed() {
+    CompiledAutomatonCache cache = new CompiledAutomatonCache(CompiledAutomatonCache.DEFAULT_MAX_SIZE, Long.MAX_VALUE);
+    assertEquals(0, cache.ramBytesUsed());
+    new WildcardQuery(new Term("field", "a*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    final long entryRamBytesUsed = cache.ramBytesUsed();
+    assertTrue(entryRamBytesUsed > 0);
+    // a hit doesn't change the memory usage
+    new WildcardQuery(new Term("field", "a*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    assertEquals(entryRamBytesUsed, cache.ramBytesUsed());
+    new WildcardQuery(new Term("field", "b*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    assertEquals(2 * entryRamBytesUsed, cache.ramBytesUsed());
+    cache.clear();
+    assertEquals(0, cache.ramBytesUsed());
+
+    // room for two entries only
+    cache = new CompiledAutomatonCache(CompiledAutomatonCache.DEFAULT_MAX_SIZE, 2 * entryRamBytesUsed + entryRamBytesUsed / 2);
+    new WildcardQuery(new Term("field", "a*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    new WildcardQuery(new Term("field", "b*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    new WildcardQuery(new Term("field", "c*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    assertEquals(2, cache.getCacheSize());
+    assertEquals(2 * entryRamBytesUsed, cache.ramBytesUsed());
+    // a* was evicted
+    new WildcardQuery(new Term("field", "a*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    assertEquals(0, cache.getHitCount());
+
+    // an automaton larger than the cache is not cached
+    cache = new CompiledAutomatonCache(CompiledAutomatonCache.DEFAULT_MAX_SIZE, entryRamBytesUsed - 1);
+    WildcardQuery query = new WildcardQuery(new Term("field", "l?z*"), DEFAULT_MAX_DETERMINIZED_STATES, cache);
+    assertEquals(0, cache.getCacheSize());
+    assertEquals(0, cache.ramBytesUsed());
+    assertEquals(1, searcher.search(query, 5).totalHits);
+  }
+}
@@ -1209,6 +1209,63 @@ public class TestFSTs extends LuceneTestCase {
     dir.close();
   }
 
+  public void testOffHeap() throws Exception {
+    final PositiveIntOutputs outputs = PositiveIntOutputs.getSingleton();
+    final boolean doPack = random().nextBoolean();
+    final Builder<Long> builder = new Builder<>(FST.INPUT_TYPE.BYTE1, 0, 0, true, true, Integer.MAX_VALUE, outputs, doPack, PackedInts.DEFAULT, true, 15);
+    final TreeMap<BytesRef,Long> terms = new TreeMap<>();
+    final int numTerms = atLeast(1000);
+    while (terms.size() < numTerms) {
+      terms.put(new BytesRef(TestUtil.randomUnicodeString(random())), (long) random().nextInt(1000));
+    }
+    final IntsRefBuilder scratch = new IntsRefBuilder();
+    for (Map.Entry<BytesRef,Long> ent : terms.entrySet()) {
+      builder.add(Util.toIntsRef(ent.getKey(), scratch), ent.getValue());
+    }
+    final FST<Long> fst = builder.finish();
+
+    Directory dir = newDirectory();
+    IndexOutput out = dir.createOutput("fst", IOContext.DEFAULT);
+    out.writeVInt(42);
+    fst.save(out);
+    out.writeVInt(17);
+    out.close();
+
+    IndexInput in = dir.openInput("fst", IOContext.DEFAULT);
+    assertEquals(42, in.readVInt());
+    final FST<Long> offHeap = new FST<>(in, outputs, true);
+    // the input is positioned after the FST
+    assertEquals(17, in.readVInt());
+    assertTrue(offHeap.ramBytesUsed() < fst.ramBytesUsed());
+
+    for (Map.Entry<BytesRef,Long> ent : terms.entrySet()) {
+      assertEquals(ent.getValue(), Util.get(offHeap, ent.getKey()));
+    }
+    final BytesRefFSTEnum<Long> fstEnum = new BytesRefFSTEnum<>(offHeap);
+    for (Map.Entry<BytesRef,Long> ent : terms.entrySet()) {
+      final InputOutput<Long> io = fstEnum.next();
+      assertEquals(ent.getKey(), io.input);
+      assertEquals(ent.getValue(), io.output);
+    }
+    assertNull(fstEnum.next());
+
+    if (doPack == false) {
+      // saving the off-heap FST copies its bytes back out
+      out = dir.createOutput("fst2", IOContext.DEFAULT);
+      offHeap.save(out);
+      out.close();
+      IndexInput in2 = dir.openInput("fst2", IOContext.DEFAULT);
+      final FST<Long> fst2 = new FST<>(in2, outputs);
+      in2.close();
+      for (Map.Entry<BytesRef,Long> ent : terms.entrySet()) {
+        assertEquals(ent.getValue(), Util.get(fst2, ent.getKey()));
+      }
+    }
+
+    in.close();
+    dir.close();
+  }
+
   private void checkStopNodes(FST<Long> fst, PositiveIntOutputs outputs) throws Exception {
     final Long nothing = outputs.getNoOutput();
     FST.Arc<Long> startArc = fst.getFirstArc(new FST.Arc<Long>());
@@ -0,0 +1,192 @@
+package org.apache.lucene.util.fst;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
+import org.apache.lucene.util.TestUtil;
+
+public class TestParallelBuilder extends LuceneTestCase {
+
+  public void testRandom() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(TestUtil.nextInt(random(), 1, 4), new NamedThreadFactory("TestParallelBuilder"));
+    try {
+      final int iters = atLeast(10);
+      for (int iter = 0; iter < iters; iter++) {
+        final boolean withEmpty = random().nextBoolean();
+        final Set<BytesRef> terms = new TreeSet<>();
+        final int numTerms = atLeast(random().nextBoolean() ? 10 : 1000);
+        while (terms.size() < numTerms) {
+          // a small alphabet, so that suffixes are shared across shards
+          final byte[] bytes = new byte[TestUtil.nextInt(random(), 1, 10)];
+          for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ('a' + random().nextInt(TestUtil.nextInt(random(), 2, 20)));
+          }
+          terms.add(new BytesRef(bytes));
+        }
+        final List<IntsRef> inputs = new ArrayList<>();
+        if (withEmpty) {
+          inputs.add(new IntsRef());
+        }
+        final IntsRefBuilder scratch = new IntsRefBuilder();
+        for (BytesRef term : terms) {
+          inputs.add(IntsRef.deepCopyOf(Util.toIntsRef(term, scratch)));
+        }
+
+        final PositiveIntOutputs outputs = PositiveIntOutputs.getSingleton();
+        final Builder<Long> builder = new Builder<>(FST.INPUT_TYPE.BYTE1, outputs);
+        final ParallelBuilder<Long> parallelBuilder = new ParallelBuilder<>(FST.INPUT_TYPE.BYTE1, outputs, executor,
+            TestUtil.nextInt(random(), 1, 200), TestUtil.nextInt(random(), 1, 8));
+        long output = 0;
+        for (IntsRef input : inputs) {
+          output += TestUtil.nextInt(random(), 0, 5);
+          builder.add(input, output);
+          parallelBuilder.add(input, output);
+        }
+        assertEquals(inputs.size(), parallelBuilder.getTermCount());
+        final FST<Long> expected = builder.finish();
+        final FST<Long> actual = parallelBuilder.finish();
+        assertEquals(builder.getNodeCount(), parallelBuilder.getNodeCount());
+
+        final IntsRefFSTEnum<Long> expectedEnum = new IntsRefFSTEnum<>(expected);
+        final IntsRefFSTEnum<Long> actualEnum = new IntsRefFSTEnum<>(actual);
+        IntsRefFSTEnum.InputOutput<Long> expectedNext;
+        while ((expectedNext = expectedEnum.next()) != null) {
+          final IntsRefFSTEnum.InputOutput<Long> actualNext = actualEnum.next();
+          assertNotNull(actualNext);
+          assertEquals(expectedNext.input, actualNext.input);
+          assertEquals(expectedNext.output, actualNext.output);
+        }
+        assertNull(actualEnum.next());
+        for (IntsRef input : inputs) {
+          assertEquals(Util.get(expected, input), Util.get(actual, input));
+        }
+      }
+    } finally {
+      TestUtil.shutdownExecutorService(executor);
+    }
+  }
+
+  public void testOnlyEmptyInput() throws Exception {
+    final ExecutorService executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("TestParallelBuilder"));
+    try {
+      final ParallelBuilder<Long> builder = new ParallelBuilder<>(FST.INPUT_TYPE.BYTE1, PositiveIntOutputs.getSingleton(), executor, 2);
+      builder.add(new IntsRef(), 17L);
+      final FST<Long> fst = builder.finish();
+      assertNotNull(fst);
+      assertEquals(Long.valueOf(17), Util.get(fst, new IntsRef()));
+    } finally {
+      TestUtil.shutdownExecutorService(executor);
+    }
+  }
+
+  public void testShardFailure() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(TestUtil.nextInt(random(), 1, 4), new NamedThreadFactory("TestParallelBuilder"));
+    try {
+      // fails to write any output, which only the shard builders get to do
+      final PositiveIntOutputs delegate = PositiveIntOutputs.getSingleton();
+      final Outputs<Long> outputs = new Outputs<Long>() {
+        @Override
+        public Long common(Long output1, Long output2) {
+          return delegate.common(output1, output2);
+        }
+
+        @Override
+        public Long subtract(Long output, Long inc) {
+          return delegate.subtract(output, inc);
+        }
+
+        @Override
+        public Long add(Long prefix, Long output) {
+          return delegate.add(prefix, output);
+        }
+
+        @Override
+        public void write(Long output, DataOutput out) throws IOException {
+          throw new IOException("fake disk full");
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+          return delegate.read(in);
+        }
+
+        @Override
+        public Long getNoOutput() {
+          return delegate.getNoOutput();
+        }
+
+        @Override
+        public String outputToString(Long output) {
+          return delegate.outputToString(output);
+        }
+
+        @Override
+        public long ramBytesUsed(Long output) {
+          return delegate.ramBytesUsed(output);
+        }
+      };
+      final ParallelBuilder<Long> builder = new ParallelBuilder<>(FST.INPUT_TYPE.BYTE1, outputs, executor, 1, 2);
+      final IntsRefBuilder scratch = new IntsRefBuilder();
+      try {
+        for (char c = 'a'; c <= 'z'; c++) {
+          builder.add(Util.toIntsRef(new BytesRef(Character.toString(c)), scratch), (long) (c - 'a' + 1));
+        }
+        builder.finish();
+        fail("did not hit exception");
+      } catch (IOException expected) {
+        assertEquals("fake disk full", expected.getMessage());
+      }
+    } finally {
+      TestUtil.shutdownExecutorService(executor);
+    }
+  }
+
+  public void testIllegalArguments() {
+    final ExecutorService executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("TestParallelBuilder"));
+    try {
+      try {
+        new ParallelBuilder<>(FST.INPUT_TYPE.BYTE1, PositiveIntOutputs.getSingleton(), executor, 0, 1);
+        fail("did not hit exception");
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+      try {
+        new ParallelBuilder<>(FST.INPUT_TYPE.BYTE1, PositiveIntOutputs.getSingleton(), executor, 1, 0);
+        fail("did not hit exception");
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    } finally {
+      TestUtil.shutdownExecutorService(executor);
+    }
+  }
+}
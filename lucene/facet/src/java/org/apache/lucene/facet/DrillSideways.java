@@ -18,8 +18,17 @@ package org.apache.lucene.facet;
  */
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
 import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
@@ -28,6 +37,7 @@ import org.apache.lucene.facet.taxonomy.FastTaxonomyFacetCounts;
 import org.apache.lucene.facet.taxonomy.TaxonomyReader;
 import org.apache.lucene.search.FilterCollector;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -37,7 +47,9 @@ import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.util.ThreadInterruptedException;
 
 /**     
  * Computes drill down and sideways counts for the provided
@@ -55,6 +67,17 @@ import org.apache.lucene.search.TopScoreDocCollector;
  * index has high number of facet labels then this will
  * multiply your memory usage.
  *
+ * <p>If an {@link ExecutorService} is passed to the constructor,
+ * the sideways counts of each drill-down dimension are computed
+ * by a separate task on that executor, each running an ordinary
+ * drill-down query which leaves out that dimension, while the
+ * main query runs on the calling thread.  This costs more total
+ * CPU than the single pass of {@link DrillSidewaysScorer}, but
+ * reduces latency when there are several drill-down dimensions.
+ * Use {@link #search(DrillDownQuery, CollectorManager)} to also
+ * collect the hits of the main query over the slices of an
+ * {@link IndexSearcher} that was created with an executor.
+ *
  * @lucene.experimental
  */
 public class DrillSideways {
@@ -72,6 +95,10 @@ public class DrillSideways {
   /** {@link FacetsConfig} passed to constructor. */
   protected final FacetsConfig config;
 
+  /** {@link ExecutorService} passed to constructor; can be
+   *  null, in which case the search is not concurrent. */
+  protected final ExecutorService executor;
+
   /** Create a new {@code DrillSideways} instance. */
   public DrillSideways(IndexSearcher searcher, FacetsConfig config, TaxonomyReader taxoReader) {
     this(searcher, config, taxoReader, null);
@@ -88,10 +115,25 @@ public class DrillSideways {
    *  SortedSetDocValuesFacetField} and others were indexed
    *  with {@link FacetField}. */
   public DrillSideways(IndexSearcher searcher, FacetsConfig config, TaxonomyReader taxoReader, SortedSetDocValuesReaderState state) {
+    this(searcher, config, taxoReader, state, null);
+  }
+
+  /** Create a new {@code DrillSideways} instance, where some
+   *  dimensions were indexed with {@link
+   *  SortedSetDocValuesFacetField} and others were indexed
+   *  with {@link FacetField}, which computes the drill sideways
+   *  counts of each dimension concurrently on the provided
+   *  {@link ExecutorService}.  {@code DrillSideways} will not
+   *  close/awaitTermination this ExecutorService.  If the
+   *  {@link IndexSearcher} also has an executor, prefer a
+   *  different one here, so that the tasks of both do not
+   *  wait on each other in a bounded pool. */
+  public DrillSideways(IndexSearcher searcher, FacetsConfig config, TaxonomyReader taxoReader, SortedSetDocValuesReaderState state, ExecutorService executor) {
     this.searcher = searcher;
     this.config = config;
     this.taxoReader = taxoReader;
     this.state = state;
+    this.executor = executor;
   }
 
   /** Subclass can override to customize per-dim Facets
@@ -143,6 +185,23 @@ public class DrillSideways {
       return new DrillSidewaysResult(buildFacetsResult(drillDownCollector, null, null), null);
     }
 
+    if (executor != null) {
+      AtomicBoolean cancelled = new AtomicBoolean();
+      List<Future<FacetsCollector>> drillSidewaysFutures = submitDrillSideways(query, cancelled);
+      FacetsCollector[] drillSidewaysCollectors;
+      boolean success = false;
+      try {
+        searcher.search(query, MultiCollector.wrap(hitCollector, drillDownCollector));
+        drillSidewaysCollectors = getDrillSideways(drillSidewaysFutures);
+        success = true;
+      } finally {
+        if (success == false) {
+          cancelDrillSideways(drillSidewaysFutures, cancelled);
+        }
+      }
+      return new DrillSidewaysResult(buildFacetsResult(drillDownCollector, drillSidewaysCollectors, drillDownDims.keySet().toArray(new String[drillDownDims.size()])), null);
+    }
+
     Query baseQuery = query.getBaseQuery();
     if (baseQuery == null) {
       // TODO: we could optimize this pure-browse case by
@@ -188,6 +247,30 @@ public class DrillSideways {
         limit = 1; // the collector does not alow numHits = 0
       }
       topN = Math.min(topN, limit);
+      if (executor != null) {
+        final int numHits = topN;
+        final Sort hitSort = sort;
+        CollectorManager<TopFieldCollector,TopFieldDocs> hitCollectorManager = new CollectorManager<TopFieldCollector,TopFieldDocs>() {
+
+          @Override
+          public TopFieldCollector newCollector() throws IOException {
+            return TopFieldCollector.create(hitSort, numHits, after, true, doDocScores, doMaxScore);
+          }
+
+          @Override
+          public TopFieldDocs reduce(Collection<TopFieldCollector> collectors) throws IOException {
+            final TopFieldDocs[] topDocs = new TopFieldDocs[collectors.size()];
+            int i = 0;
+            for (TopFieldCollector collector : collectors) {
+              topDocs[i++] = collector.topDocs();
+            }
+            return TopDocs.merge(hitSort, numHits, topDocs);
+          }
+
+        };
+        ConcurrentDrillSidewaysResult<TopFieldDocs> r = search(query, hitCollectorManager);
+        return new DrillSidewaysResult(r.facets, r.collectorResult);
+      }
       final TopFieldCollector hitCollector = TopFieldCollector.create(sort,
                                                                       topN,
                                                                       after,
@@ -220,11 +303,171 @@ public class DrillSideways {
       limit = 1; // the collector does not alow numHits = 0
     }
     topN = Math.min(topN, limit);
+    if (executor != null) {
+      final int numHits = topN;
+      CollectorManager<TopScoreDocCollector,TopDocs> hitCollectorManager = new CollectorManager<TopScoreDocCollector,TopDocs>() {
+
+        @Override
+        public TopScoreDocCollector newCollector() throws IOException {
+          return TopScoreDocCollector.create(numHits, after);
+        }
+
+        @Override
+        public TopDocs reduce(Collection<TopScoreDocCollector> collectors) throws IOException {
+          final TopDocs[] topDocs = new TopDocs[collectors.size()];
+          int i = 0;
+          for (TopScoreDocCollector collector : collectors) {
+            topDocs[i++] = collector.topDocs();
+          }
+          return TopDocs.merge(numHits, topDocs);
+        }
+
+      };
+      ConcurrentDrillSidewaysResult<TopDocs> r = search(query, hitCollectorManager);
+      return new DrillSidewaysResult(r.facets, r.collectorResult);
+    }
     TopScoreDocCollector hitCollector = TopScoreDocCollector.create(topN, after);
     DrillSidewaysResult r = search(query, hitCollector);
     return new DrillSidewaysResult(r.facets, hitCollector.topDocs());
   }
 
+  /**
+   * Search, collecting hits with the {@link Collector}s of a
+   * {@link CollectorManager}, and computing drill down and
+   * sideways counts.  If an {@link ExecutorService} was passed
+   * to the constructor, the main query is searched with {@link
+   * IndexSearcher#search(Query, CollectorManager)}, and so over
+   * the searcher's slices if it has an executor, while the
+   * sideways counts are computed concurrently; otherwise this
+   * is equivalent to {@link #search(DrillDownQuery, Collector)}
+   * with a single collector.
+   */
+  public <R> ConcurrentDrillSidewaysResult<R> search(DrillDownQuery query, CollectorManager<?,R> hitCollectorManager) throws IOException {
+    return searchWithManager(query, hitCollectorManager);
+  }
+
+  private <C extends Collector, R> ConcurrentDrillSidewaysResult<R> searchWithManager(DrillDownQuery query, final CollectorManager<C,R> hitCollectorManager) throws IOException {
+    if (executor == null) {
+      C hitCollector = hitCollectorManager.newCollector();
+      DrillSidewaysResult r = search(query, hitCollector);
+      return new ConcurrentDrillSidewaysResult<>(r.facets, hitCollectorManager.reduce(Collections.singletonList(hitCollector)));
+    }
+
+    Map<String,Integer> drillDownDims = query.getDims();
+    AtomicBoolean cancelled = new AtomicBoolean();
+    List<Future<FacetsCollector>> drillSidewaysFutures = submitDrillSideways(query, cancelled);
+
+    // IndexSearcher creates all collectors up front, on this
+    // thread, but CollectorManager does not promise that:
+    final List<C> hitCollectors = Collections.synchronizedList(new ArrayList<C>());
+    final List<FacetsCollector> drillDownCollectors = Collections.synchronizedList(new ArrayList<FacetsCollector>());
+    R collectorResult;
+    FacetsCollector drillDownCollector;
+    FacetsCollector[] drillSidewaysCollectors;
+    boolean success = false;
+    try {
+      searcher.search(query, new CollectorManager<Collector,Void>() {
+
+        @Override
+        public Collector newCollector() throws IOException {
+          C hitCollector = hitCollectorManager.newCollector();
+          FacetsCollector drillDownCollector = new FacetsCollector();
+          hitCollectors.add(hitCollector);
+          drillDownCollectors.add(drillDownCollector);
+          return MultiCollector.wrap(hitCollector, drillDownCollector);
+        }
+
+        @Override
+        public Void reduce(Collection<Collector> collectors) {
+          return null;
+        }
+
+      });
+      collectorResult = hitCollectorManager.reduce(hitCollectors);
+      drillDownCollector = new FacetsCollectorManager().reduce(drillDownCollectors);
+
+      drillSidewaysCollectors = getDrillSideways(drillSidewaysFutures);
+      success = true;
+    } finally {
+      if (success == false) {
+        cancelDrillSideways(drillSidewaysFutures, cancelled);
+      }
+    }
+    Facets facets;
+    if (drillDownDims.isEmpty()) {
+      facets = buildFacetsResult(drillDownCollector, null, null);
+    } else {
+      facets = buildFacetsResult(drillDownCollector, drillSidewaysCollectors, drillDownDims.keySet().toArray(new String[drillDownDims.size()]));
+    }
+    return new ConcurrentDrillSidewaysResult<>(facets, collectorResult);
+  }
+
+  /** Submits one task per drill-down dimension, which
+   *  collects the hits of the query without that dimension.
+   *  Tasks that start after {@code cancelled} was set
+   *  return null without searching. */
+  private List<Future<FacetsCollector>> submitDrillSideways(DrillDownQuery query, final AtomicBoolean cancelled) {
+    Map<String,Integer> drillDownDims = query.getDims();
+    Query[] drillDownQueries = query.getDrillDownQueries();
+    List<Future<FacetsCollector>> futures = new ArrayList<>(drillDownDims.size());
+    for (String excludedDim : drillDownDims.keySet()) {
+      final DrillDownQuery sidewaysQuery = new DrillDownQuery(config, query.getBaseQuery());
+      for (Map.Entry<String,Integer> ent : drillDownDims.entrySet()) {
+        if (ent.getKey().equals(excludedDim) == false) {
+          sidewaysQuery.add(ent.getKey(), drillDownQueries[ent.getValue()]);
+        }
+      }
+      futures.add(executor.submit(new Callable<FacetsCollector>() {
+        @Override
+        public FacetsCollector call() throws Exception {
+          if (cancelled.get()) {
+            return null;
+          }
+          FacetsCollector drillSidewaysCollector = new FacetsCollector();
+          searcher.search(sidewaysQuery, drillSidewaysCollector);
+          return drillSidewaysCollector;
+        }
+      }));
+    }
+    return futures;
+  }
+
+  private static FacetsCollector[] getDrillSideways(List<Future<FacetsCollector>> futures) throws IOException {
+    FacetsCollector[] drillSidewaysCollectors = new FacetsCollector[futures.size()];
+    for (int i = 0; i < drillSidewaysCollectors.length; i++) {
+      try {
+        drillSidewaysCollectors[i] = futures.get(i).get();
+      } catch (InterruptedException e) {
+        throw new ThreadInterruptedException(e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw new RuntimeException(e);
+      }
+    }
+    return drillSidewaysCollectors;
+  }
+
+  /** Called when the search failed: keeps the sideways tasks
+   *  that did not start yet from searching, and waits for
+   *  the running ones, so that none of them still uses the
+   *  searcher once the exception reaches the caller. */
+  private static void cancelDrillSideways(List<Future<FacetsCollector>> futures, AtomicBoolean cancelled) {
+    cancelled.set(true);
+    for (Future<FacetsCollector> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        // don't mask the original exception, but keep the interrupt
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        // ignore: the original exception is rethrown
+      }
+    }
+  }
+
   /** Override this and return true if your collector
    *  (e.g., {@code ToParentBlockJoinCollector}) expects all
    *  sub-scorers to be positioned on the document being
@@ -249,5 +492,21 @@ public class DrillSideways {
       this.hits = hits;
     }
   }
-}
 
+  /** Result of a concurrent drill sideways search, including the
+   *  {@link Facets} and the result of the {@link CollectorManager}
+   *  that collected the hits.
+   *
+   *  @param <R> the type of the {@link CollectorManager}'s result */
+  public static class ConcurrentDrillSidewaysResult<R> extends DrillSidewaysResult {
+
+    /** The merged search results of the {@link CollectorManager}. */
+    public final R collectorResult;
+
+    /** Sole constructor. */
+    ConcurrentDrillSidewaysResult(Facets facets, R collectorResult) {
+      super(facets, null);
+      this.collectorResult = collectorResult;
+    }
+  }
+}
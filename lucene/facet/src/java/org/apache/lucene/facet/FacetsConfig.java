@@ -232,6 +232,9 @@ public class FacetsConfig {
         if (dimConfig.multiValued == false) {
           checkSeen(seenDims, facetField.dim);
         }
+        if (facetField.path.length > 1 && dimConfig.hierarchical == false) {
+          throw new IllegalArgumentException("dimension \"" + facetField.dim + "\" is not hierarchical yet has " + facetField.path.length + " components");
+        }
         String indexFieldName = dimConfig.indexFieldName;
         List<SortedSetDocValuesFacetField> fields = dvByField.get(indexFieldName);
         if (fields == null) {
@@ -361,15 +364,19 @@ public class FacetsConfig {
       //System.out.println("  field=" + indexFieldName);
 
       for(SortedSetDocValuesFacetField facetField : ent.getValue()) {
-        FacetLabel cp = new FacetLabel(facetField.dim, facetField.label);
-        String fullPath = pathToString(cp.components, cp.length);
-        //System.out.println("add " + fullPath);
+        FacetLabel cp = new FacetLabel(facetField.dim, facetField.path);
+        // Index all ancestors of a hierarchical label too, so
+        // that they are counted and can be drilled down on:
+        for(int i=2;i<=cp.length;i++) {
+          String fullPath = pathToString(cp.components, i);
+          //System.out.println("add " + fullPath);
 
-        // For facet counts:
-        doc.add(new SortedSetDocValuesField(indexFieldName, new BytesRef(fullPath)));
+          // For facet counts:
+          doc.add(new SortedSetDocValuesField(indexFieldName, new BytesRef(fullPath)));
 
-        // For drill-down:
-        doc.add(new StringField(indexFieldName, fullPath, Field.Store.NO));
+          // For drill-down:
+          doc.add(new StringField(indexFieldName, fullPath, Field.Store.NO));
+        }
         doc.add(new StringField(indexFieldName, facetField.dim, Field.Store.NO));
       }
     }
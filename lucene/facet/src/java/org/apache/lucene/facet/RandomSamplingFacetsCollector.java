@@ -39,7 +39,12 @@ import org.apache.lucene.util.FixedBitSet;
  * If you require the original set of hits, you can call
  * {@link #getOriginalMatchingDocs()}. Also, since the counts of the top-facets
  * is based on the sampled set, you can amortize the counts by calling
- * {@link #amortizeFacetCounts}.
+ * {@link #amortizeFacetCounts}, and get the error of each amortized count
+ * with {@link #getErrorBound}.
+ * <p>
+ * To trade speed for accuracy adaptively, start with a small sample size, and
+ * {@link #resample} with a larger one until {@link #isTopNStable} confirms that
+ * the sampled counts rank the top children reliably.
  */
 public class RandomSamplingFacetsCollector extends FacetsCollector {
   
@@ -77,7 +82,7 @@ public class RandomSamplingFacetsCollector extends FacetsCollector {
   
   private final static int NOT_CALCULATED = -1;
   
-  private final int sampleSize;
+  private int sampleSize;
   private final XORShift64Random random;
   
   private double samplingRate;
@@ -257,6 +262,67 @@ public class RandomSamplingFacetsCollector extends FacetsCollector {
     return new FacetResult(res.dim, res.path, correctedTotalCount, fixedLabelValues, res.childCount);
   }
   
+  /**
+   * Draws a new sample of the original hits with the given sample size, e.g. a
+   * larger one after {@link #isTopNStable} returned {@code false}. The hits
+   * are not collected again, but facets must be counted again from this
+   * collector to use the new sample.
+   */
+  public void resample(int sampleSize) {
+    this.sampleSize = sampleSize;
+    sampledDocs = null;
+    leftoverBin = leftoverIndex = NOT_CALCULATED;
+  }
+
+  /**
+   * Returns the half width of the confidence interval of an amortized count,
+   * i.e. the exact count is expected to be within {@code amortizedCount +/-
+   * bound}. The sample is treated as if each hit was picked independently with
+   * probability {@link #getSamplingRate()}, which gives a bound of {@code z *
+   * sqrt(sampledCount * (1 - rate)) / rate}. A sampled count of {@code 0} is
+   * treated as {@code 1}, so that an unseen value does not get an empty
+   * interval. Returns {@code 0} if the hits were not sampled.
+   *
+   * @param sampledCount
+   *          the count computed from the sample, before amortizing it
+   * @param z
+   *          the number of standard deviations the interval spans, e.g.
+   *          {@code 1.96} for 95% confidence
+   */
+  public double getErrorBound(Number sampledCount, double z) {
+    if (totalHits == NOT_CALCULATED) {
+      throw new IllegalStateException("facets must be counted from this collector first");
+    }
+    if (totalHits <= sampleSize) {
+      return 0;
+    }
+    double count = Math.max(1, sampledCount.doubleValue());
+    return z * Math.sqrt(count * (1 - samplingRate)) / samplingRate;
+  }
+
+  /**
+   * Returns {@code true} if the sampled counts identify the top {@code topN}
+   * children reliably, i.e. if the confidence interval of the {@code topN}-th
+   * child (see {@link #getErrorBound}) is entirely above the one of the next
+   * child. The given result must hold the sampled counts, and must have been
+   * computed for at least {@code topN + 1} children, e.g. with {@code
+   * getTopChildren(topN + 1, dim)}. The order within the top children is not
+   * checked. Always returns {@code true} if the hits were not sampled.
+   */
+  public boolean isTopNStable(FacetResult res, int topN, double z) {
+    if (topN <= 0) {
+      throw new IllegalArgumentException("topN must be > 0 (got: " + topN + ")");
+    }
+    if (res == null || res.labelValues.length <= topN || totalHits <= sampleSize) {
+      return true;
+    }
+    Number last = res.labelValues[topN - 1].value;
+    Number next = res.labelValues[topN].value;
+    double lastLower = last.doubleValue() / samplingRate - getErrorBound(last, z);
+    double nextUpper = next.doubleValue() / samplingRate + getErrorBound(next, z);
+    return lastLower > nextUpper;
+  }
+
   /** Returns the sampling rate that was used. */
   public double getSamplingRate() {
     return samplingRate;
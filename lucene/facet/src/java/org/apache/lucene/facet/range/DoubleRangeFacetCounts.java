@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.List;
 
 import org.apache.lucene.document.DoubleDocValuesField; // javadocs
+import org.apache.lucene.document.DoublePoint; // javadocs
 import org.apache.lucene.document.FloatDocValuesField; // javadocs
 import org.apache.lucene.facet.Facets;
 import org.apache.lucene.facet.FacetsCollector.MatchingDocs;
@@ -35,6 +36,7 @@ import org.apache.lucene.queries.function.valuesource.FloatFieldSource; // javad
 import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery; // javadocs
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
@@ -81,6 +83,22 @@ public class DoubleRangeFacetCounts extends RangeFacetCounts {
     count(valueSource, hits.getMatchingDocs());
   }
 
+  /** Create {@code RangeFacetCounts}, using the provided
+   *  {@link ValueSource}, except for segments in which all
+   *  live documents are hits, e.g. for a {@link
+   *  MatchAllDocsQuery}: these are counted by walking the BKD
+   *  tree of the {@link DoublePoint} values indexed in {@code
+   *  pointField}, so that whole cells which fall within one
+   *  range are counted without reading their values.  The
+   *  point field must be single valued and hold the same
+   *  values as the value source, e.g. index each value as
+   *  both a {@link DoublePoint} and a {@link DoubleDocValuesField}.  The hits
+   *  must not be sampled. */
+  public DoubleRangeFacetCounts(String field, ValueSource valueSource, String pointField, FacetsCollector hits, DoubleRange... ranges) throws IOException {
+    super(field, ranges, null, pointField);
+    count(valueSource, hits.getMatchingDocs());
+  }
+
   private void count(ValueSource valueSource, List<MatchingDocs> matchingDocs) throws IOException {
 
     DoubleRange[] ranges = (DoubleRange[]) this.ranges;
@@ -97,6 +115,12 @@ public class DoubleRangeFacetCounts extends RangeFacetCounts {
 
     int missingCount = 0;
     for (MatchingDocs hits : matchingDocs) {
+      if (canCountPoints(hits)) {
+        totCount += hits.totalHits;
+        missingCount += hits.totalHits - counter.addPoints(hits.context.reader(), pointField, true);
+        continue;
+      }
+
       FunctionValues fv = valueSource.getValues(Collections.emptyMap(), hits.context);
       
       totCount += hits.totalHits;
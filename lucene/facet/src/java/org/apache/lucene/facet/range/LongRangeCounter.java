@@ -17,12 +17,21 @@ package org.apache.lucene.facet.range;
  * limitations under the License.
  */
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.PointValues.IntersectVisitor;
+import org.apache.lucene.index.PointValues.Relation;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.NumericUtils;
+
 /** Counts how many times each range was seen;
  *  per-hit it's just a binary search ({@link #add})
  *  against the elementary intervals, and in the end we
@@ -172,6 +181,91 @@ final class LongRangeCounter {
     }
   }
 
+  /** Adds the value of every live document of the leaf
+   *  from the given single valued, one dimensional 8 byte
+   *  point field, by walking its BKD tree: the documents of
+   *  cells that fall within one elementary interval are
+   *  added without decoding their values.  Pass {@code
+   *  sortableDoubles} for a {@code DoublePoint} field, whose
+   *  values are added as sortable longs.  Returns how many
+   *  values were added. */
+  public int addPoints(LeafReader reader, String field, boolean sortableDoubles) throws IOException {
+    PointValues points = reader.getPointValues();
+    if (points == null) {
+      return 0;
+    }
+    PointsVisitor visitor = new PointsVisitor(reader.getLiveDocs(), sortableDoubles);
+    points.intersect(field, visitor);
+    return visitor.added;
+  }
+
+  /** Returns the index of the elementary interval
+   *  containing the value. */
+  private int leafIndex(long v) {
+    int index = Arrays.binarySearch(boundaries, v);
+    if (index < 0) {
+      index = -index-1;
+    }
+    return index;
+  }
+
+  private final class PointsVisitor implements IntersectVisitor {
+    final Bits liveDocs;
+    final boolean sortableDoubles;
+    // Elementary interval of the last cell that was inside
+    // of one; the BKD tree visits all docs of such a cell
+    // before it compares the next cell:
+    int cellLeafIndex = -1;
+    int added;
+
+    PointsVisitor(Bits liveDocs, boolean sortableDoubles) {
+      this.liveDocs = liveDocs;
+      this.sortableDoubles = sortableDoubles;
+    }
+
+    private long decode(byte[] packedValue) {
+      if (sortableDoubles) {
+        // DoublePoint encodes the sortable long without
+        // flipping the sign bit:
+        return NumericUtils.bytesToLongDirect(packedValue, 0);
+      } else {
+        return NumericUtils.bytesToLong(packedValue, 0);
+      }
+    }
+
+    @Override
+    public void visit(int docID) {
+      if (liveDocs == null || liveDocs.get(docID)) {
+        leafCounts[cellLeafIndex]++;
+        added++;
+      }
+    }
+
+    @Override
+    public void visit(int docID, byte[] packedValue) {
+      if (liveDocs == null || liveDocs.get(docID)) {
+        add(decode(packedValue));
+        added++;
+      }
+    }
+
+    @Override
+    public Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+      long min = decode(minPackedValue);
+      long max = decode(maxPackedValue);
+      // min > max if the cell wraps around in the decoded
+      // order, e.g. for doubles of both signs:
+      if (min <= max) {
+        int minLeafIndex = leafIndex(min);
+        if (minLeafIndex == leafIndex(max)) {
+          cellLeafIndex = minLeafIndex;
+          return Relation.CELL_INSIDE_QUERY;
+        }
+      }
+      return Relation.CELL_CROSSES_QUERY;
+    }
+  }
+
   /** Fills counts corresponding to the original input
    *  ranges, returning the missing count (how many hits
    *  didn't match any ranges). */
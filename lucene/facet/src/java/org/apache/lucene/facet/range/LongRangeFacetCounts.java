@@ -21,6 +21,8 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.lucene.document.LongPoint; // javadocs
+import org.apache.lucene.document.NumericDocValuesField; // javadocs
 import org.apache.lucene.facet.Facets;
 import org.apache.lucene.facet.FacetsCollector.MatchingDocs;
 import org.apache.lucene.facet.FacetsCollector;
@@ -32,6 +34,7 @@ import org.apache.lucene.queries.function.valuesource.LongFieldSource;
 import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery; // javadocs
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
@@ -70,6 +73,22 @@ public class LongRangeFacetCounts extends RangeFacetCounts {
     count(valueSource, hits.getMatchingDocs());
   }
 
+  /** Create {@code RangeFacetCounts}, using the provided
+   *  {@link ValueSource}, except for segments in which all
+   *  live documents are hits, e.g. for a {@link
+   *  MatchAllDocsQuery}: these are counted by walking the BKD
+   *  tree of the {@link LongPoint} values indexed in {@code
+   *  pointField}, so that whole cells which fall within one
+   *  range are counted without reading their values.  The
+   *  point field must be single valued and hold the same
+   *  values as the value source, e.g. index each value as
+   *  both a {@link LongPoint} and a {@link NumericDocValuesField}.  The hits
+   *  must not be sampled. */
+  public LongRangeFacetCounts(String field, ValueSource valueSource, String pointField, FacetsCollector hits, LongRange... ranges) throws IOException {
+    super(field, ranges, null, pointField);
+    count(valueSource, hits.getMatchingDocs());
+  }
+
   private void count(ValueSource valueSource, List<MatchingDocs> matchingDocs) throws IOException {
 
     LongRange[] ranges = (LongRange[]) this.ranges;
@@ -78,6 +97,12 @@ public class LongRangeFacetCounts extends RangeFacetCounts {
 
     int missingCount = 0;
     for (MatchingDocs hits : matchingDocs) {
+      if (canCountPoints(hits)) {
+        totCount += hits.totalHits;
+        missingCount += hits.totalHits - counter.addPoints(hits.context.reader(), pointField, false);
+        continue;
+      }
+
       FunctionValues fv = valueSource.getValues(Collections.emptyMap(), hits.context);
       
       totCount += hits.totalHits;
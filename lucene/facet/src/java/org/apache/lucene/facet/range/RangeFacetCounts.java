@@ -23,7 +23,10 @@ import java.util.List;
 
 import org.apache.lucene.facet.FacetResult;
 import org.apache.lucene.facet.Facets;
+import org.apache.lucene.facet.FacetsCollector.MatchingDocs;
 import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.search.Query;
 
 /** Base class for range faceting.
@@ -45,17 +48,47 @@ abstract class RangeFacetCounts extends Facets {
   /** Our field name. */
   protected final String field;
 
+  /** Optional: if specified, segments in which all live
+   *  documents are hits are counted from the points indexed
+   *  in this field, instead of reading the value of every
+   *  hit. */
+  protected final String pointField;
+
   /** Total number of hits. */
   protected int totCount;
 
   /** Create {@code RangeFacetCounts} */
   protected RangeFacetCounts(String field, Range[] ranges, Query fastMatchQuery) throws IOException {
+    this(field, ranges, fastMatchQuery, null);
+  }
+
+  /** Create {@code RangeFacetCounts} which counts from
+   *  points where possible */
+  protected RangeFacetCounts(String field, Range[] ranges, Query fastMatchQuery, String pointField) throws IOException {
     this.field = field;
     this.ranges = ranges;
     this.fastMatchQuery = fastMatchQuery;
+    this.pointField = pointField;
     counts = new int[ranges.length];
   }
 
+  /** Returns true if the hits of this segment can be
+   *  counted from the points of {@link #pointField}: all
+   *  live documents of the segment are hits, there is no
+   *  {@link #fastMatchQuery}, and the field has one
+   *  dimensional 8 byte points in this segment. */
+  protected boolean canCountPoints(MatchingDocs hits) {
+    if (pointField == null || fastMatchQuery != null) {
+      return false;
+    }
+    LeafReader reader = hits.context.reader();
+    if (hits.totalHits != reader.numDocs()) {
+      return false;
+    }
+    FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(pointField);
+    return fieldInfo != null && fieldInfo.getPointDimensionCount() == 1 && fieldInfo.getPointNumBytes() == Long.BYTES;
+  }
+
   @Override
   public FacetResult getTopChildren(int topN, String dim, String... path) {
     if (dim.equals(field) == false) {
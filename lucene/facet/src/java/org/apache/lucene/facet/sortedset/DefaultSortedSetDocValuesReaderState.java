@@ -26,6 +26,7 @@ import org.apache.lucene.facet.FacetsConfig;
 import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState.OrdRange;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.OrdinalMapCache;
 import org.apache.lucene.index.SlowCompositeReaderWrapper;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.util.BytesRef;
@@ -44,6 +45,10 @@ public class DefaultSortedSetDocValuesReaderState extends SortedSetDocValuesRead
 
   private final Map<String,OrdRange> prefixToOrdRange = new HashMap<>();
 
+  // null if all labels are flat (dim/value):
+  private final int[] nextSiblings;
+  private final int[] firstChildren;
+
   /** Creates this, pulling doc values from the default {@link
    *  FacetsConfig#DEFAULT_INDEX_FIELD_NAME}. */ 
   public DefaultSortedSetDocValuesReaderState(IndexReader reader) throws IOException {
@@ -53,12 +58,21 @@ public class DefaultSortedSetDocValuesReaderState extends SortedSetDocValuesRead
   /** Creates this, pulling doc values from the specified
    *  field. */
   public DefaultSortedSetDocValuesReaderState(IndexReader reader, String field) throws IOException {
+    this(reader, field, null);
+  }
+
+  /** Creates this, pulling doc values from the specified
+   *  field, and taking the ordinal map from the given
+   *  cache, which may be null.  Share the cache between the
+   *  states of reopened readers so that a reopen which did
+   *  not add segments does not rebuild the map. */
+  public DefaultSortedSetDocValuesReaderState(IndexReader reader, String field, OrdinalMapCache ordinalMapCache) throws IOException {
     this.field = field;
     this.origReader = reader;
 
     // We need this to create thread-safe MultiSortedSetDV
     // per collector:
-    topReader = SlowCompositeReaderWrapper.wrap(reader);
+    topReader = SlowCompositeReaderWrapper.wrap(reader, ordinalMapCache);
     SortedSetDocValues dv = topReader.getSortedSetDocValues(field);
     if (dv == null) {
       throw new IllegalArgumentException("field \"" + field + "\" was not indexed with SortedSetDocValues");
@@ -74,15 +88,22 @@ public class DefaultSortedSetDocValuesReaderState extends SortedSetDocValuesRead
     String lastDim = null;
     int startOrd = -1;
 
-    // TODO: this approach can work for full hierarchy?;
-    // TaxoReader can't do this since ords are not in
-    // "sorted order" ... but we should generalize this to
-    // support arbitrary hierarchy:
+    // The labels of a dimension are contiguous in ord order,
+    // and so are the descendants of a label, but they do not
+    // necessarily follow the label directly: label chars
+    // below the delimiter, such as the escape char, sort a
+    // sibling in between.  So we look up the parent of each
+    // hierarchical label and link it to the previous child
+    // of the same parent:
+    int[] siblings = null;
+    int[] children = null;
+    int[] lastChildren = null;
+    int lastTopLevel = -1;
     for(int ord=0;ord<valueCount;ord++) {
       final BytesRef term = dv.lookupOrd(ord);
       String[] components = FacetsConfig.stringToPath(term.utf8ToString());
-      if (components.length != 2) {
-        throw new IllegalArgumentException("this class can only handle 2 level hierarchy (dim/value); got: " + Arrays.toString(components) + " " + term.utf8ToString());
+      if (components.length < 2) {
+        throw new IllegalArgumentException("this class can only handle dim/value... labels; got: " + Arrays.toString(components) + " " + term.utf8ToString());
       }
       if (!components[0].equals(lastDim)) {
         if (lastDim != null) {
@@ -90,8 +111,47 @@ public class DefaultSortedSetDocValuesReaderState extends SortedSetDocValuesRead
         }
         startOrd = ord;
         lastDim = components[0];
+        lastTopLevel = -1;
+      }
+
+      if (components.length == 2) {
+        if (siblings != null) {
+          if (lastTopLevel != -1) {
+            siblings[lastTopLevel] = ord;
+          }
+          siblings[ord] = valueCount;
+        }
+        lastTopLevel = ord;
+        continue;
       }
+
+      final int parent = (int) dv.lookupTerm(new BytesRef(FacetsConfig.pathToString(components, components.length-1)));
+      if (parent < 0) {
+        throw new IllegalArgumentException("label " + Arrays.toString(components) + " was indexed without its parent; was dimension \"" + components[0] + "\" configured as hierarchical?");
+      }
+      if (siblings == null) {
+        // all labels so far were flat, without descendants
+        siblings = new int[valueCount];
+        for(int i=0;i<ord;i++) {
+          siblings[i] = i+1;
+        }
+        if (lastTopLevel != -1) {
+          siblings[lastTopLevel] = valueCount;
+        }
+        children = new int[valueCount];
+        Arrays.fill(children, -1);
+        lastChildren = new int[valueCount];
+      }
+      if (children[parent] == -1) {
+        children[parent] = ord;
+      } else {
+        siblings[lastChildren[parent]] = ord;
+      }
+      lastChildren[parent] = ord;
+      siblings[ord] = valueCount;
     }
+    nextSiblings = siblings;
+    firstChildren = children;
 
     if (lastDim != null) {
       prefixToOrdRange.put(lastDim, new OrdRange(startOrd, valueCount-1));
@@ -133,4 +193,14 @@ public class DefaultSortedSetDocValuesReaderState extends SortedSetDocValuesRead
     return valueCount;
   }
 
+  @Override
+  public int getNextSiblingOrd(int ord) {
+    return nextSiblings == null ? ord + 1 : nextSiblings[ord];
+  }
+
+  @Override
+  public int getFirstChildOrd(int ord) {
+    return firstChildren == null ? -1 : firstChildren[ord];
+  }
+
 }
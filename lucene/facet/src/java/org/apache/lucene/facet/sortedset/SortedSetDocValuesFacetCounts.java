@@ -23,6 +23,11 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.lucene.facet.FacetResult;
 import org.apache.lucene.facet.Facets;
@@ -41,16 +46,20 @@ import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.ThreadInterruptedException;
 
 /** Compute facets counts from previously
  *  indexed {@link SortedSetDocValuesFacetField},
  *  without require a separate taxonomy index.  Faceting is
  *  a bit slower (~25%), and there is added cost on every
  *  {@link IndexReader} open to create a new {@link
- *  SortedSetDocValuesReaderState}.  Furthermore, this does
- *  not support hierarchical facets; only flat (dimension +
- *  label) facets, but it uses quite a bit less RAM to do
- *  so.
+ *  SortedSetDocValuesReaderState}, but it uses quite a bit
+ *  less RAM to do so.  Hierarchical dimensions are
+ *  supported: every ancestor of a label is indexed as well,
+ *  so each level is counted directly.
+ *
+ *  <p>Segments can be counted concurrently by passing an
+ *  {@link ExecutorService}.
  *
  *  <p><b>NOTE</b>: this class should be instantiated and
  *  then used from a single thread, because it holds a
@@ -70,12 +79,20 @@ public class SortedSetDocValuesFacetCounts extends Facets {
    *  hits, topCount labels per dimension. */
   public SortedSetDocValuesFacetCounts(SortedSetDocValuesReaderState state, FacetsCollector hits)
       throws IOException {
+    this(state, hits, null);
+  }
+
+  /** Like {@link #SortedSetDocValuesFacetCounts(SortedSetDocValuesReaderState, FacetsCollector)},
+   *  but counts each segment in a separate task submitted
+   *  to the given executor, unless it is {@code null}. */
+  public SortedSetDocValuesFacetCounts(SortedSetDocValuesReaderState state, FacetsCollector hits, ExecutorService exec)
+      throws IOException {
     this.state = state;
     this.field = state.getField();
     dv = state.getDocValues();    
     counts = new int[state.getSize()];
     //System.out.println("field=" + field);
-    count(hits.getMatchingDocs());
+    count(hits.getMatchingDocs(), exec);
   }
 
   @Override
@@ -83,17 +100,31 @@ public class SortedSetDocValuesFacetCounts extends Facets {
     if (topN <= 0) {
       throw new IllegalArgumentException("topN must be > 0 (got: " + topN + ")");
     }
-    if (path.length > 0) {
-      throw new IllegalArgumentException("path should be 0 length");
-    }
     OrdRange ordRange = state.getOrdRange(dim);
     if (ordRange == null) {
       throw new IllegalArgumentException("dimension \"" + dim + "\" was not indexed");
     }
-    return getDim(dim, ordRange, topN);
+    if (path.length == 0) {
+      return getDim(dim, path, -1, ordRange.start, ordRange.end, topN);
+    }
+    int pathOrd = (int) dv.lookupTerm(new BytesRef(FacetsConfig.pathToString(dim, path)));
+    if (pathOrd < 0) {
+      return null;
+    }
+    int childOrd = state.getFirstChildOrd(pathOrd);
+    if (childOrd == -1) {
+      return null;
+    }
+    // the children are linked from the first one, up to the end of the dimension
+    return getDim(dim, path, pathOrd, childOrd, ordRange.end, topN);
   }
 
-  private final FacetResult getDim(String dim, OrdRange ordRange, int topN) {
+  /** Collects the top children among the ords from start
+   *  to end (inclusive), following the sibling links.
+   *  The result's value is the count of pathOrd, or the sum
+   *  of the children's counts if pathOrd is -1 (the
+   *  dimension itself is not indexed). */
+  private final FacetResult getDim(String dim, String[] path, int pathOrd, int start, int end, int topN) {
 
     TopOrdAndIntQueue q = null;
 
@@ -104,7 +135,7 @@ public class SortedSetDocValuesFacetCounts extends Facets {
 
     TopOrdAndIntQueue.OrdAndValue reuse = null;
     //System.out.println("getDim : " + ordRange.start + " - " + ordRange.end);
-    for(int ord=ordRange.start; ord<=ordRange.end; ord++) {
+    for(int ord=start; ord<=end; ord=state.getNextSiblingOrd(ord)) {
       //System.out.println("  ord=" + ord + " count=" + counts[ord]);
       if (counts[ord] > 0) {
         dimCount += counts[ord];
@@ -137,17 +168,20 @@ public class SortedSetDocValuesFacetCounts extends Facets {
       TopOrdAndIntQueue.OrdAndValue ordAndValue = q.pop();
       final BytesRef term = dv.lookupOrd(ordAndValue.ord);
       String[] parts = FacetsConfig.stringToPath(term.utf8ToString());
-      labelValues[i] = new LabelAndValue(parts[1], ordAndValue.value);
+      labelValues[i] = new LabelAndValue(parts[path.length + 1], ordAndValue.value);
     }
 
-    return new FacetResult(dim, new String[0], dimCount, labelValues, childCount);
+    if (pathOrd != -1) {
+      dimCount = counts[pathOrd];
+    }
+    return new FacetResult(dim, path, dimCount, labelValues, childCount);
   }
 
   /** Does all the "real work" of tallying up the counts. */
-  private final void count(List<MatchingDocs> matchingDocs) throws IOException {
+  private final void count(List<MatchingDocs> matchingDocs, ExecutorService exec) throws IOException {
     //System.out.println("ssdv count");
 
-    MultiDocValues.OrdinalMap ordinalMap;
+    final MultiDocValues.OrdinalMap ordinalMap;
 
     // TODO: is this right?  really, we need a way to
     // verify that this ordinalMap "matches" the leaves in
@@ -160,100 +194,164 @@ public class SortedSetDocValuesFacetCounts extends Facets {
     
     IndexReader origReader = state.getOrigReader();
 
-    for(MatchingDocs hits : matchingDocs) {
+    List<Future<Void>> futures = new ArrayList<>();
+    // set on failure, so that segment tasks which did not start yet don't count anymore
+    final AtomicBoolean cancelled = new AtomicBoolean();
+    boolean success = false;
+    try {
+      for(final MatchingDocs hits : matchingDocs) {
+        //System.out.println("  reader=" + hits.context.reader());
+        // LUCENE-5090: make sure the provided reader context "matches"
+        // the top-level reader passed to the
+        // SortedSetDocValuesReaderState, else cryptic
+        // AIOOBE can happen:
+        if (ReaderUtil.getTopLevelContext(hits.context).reader() != origReader) {
+          throw new IllegalStateException("the SortedSetDocValuesReaderState provided to this class does not match the reader being searched; you must create a new SortedSetDocValuesReaderState every time you open a new IndexReader");
+        }
 
-      LeafReader reader = hits.context.reader();
-      //System.out.println("  reader=" + reader);
-      // LUCENE-5090: make sure the provided reader context "matches"
-      // the top-level reader passed to the
-      // SortedSetDocValuesReaderState, else cryptic
-      // AIOOBE can happen:
-      if (ReaderUtil.getTopLevelContext(hits.context).reader() != origReader) {
-        throw new IllegalStateException("the SortedSetDocValuesReaderState provided to this class does not match the reader being searched; you must create a new SortedSetDocValuesReaderState every time you open a new IndexReader");
-      }
-      
-      SortedSetDocValues segValues = reader.getSortedSetDocValues(field);
-      if (segValues == null) {
-        continue;
+        if (exec == null) {
+          countOneSegment(ordinalMap, hits, false);
+        } else {
+          futures.add(exec.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+              if (cancelled.get() == false) {
+                countOneSegment(ordinalMap, hits, true);
+              }
+              return null;
+            }
+          }));
+        }
       }
 
-      DocIdSetIterator docs = hits.bits.iterator();
-
-      // TODO: yet another option is to count all segs
-      // first, only in seg-ord space, and then do a
-      // merge-sort-PQ in the end to only "resolve to
-      // global" those seg ords that can compete, if we know
-      // we just want top K?  ie, this is the same algo
-      // that'd be used for merging facets across shards
-      // (distributed faceting).  but this has much higher
-      // temp ram req'ts (sum of number of ords across all
-      // segs)
-      if (ordinalMap != null) {
-        final int segOrd = hits.context.ord;
-        final LongValues ordMap = ordinalMap.getGlobalOrds(segOrd);
-
-        int numSegOrds = (int) segValues.getValueCount();
-
-        if (hits.totalHits < numSegOrds/10) {
-          //System.out.println("    remap as-we-go");
-          // Remap every ord to global ord as we iterate:
-          int doc;
-          while ((doc = docs.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
-            //System.out.println("    doc=" + doc);
-            segValues.setDocument(doc);
-            int term = (int) segValues.nextOrd();
-            while (term != SortedSetDocValues.NO_MORE_ORDS) {
-              //System.out.println("      segOrd=" + segOrd + " ord=" + term + " globalOrd=" + ordinalMap.getGlobalOrd(segOrd, term));
-              counts[(int) ordMap.get(term)]++;
-              term = (int) segValues.nextOrd();
-            }
+      for(Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (InterruptedException e) {
+          throw new ThreadInterruptedException(e);
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
           }
-        } else {
-          //System.out.println("    count in seg ord first");
-
-          // First count in seg-ord space:
-          final int[] segCounts = new int[numSegOrds];
-          int doc;
-          while ((doc = docs.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
-            //System.out.println("    doc=" + doc);
-            segValues.setDocument(doc);
-            int term = (int) segValues.nextOrd();
-            while (term != SortedSetDocValues.NO_MORE_ORDS) {
-              //System.out.println("      ord=" + term);
-              segCounts[term]++;
-              term = (int) segValues.nextOrd();
-            }
+          throw new RuntimeException(e);
+        }
+      }
+      success = true;
+    } finally {
+      if (success == false) {
+        // wait for the running tasks, so that none of them still adds into counts once we have thrown
+        cancelled.set(true);
+        for(Future<Void> future : futures) {
+          try {
+            future.get();
+          } catch (InterruptedException e) {
+            // don't mask the original exception, but keep the interrupt
+            Thread.currentThread().interrupt();
+            break;
+          } catch (ExecutionException e) {
+            // ignore: the original exception is rethrown
           }
+        }
+      }
+    }
+  }
 
-          // Then, migrate to global ords:
-          for(int ord=0;ord<numSegOrds;ord++) {
-            int count = segCounts[ord];
-            if (count != 0) {
-              //System.out.println("    migrate segOrd=" + segOrd + " ord=" + ord + " globalOrd=" + ordinalMap.getGlobalOrd(segOrd, ord));
-              counts[(int) ordMap.get(ord)] += count;
-            }
+  /** Counts the hits of one segment; when concurrent, the
+   *  counts are first collected per segment and then added
+   *  to {@link #counts} while holding its lock. */
+  private void countOneSegment(MultiDocValues.OrdinalMap ordinalMap, MatchingDocs hits, boolean concurrent) throws IOException {
+    LeafReader reader = hits.context.reader();
+    SortedSetDocValues segValues = reader.getSortedSetDocValues(field);
+    if (segValues == null) {
+      return;
+    }
+
+    DocIdSetIterator docs = hits.bits.iterator();
+
+    // TODO: yet another option is to count all segs
+    // first, only in seg-ord space, and then do a
+    // merge-sort-PQ in the end to only "resolve to
+    // global" those seg ords that can compete, if we know
+    // we just want top K?  ie, this is the same algo
+    // that'd be used for merging facets across shards
+    // (distributed faceting).  but this has much higher
+    // temp ram req'ts (sum of number of ords across all
+    // segs)
+    if (ordinalMap != null) {
+      final int segOrd = hits.context.ord;
+      final LongValues ordMap = ordinalMap.getGlobalOrds(segOrd);
+
+      int numSegOrds = (int) segValues.getValueCount();
+
+      if (concurrent == false && hits.totalHits < numSegOrds/10) {
+        //System.out.println("    remap as-we-go");
+        // Remap every ord to global ord as we iterate:
+        int doc;
+        while ((doc = docs.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          //System.out.println("    doc=" + doc);
+          segValues.setDocument(doc);
+          int term = (int) segValues.nextOrd();
+          while (term != SortedSetDocValues.NO_MORE_ORDS) {
+            //System.out.println("      segOrd=" + segOrd + " ord=" + term + " globalOrd=" + ordinalMap.getGlobalOrd(segOrd, term));
+            counts[(int) ordMap.get(term)]++;
+            term = (int) segValues.nextOrd();
           }
         }
       } else {
-        // No ord mapping (e.g., single segment index):
-        // just aggregate directly into counts:
+        //System.out.println("    count in seg ord first");
+
+        // First count in seg-ord space:
+        final int[] segCounts = new int[numSegOrds];
         int doc;
         while ((doc = docs.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          //System.out.println("    doc=" + doc);
           segValues.setDocument(doc);
           int term = (int) segValues.nextOrd();
           while (term != SortedSetDocValues.NO_MORE_ORDS) {
-            counts[term]++;
+            //System.out.println("      ord=" + term);
+            segCounts[term]++;
             term = (int) segValues.nextOrd();
           }
         }
+
+        // Then, migrate to global ords:
+        if (concurrent) {
+          synchronized (counts) {
+            migrateCounts(segCounts, ordMap);
+          }
+        } else {
+          migrateCounts(segCounts, ordMap);
+        }
+      }
+    } else {
+      // No ord mapping (e.g., single segment index):
+      // just aggregate directly into counts; there is only
+      // one segment, so this is safe when concurrent too:
+      int doc;
+      while ((doc = docs.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+        segValues.setDocument(doc);
+        int term = (int) segValues.nextOrd();
+        while (term != SortedSetDocValues.NO_MORE_ORDS) {
+          counts[term]++;
+          term = (int) segValues.nextOrd();
+        }
+      }
+    }
+  }
+
+  private void migrateCounts(int[] segCounts, LongValues ordMap) {
+    for(int ord=0;ord<segCounts.length;ord++) {
+      int count = segCounts[ord];
+      if (count != 0) {
+        counts[(int) ordMap.get(ord)] += count;
       }
     }
   }
 
   @Override
   public Number getSpecificValue(String dim, String... path) {
-    if (path.length != 1) {
-      throw new IllegalArgumentException("path must be length=1");
+    if (path.length == 0) {
+      throw new IllegalArgumentException("path must be length > 0");
     }
     int ord = (int) dv.lookupTerm(new BytesRef(FacetsConfig.pathToString(dim, path)));
     if (ord < 0) {
@@ -268,7 +366,7 @@ public class SortedSetDocValuesFacetCounts extends Facets {
 
     List<FacetResult> results = new ArrayList<>();
     for(Map.Entry<String,OrdRange> ent : state.getPrefixToOrdRange().entrySet()) {
-      FacetResult fr = getDim(ent.getKey(), ent.getValue(), topN);
+      FacetResult fr = getDim(ent.getKey(), new String[0], -1, ent.getValue().start, ent.getValue().end, topN);
       if (fr != null) {
         results.add(fr);
       }
@@ -17,13 +17,18 @@ package org.apache.lucene.facet.sortedset;
  * limitations under the License.
  */
 
+import java.util.Arrays;
+
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
 import org.apache.lucene.facet.FacetField;
 import org.apache.lucene.index.IndexOptions;
 
 /** Add an instance of this to your Document for every facet
- *  label to be indexed via SortedSetDocValues. */
+ *  label to be indexed via SortedSetDocValues.  Labels with
+ *  more than one path component require the dimension to be
+ *  {@link org.apache.lucene.facet.FacetsConfig#setHierarchical
+ *  configured as hierarchical}. */
 public class SortedSetDocValuesFacetField extends Field {
   
   /** Indexed {@link FieldType}. */
@@ -36,20 +41,35 @@ public class SortedSetDocValuesFacetField extends Field {
   /** Dimension. */
   public final String dim;
 
-  /** Label. */
+  /** Label, the last component of {@link #path}. */
   public final String label;
 
-  /** Sole constructor. */
+  /** Path for this field. */
+  public final String[] path;
+
+  /** Creates a flat (dimension + label) facet field. */
   public SortedSetDocValuesFacetField(String dim, String label) {
+    this(dim, new String[] {label});
+  }
+
+  /** Creates a facet field with the given dimension and
+   *  path. */
+  public SortedSetDocValuesFacetField(String dim, String... path) {
     super("dummy", TYPE);
-    FacetField.verifyLabel(label);
     FacetField.verifyLabel(dim);
+    for(String label : path) {
+      FacetField.verifyLabel(label);
+    }
+    if (path.length == 0) {
+      throw new IllegalArgumentException("path must have at least one element");
+    }
     this.dim = dim;
-    this.label = label;
+    this.path = path;
+    this.label = path[path.length-1];
   }
 
   @Override
   public String toString() {
-    return "SortedSetDocValuesFacetField(dim=" + dim + " label=" + label + ")";
+    return "SortedSetDocValuesFacetField(dim=" + dim + " path=" + Arrays.toString(path) + ")";
   }
 }
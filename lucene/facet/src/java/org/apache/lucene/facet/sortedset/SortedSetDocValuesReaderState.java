@@ -25,14 +25,17 @@ import org.apache.lucene.index.SortedSetDocValues;
 
 /** Wraps a {@link IndexReader} and resolves ords
  *  using existing {@link SortedSetDocValues} APIs without a
- *  separate taxonomy index.  This only supports flat facets
- *  (dimension + label), and it makes faceting a bit
- *  slower, adds some cost at reopen time, but avoids
- *  managing the separate taxonomy index.  It also requires
- *  less RAM than the taxonomy index, as it manages the flat
- *  (2-level) hierarchy more efficiently.  In addition, the
- *  tie-break during faceting is now meaningful (in label
- *  sorted order).
+ *  separate taxonomy index.  This supports flat facets
+ *  (dimension + label) as well as hierarchical ones, and it
+ *  makes faceting a bit slower, adds some cost at reopen
+ *  time, but avoids managing the separate taxonomy index.
+ *  It also requires less RAM than the taxonomy index, as it
+ *  manages the flat (2-level) hierarchy more efficiently.
+ *  In addition, the tie-break during faceting is now
+ *  meaningful (in label sorted order).
+ *
+ *  <p>The children of a hierarchical label are found with
+ *  {@link #getFirstChildOrd} and {@link #getNextSiblingOrd}.
  *
  *  <p><b>NOTE</b>: creating an instance of this class is
  *  somewhat costly, as it computes per-segment ordinal maps,
@@ -42,8 +45,7 @@ import org.apache.lucene.index.SortedSetDocValues;
 public abstract class SortedSetDocValuesReaderState {
 
   /** Holds start/end range of ords, which maps to one
-   *  dimension (someday we may generalize it to map to
-   *  hierarchies within one dimension). */
+   *  dimension, including all levels of its hierarchy. */
   public static final class OrdRange {
     /** Start of range, inclusive: */
     public final int start;
@@ -78,4 +80,21 @@ public abstract class SortedSetDocValuesReaderState {
   
   /** Number of unique labels. */
   public abstract int getSize();
+
+  /** Returns the next ord with the same parent as the
+   *  given ord, or an ord beyond the dimension's {@link
+   *  OrdRange} if there is none.  The default
+   *  implementation returns {@code ord + 1}, which is
+   *  correct for flat (dimension + label) facets. */
+  public int getNextSiblingOrd(int ord) {
+    return ord + 1;
+  }
+
+  /** Returns the first child of the given ord, or -1 if
+   *  it has no children.  The default implementation
+   *  returns -1, which is correct for flat (dimension +
+   *  label) facets. */
+  public int getFirstChildOrd(int ord) {
+    return -1;
+  }
 }
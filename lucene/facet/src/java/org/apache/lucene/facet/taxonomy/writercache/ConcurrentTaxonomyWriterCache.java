@@ -0,0 +1,87 @@
+package org.apache.lucene.facet.taxonomy.writercache;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.facet.taxonomy.FacetLabel;
+import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * {@link TaxonomyWriterCache} which keeps all the mappings from category to
+ * ordinal in a {@link ConcurrentHashMap}. Lookups take no lock, so many
+ * indexing threads can resolve existing categories through
+ * {@link DirectoryTaxonomyWriter#addCategory} at the same time; only new
+ * categories are added under the writer's lock, which keeps parents before
+ * their children.
+ * <p>
+ * This is faster than {@link Cl2oTaxonomyWriterCache} when many threads add
+ * facets concurrently, but uses several times more memory per category.
+ *
+ * @lucene.experimental
+ */
+public class ConcurrentTaxonomyWriterCache implements TaxonomyWriterCache {
+
+  private volatile ConcurrentHashMap<FacetLabel,Integer> cache;
+
+  /** Sole constructor. */
+  public ConcurrentTaxonomyWriterCache() {
+    cache = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public void clear() {
+    cache = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public void close() {
+    cache = null;
+  }
+
+  @Override
+  public boolean isFull() {
+    // This cache is never full
+    return false;
+  }
+
+  @Override
+  public int get(FacetLabel categoryPath) {
+    Integer ordinal = cache.get(categoryPath);
+    return ordinal == null ? LabelToOrdinal.INVALID_ORDINAL : ordinal.intValue();
+  }
+
+  @Override
+  public boolean put(FacetLabel categoryPath, int ordinal) {
+    if (categoryPath.length < categoryPath.components.length) {
+      // don't hold on to the components of the child this path was taken from
+      categoryPath = new FacetLabel(Arrays.copyOf(categoryPath.components, categoryPath.length));
+    }
+    cache.put(categoryPath, ordinal);
+    // Tell the caller we didn't clear part of the cache, so it doesn't
+    // have to flush its on-disk index now
+    return false;
+  }
+
+  /** Returns the number of categories in the cache. */
+  public int size() {
+    return cache == null ? 0 : cache.size();
+  }
+
+}
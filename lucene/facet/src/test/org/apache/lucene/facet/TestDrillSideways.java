@@ -20,18 +20,25 @@ package org.apache.lucene.facet;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
+import org.apache.lucene.facet.DrillSideways.ConcurrentDrillSidewaysResult;
 import org.apache.lucene.facet.DrillSideways.DrillSidewaysResult;
 import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
 import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
@@ -47,6 +54,8 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
@@ -57,6 +66,7 @@ import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHitCountCollector;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Bits;
@@ -64,6 +74,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InPlaceMergeSorter;
 import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.TestUtil;
 
 public class TestDrillSideways extends FacetTestCase {
@@ -246,6 +257,161 @@ public class TestDrillSideways extends FacetTestCase {
     IOUtils.close(searcher.getIndexReader(), taxoReader, taxoWriter, dir, taxoDir);
   }
 
+  public void testConcurrent() throws Exception {
+    Directory dir = newDirectory();
+    Directory taxoDir = newDirectory();
+    DirectoryTaxonomyWriter taxoWriter = new DirectoryTaxonomyWriter(taxoDir, IndexWriterConfig.OpenMode.CREATE);
+
+    FacetsConfig config = new FacetsConfig();
+    config.setHierarchical("Publish Date", true);
+
+    RandomIndexWriter writer = new RandomIndexWriter(random(), dir);
+    String[] authors = new String[] {"Bob", "Lisa", "Susan", "Frank"};
+    String[] years = new String[] {"1999", "2010", "2012"};
+    String[] colors = new String[] {"Red", "Green", "Blue"};
+    int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      String content = random().nextBoolean() ? "a" : "b";
+      doc.add(new StringField("content", content, Field.Store.NO));
+      doc.add(new SortedDocValuesField("content", new BytesRef(content)));
+      doc.add(new FacetField("Author", authors[random().nextInt(authors.length)]));
+      doc.add(new FacetField("Publish Date", years[random().nextInt(years.length)], "1"));
+      doc.add(new FacetField("Color", colors[random().nextInt(colors.length)]));
+      writer.addDocument(config.build(taxoWriter, doc));
+      if (random().nextInt(20) == 0) {
+        writer.commit();
+      }
+    }
+
+    IndexSearcher searcher = newSearcher(writer.getReader());
+    TaxonomyReader taxoReader = new DirectoryTaxonomyReader(taxoWriter);
+    ExecutorService executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+                                   new LinkedBlockingQueue<Runnable>(),
+                                   new NamedThreadFactory("TestDrillSideways"));
+
+    DrillSideways ds = new DrillSideways(searcher, config, taxoReader);
+    DrillSideways concurrentDs = new DrillSideways(searcher, config, taxoReader, null, executor);
+
+    DrillDownQuery ddq = new DrillDownQuery(config, new TermQuery(new Term("content", "a")));
+    ddq.add("Author", "Lisa");
+    ddq.add("Author", "Bob");
+    ddq.add("Publish Date", "2010");
+    ddq.add("Color", "Red");
+
+    DrillSidewaysResult expected = ds.search(ddq, 10);
+    DrillSidewaysResult actual = concurrentDs.search(ddq, 10);
+    assertEquals(expected.hits.totalHits, actual.hits.totalHits);
+    for (String dim : new String[] {"Author", "Publish Date", "Color"}) {
+      assertEquals(String.valueOf(expected.facets.getTopChildren(10, dim)), String.valueOf(actual.facets.getTopChildren(10, dim)));
+    }
+
+    Sort sort = new Sort(new SortField("content", SortField.Type.STRING));
+    expected = ds.search(ddq, null, null, 10, sort, false, false);
+    actual = concurrentDs.search(ddq, null, null, 10, sort, false, false);
+    assertEquals(expected.hits.totalHits, actual.hits.totalHits);
+    assertEquals(String.valueOf(expected.facets.getTopChildren(10, "Author")), String.valueOf(actual.facets.getTopChildren(10, "Author")));
+
+    ConcurrentDrillSidewaysResult<Integer> countResult = concurrentDs.search(ddq, new CollectorManager<TotalHitCountCollector,Integer>() {
+      @Override
+      public TotalHitCountCollector newCollector() {
+        return new TotalHitCountCollector();
+      }
+
+      @Override
+      public Integer reduce(Collection<TotalHitCountCollector> collectors) {
+        int totalHits = 0;
+        for (TotalHitCountCollector collector : collectors) {
+          totalHits += collector.getTotalHits();
+        }
+        return totalHits;
+      }
+    });
+    assertEquals(expected.hits.totalHits, countResult.collectorResult.intValue());
+    assertNull(countResult.hits);
+    assertEquals(String.valueOf(expected.facets.getTopChildren(10, "Color")), String.valueOf(countResult.facets.getTopChildren(10, "Color")));
+
+    // no drill-down dims:
+    ddq = new DrillDownQuery(config);
+    expected = ds.search(ddq, 10);
+    actual = concurrentDs.search(ddq, 10);
+    assertEquals(numDocs, actual.hits.totalHits);
+    assertEquals(expected.facets.getTopChildren(10, "Author").toString(), actual.facets.getTopChildren(10, "Author").toString());
+
+    TestUtil.shutdownExecutorService(executor);
+    writer.close();
+    IOUtils.close(searcher.getIndexReader(), taxoReader, taxoWriter, dir, taxoDir);
+  }
+
+  public void testConcurrentSearchFailure() throws Exception {
+    Directory dir = newDirectory();
+    Directory taxoDir = newDirectory();
+    DirectoryTaxonomyWriter taxoWriter = new DirectoryTaxonomyWriter(taxoDir, IndexWriterConfig.OpenMode.CREATE);
+    FacetsConfig config = new FacetsConfig();
+
+    RandomIndexWriter writer = new RandomIndexWriter(random(), dir);
+    String[] authors = new String[] {"Bob", "Lisa", "Susan", "Frank"};
+    String[] colors = new String[] {"Red", "Green", "Blue"};
+    int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new FacetField("Author", authors[random().nextInt(authors.length)]));
+      doc.add(new FacetField("Color", colors[random().nextInt(colors.length)]));
+      writer.addDocument(config.build(taxoWriter, doc));
+    }
+
+    final String threadNamePrefix = "TestDrillSideways";
+    final AtomicInteger runningSidewaysSearches = new AtomicInteger();
+    IndexSearcher searcher = new IndexSearcher(writer.getReader()) {
+      @Override
+      public void search(Query query, Collector results) throws IOException {
+        boolean sideways = Thread.currentThread().getName().startsWith(threadNamePrefix);
+        if (sideways) {
+          runningSidewaysSearches.incrementAndGet();
+        }
+        try {
+          super.search(query, results);
+        } finally {
+          if (sideways) {
+            runningSidewaysSearches.decrementAndGet();
+          }
+        }
+      }
+    };
+    TaxonomyReader taxoReader = new DirectoryTaxonomyReader(taxoWriter);
+    ExecutorService executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+                                   new LinkedBlockingQueue<Runnable>(),
+                                   new NamedThreadFactory(threadNamePrefix));
+    DrillSideways ds = new DrillSideways(searcher, config, taxoReader, null, executor);
+
+    DrillDownQuery ddq = new DrillDownQuery(config);
+    ddq.add("Author", "Lisa");
+    ddq.add("Color", "Red");
+
+    // the main query fails on the calling thread, while the sideways tasks may still be searching
+    try {
+      ds.search(ddq, new SimpleCollector() {
+        @Override
+        public void collect(int doc) {
+          throw new IllegalStateException("fake failure");
+        }
+
+        @Override
+        public boolean needsScores() {
+          return false;
+        }
+      });
+      fail("did not hit exception");
+    } catch (IllegalStateException expected) {
+      assertEquals("fake failure", expected.getMessage());
+    }
+    assertEquals("sideways searches still running after the search failed", 0, runningSidewaysSearches.get());
+
+    TestUtil.shutdownExecutorService(executor);
+    writer.close();
+    IOUtils.close(searcher.getIndexReader(), taxoReader, taxoWriter, dir, taxoDir);
+  }
+
   public void testSometimesInvalidDrillDown() throws Exception {
     Directory dir = newDirectory();
     Directory taxoDir = newDirectory();
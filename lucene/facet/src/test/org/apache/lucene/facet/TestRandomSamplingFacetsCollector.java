@@ -143,6 +143,31 @@ public class TestRandomSamplingFacetsCollector extends FacetTestCase {
       // since numDocs may not divide by 10 exactly, allow for some slack in the amortized count 
       assertEquals(amortized.value.floatValue(), Math.min(5 * sampled.value.floatValue(), numDocs / 10.f), 1.0);
     }
+
+    // The exact counts must be within the error bounds of the amortized
+    // counts; z=4 makes a failure very unlikely
+    final FastTaxonomyFacetCounts exactFacetCounts = new FastTaxonomyFacetCounts(taxoReader, config, fc);
+    for (LabelAndValue sampled : random10Result.labelValues) {
+      double estimate = sampled.value.doubleValue() / random10Percent.getSamplingRate();
+      double bound = random10Percent.getErrorBound(sampled.value, 4);
+      assertTrue(bound > 0);
+      Number exact = exactFacetCounts.getSpecificValue("iMod10", sampled.label);
+      assertEquals(exact.doubleValue(), estimate, bound);
+    }
+
+    // All 5 matching categories have the same count, so the sample cannot
+    // tell which are the top 2
+    final FacetResult random10Top3 = random10FacetCounts.getTopChildren(3, "iMod10");
+    assertFalse(random10Percent.isTopNStable(random10Top3, 2, 4));
+    // There is no 6th category to compete with the top 5
+    assertTrue(random10Percent.isTopNStable(random10FacetCounts.getTopChildren(6, "iMod10"), 5, 4));
+
+    // Without sampling, the counts are exact
+    random10Percent.resample(numDocs);
+    final FacetResult exactResult = new FastTaxonomyFacetCounts(taxoReader, config, random10Percent).getTopChildren(3, "iMod10");
+    assertEquals(exactFacetCounts.getTopChildren(3, "iMod10"), exactResult);
+    assertEquals(0.0, random10Percent.getErrorBound(exactResult.labelValues[0].value, 4), 0.0);
+    assertTrue(random10Percent.isTopNStable(exactResult, 2, 4));
     
     IOUtils.close(searcher.getIndexReader(), taxoReader, dir, taxoDir);
   }
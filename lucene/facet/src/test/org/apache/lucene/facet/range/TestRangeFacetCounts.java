@@ -27,9 +27,11 @@ import org.apache.lucene.document.DoublePoint;
 import org.apache.lucene.document.FloatPoint;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
 import org.apache.lucene.document.DoubleDocValuesField;
 import org.apache.lucene.document.FloatDocValuesField;
 import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.facet.DrillDownQuery;
 import org.apache.lucene.facet.DrillSideways;
 import org.apache.lucene.facet.DrillSideways.DrillSidewaysResult;
@@ -105,6 +107,60 @@ public class TestRangeFacetCounts extends FacetTestCase {
     d.close();
   }
 
+  public void testCountPoints() throws Exception {
+    Directory d = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), d);
+    int numDocs = atLeast(1000);
+    long maxValue = TestUtil.nextLong(random(), 10, 100000);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Field.Store.NO));
+      if (random().nextInt(10) != 7) {
+        long l = TestUtil.nextLong(random(), -maxValue, maxValue);
+        doc.add(new LongPoint("long", l));
+        doc.add(new NumericDocValuesField("long", l));
+        double dbl = l / 3.0;
+        doc.add(new DoublePoint("double", dbl));
+        doc.add(new DoubleDocValuesField("double", dbl));
+      }
+      w.addDocument(doc);
+      if (random().nextInt(10) == 0) {
+        w.deleteDocuments(new Term("id", Integer.toString(random().nextInt(i + 1))));
+      }
+    }
+    IndexReader r = w.getReader();
+    w.close();
+    IndexSearcher s = newSearcher(r, false);
+
+    int numRanges = TestUtil.nextInt(random(), 1, 10);
+    LongRange[] longRanges = new LongRange[numRanges];
+    DoubleRange[] doubleRanges = new DoubleRange[numRanges];
+    for (int i = 0; i < numRanges; i++) {
+      long min = TestUtil.nextLong(random(), -maxValue, maxValue);
+      long max = TestUtil.nextLong(random(), min, maxValue);
+      boolean minIncl = random().nextBoolean();
+      boolean maxIncl = random().nextBoolean() || min == max;
+      longRanges[i] = new LongRange("r" + i, min, minIncl, max, maxIncl);
+      doubleRanges[i] = new DoubleRange("r" + i, min / 3.0, minIncl, max / 3.0, maxIncl);
+    }
+
+    for (Query query : new Query[] {new MatchAllDocsQuery(), PointRangeQuery.new1DLongRange("long", -maxValue / 2, true, maxValue / 2, true)}) {
+      FacetsCollector fc = new FacetsCollector();
+      s.search(query, fc);
+
+      Facets expected = new LongRangeFacetCounts("long", fc, longRanges);
+      Facets actual = new LongRangeFacetCounts("long", new LongFieldSource("long"), "long", fc, longRanges);
+      assertEquals(expected.getTopChildren(10, "long"), actual.getTopChildren(10, "long"));
+
+      expected = new DoubleRangeFacetCounts("double", fc, doubleRanges);
+      actual = new DoubleRangeFacetCounts("double", new DoubleFieldSource("double"), "double", fc, doubleRanges);
+      assertEquals(expected.getTopChildren(10, "double"), actual.getTopChildren(10, "double"));
+    }
+
+    r.close();
+    d.close();
+  }
+
   @SuppressWarnings("unused")
   public void testUselessRange() {
     try {
@@ -21,6 +21,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
@@ -41,6 +44,7 @@ import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.TestUtil;
 
 public class TestSortedSetDocValuesFacets extends FacetTestCase {
@@ -95,6 +99,135 @@ public class TestSortedSetDocValuesFacets extends FacetTestCase {
     IOUtils.close(searcher.getIndexReader(), dir);
   }
 
+  public void testHierarchical() throws Exception {
+    Directory dir = newDirectory();
+
+    FacetsConfig config = new FacetsConfig();
+    config.setHierarchical("a", true);
+    RandomIndexWriter writer = new RandomIndexWriter(random(), dir);
+
+    Document doc = new Document();
+    doc.add(new SortedSetDocValuesFacetField("a", "foo", "x"));
+    doc.add(new SortedSetDocValuesFacetField("b", "baz"));
+    writer.addDocument(config.build(doc));
+    if (random().nextBoolean()) {
+      writer.commit();
+    }
+
+    doc = new Document();
+    doc.add(new SortedSetDocValuesFacetField("a", "foo", "y", "z"));
+    writer.addDocument(config.build(doc));
+
+    doc = new Document();
+    doc.add(new SortedSetDocValuesFacetField("a", "foo"));
+    writer.addDocument(config.build(doc));
+
+    doc = new Document();
+    doc.add(new SortedSetDocValuesFacetField("a", "bar", "x"));
+    writer.addDocument(config.build(doc));
+
+    // NRT open
+    IndexSearcher searcher = newSearcher(writer.getReader());
+
+    SortedSetDocValuesReaderState state = new DefaultSortedSetDocValuesReaderState(searcher.getIndexReader());
+
+    FacetsCollector c = new FacetsCollector();
+    searcher.search(new MatchAllDocsQuery(), c);
+
+    ExecutorService exec = null;
+    if (random().nextBoolean()) {
+      exec = Executors.newFixedThreadPool(TestUtil.nextInt(random(), 2, 4), new NamedThreadFactory("TestSortedSetDocValuesFacets"));
+    }
+    SortedSetDocValuesFacetCounts facets = new SortedSetDocValuesFacetCounts(state, c, exec);
+
+    assertEquals("dim=a path=[] value=4 childCount=2\n  foo (3)\n  bar (1)\n", facets.getTopChildren(10, "a").toString());
+    assertEquals("dim=a path=[foo] value=3 childCount=2\n  x (1)\n  y (1)\n", facets.getTopChildren(10, "a", "foo").toString());
+    assertEquals("dim=a path=[foo, y] value=1 childCount=1\n  z (1)\n", facets.getTopChildren(10, "a", "foo", "y").toString());
+    assertNull(facets.getTopChildren(10, "a", "foo", "x"));
+    assertNull(facets.getTopChildren(10, "a", "nope"));
+    assertEquals(3, facets.getSpecificValue("a", "foo"));
+    assertEquals(1, facets.getSpecificValue("a", "foo", "y", "z"));
+    assertEquals("dim=b path=[] value=1 childCount=1\n  baz (1)\n", facets.getTopChildren(10, "b").toString());
+
+    // DrillDown on an inner node:
+    DrillDownQuery q = new DrillDownQuery(config);
+    q.add("a", "foo", "y");
+    TopDocs hits = searcher.search(q, 1);
+    assertEquals(1, hits.totalHits);
+
+    if (exec != null) {
+      exec.shutdown();
+      exec.awaitTermination(1, TimeUnit.MINUTES);
+    }
+    writer.close();
+    IOUtils.close(searcher.getIndexReader(), dir);
+  }
+
+  public void testHierarchicalLabelsBelowDelimiter() throws Exception {
+    Directory dir = newDirectory();
+
+    FacetsConfig config = new FacetsConfig();
+    config.setHierarchical("a", true);
+    RandomIndexWriter writer = new RandomIndexWriter(random(), dir);
+
+    // labels with chars below the delimiter sort between a
+    // label and its children:
+    Document doc = new Document();
+    doc.add(new SortedSetDocValuesFacetField("a", "foo", "x"));
+    writer.addDocument(config.build(doc));
+
+    doc = new Document();
+    doc.add(new SortedSetDocValuesFacetField("a", "foo\tbar", "y"));
+    writer.addDocument(config.build(doc));
+
+    doc = new Document();
+    doc.add(new SortedSetDocValuesFacetField("a", "foo", "x\u001Fz"));
+    writer.addDocument(config.build(doc));
+
+    doc = new Document();
+    doc.add(new SortedSetDocValuesFacetField("a", "foo\u0001"));
+    writer.addDocument(config.build(doc));
+
+    IndexSearcher searcher = newSearcher(writer.getReader());
+    SortedSetDocValuesReaderState state = new DefaultSortedSetDocValuesReaderState(searcher.getIndexReader());
+    FacetsCollector c = new FacetsCollector();
+    searcher.search(new MatchAllDocsQuery(), c);
+    SortedSetDocValuesFacetCounts facets = new SortedSetDocValuesFacetCounts(state, c);
+
+    FacetResult result = facets.getTopChildren(10, "a");
+    assertEquals(4, result.value.intValue());
+    assertEquals(3, result.childCount);
+    assertEquals(new LabelAndValue("foo", 2), result.labelValues[0]);
+    assertEquals(new LabelAndValue("foo\u0001", 1), result.labelValues[1]);
+    assertEquals(new LabelAndValue("foo\tbar", 1), result.labelValues[2]);
+
+    result = facets.getTopChildren(10, "a", "foo");
+    assertEquals(2, result.value.intValue());
+    assertEquals(2, result.childCount);
+    assertEquals(new LabelAndValue("x", 1), result.labelValues[0]);
+    assertEquals(new LabelAndValue("x\u001Fz", 1), result.labelValues[1]);
+
+    result = facets.getTopChildren(10, "a", "foo\tbar");
+    assertEquals(1, result.childCount);
+    assertEquals(new LabelAndValue("y", 1), result.labelValues[0]);
+    assertNull(facets.getTopChildren(10, "a", "foo\u0001"));
+
+    writer.close();
+    IOUtils.close(searcher.getIndexReader(), dir);
+  }
+
+  public void testNotHierarchical() throws Exception {
+    FacetsConfig config = new FacetsConfig();
+    Document doc = new Document();
+    doc.add(new SortedSetDocValuesFacetField("a", "foo", "x"));
+    try {
+      config.build(doc);
+      fail("should have hit exception");
+    } catch (IllegalArgumentException iae) {
+      // expected
+    }
+  }
+
   // LUCENE-5090
   @SuppressWarnings("unused")
   public void testStaleState() throws Exception {
@@ -132,6 +265,17 @@ public class TestSortedSetDocValuesFacets extends FacetTestCase {
       // expected
     }
 
+    // same with an executor, which must not be left counting
+    ExecutorService exec = Executors.newFixedThreadPool(2, new NamedThreadFactory("TestSortedSetDocValuesFacets"));
+    try {
+      new SortedSetDocValuesFacetCounts(state, c, exec);
+      fail("did not hit expected exception");
+    } catch (IllegalStateException ise) {
+      // expected
+    }
+    exec.shutdown();
+    exec.awaitTermination(1, TimeUnit.MINUTES);
+
     r.close();
     writer.close();
     searcher.getIndexReader().close();
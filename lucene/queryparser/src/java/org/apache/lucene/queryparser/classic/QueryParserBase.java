@@ -86,6 +86,7 @@ public abstract class QueryParserBase extends QueryBuilder implements CommonQuer
 
   boolean autoGeneratePhraseQueries;
   int maxDeterminizedStates = DEFAULT_MAX_DETERMINIZED_STATES;
+  CompiledAutomatonCache automatonCache = null;
 
   // So the generated QueryParser(CharStream) won't error out
   protected QueryParserBase() {
@@ -415,6 +416,23 @@ public abstract class QueryParserBase extends QueryBuilder implements CommonQuer
     return maxDeterminizedStates;
   }
 
+  /**
+   * @param automatonCache the cache to share the automata of regexp, wildcard
+   *   and fuzzy queries with other queries, or null (the default) to build
+   *   them for every query.
+   */
+  public void setCompiledAutomatonCache(CompiledAutomatonCache automatonCache) {
+    this.automatonCache = automatonCache;
+  }
+
+  /**
+   * @return the cache which regexp, wildcard and fuzzy queries get their
+   *   automata from, or null if they build their own.
+   */
+  public CompiledAutomatonCache getCompiledAutomatonCache() {
+    return automatonCache;
+  }
+
   protected void addClause(List<BooleanClause> clauses, int conj, int mods, Query q) {
     boolean required, prohibited;
 
@@ -579,7 +597,7 @@ public abstract class QueryParserBase extends QueryBuilder implements CommonQuer
    */
   protected Query newRegexpQuery(Term regexp) {
     RegexpQuery query = new RegexpQuery(regexp, RegExp.ALL,
-      maxDeterminizedStates);
+      maxDeterminizedStates, automatonCache);
     query.setRewriteMethod(multiTermRewriteMethod);
     return query;
   }
@@ -596,7 +614,8 @@ public abstract class QueryParserBase extends QueryBuilder implements CommonQuer
     String text = term.text();
     int numEdits = FuzzyQuery.floatToEdits(minimumSimilarity, 
         text.codePointCount(0, text.length()));
-    return new FuzzyQuery(term,numEdits,prefixLength);
+    return new FuzzyQuery(term,numEdits,prefixLength,FuzzyQuery.defaultMaxExpansions,
+        FuzzyQuery.defaultTranspositions,automatonCache);
   }
 
   // TODO: Should this be protected instead?
@@ -669,7 +688,7 @@ public abstract class QueryParserBase extends QueryBuilder implements CommonQuer
    * @return new WildcardQuery instance
    */
   protected Query newWildcardQuery(Term t) {
-    WildcardQuery query = new WildcardQuery(t, maxDeterminizedStates);
+    WildcardQuery query = new WildcardQuery(t, maxDeterminizedStates, automatonCache);
     query.setRewriteMethod(multiTermRewriteMethod);
     return query;
   }
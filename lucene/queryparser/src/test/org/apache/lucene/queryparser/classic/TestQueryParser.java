@@ -33,6 +33,7 @@ import org.apache.lucene.queryparser.util.QueryParserTestBase;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.CompiledAutomatonCache;
 import org.apache.lucene.search.MultiPhraseQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SynonymQuery;
@@ -489,4 +490,20 @@ public class TestQueryParser extends QueryParserTestBase {
       // expected
     }
   }
+
+  public void testCompiledAutomatonCache() throws Exception {
+    QueryParser qp = new QueryParser("field", new MockAnalyzer(random()));
+    assertNull(qp.getCompiledAutomatonCache());
+    Query uncached = qp.parse("f?o* /ba[rz]/ qux~1");
+
+    CompiledAutomatonCache cache = new CompiledAutomatonCache();
+    qp.setCompiledAutomatonCache(cache);
+    assertSame(cache, qp.getCompiledAutomatonCache());
+    Query cached = qp.parse("f?o* /ba[rz]/ qux~1");
+    assertEquals(uncached, cached);
+    // the wildcard and regexp automata are built when parsing, fuzzy ones on rewrite
+    assertEquals(2, cache.getMissCount());
+    qp.parse("f?o* /ba[rz]/");
+    assertEquals(2, cache.getHitCount());
+  }
 }
@@ -18,12 +18,18 @@ package org.apache.lucene.replicator;
  */
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 
 import org.apache.lucene.index.DirectoryReader;
@@ -53,6 +59,12 @@ import org.apache.lucene.util.InfoStream;
  * <p>
  * This handler notifies the application via a provided {@link Callable} when an
  * updated index commit was made available for it.
+ * <p>
+ * Files of newly merged segments can be copied ahead of the commit that
+ * references them through {@link #preCopyFiles(Directory, Collection)}, e.g. by
+ * {@link PreCopyMergedSegmentWarmer}. They are then reported, with their size
+ * and checksum, as part of {@link #currentRevisionFiles()}, so the client does
+ * not copy them again unless they differ from the revision's files.
  * 
  * @lucene.experimental
  */
@@ -71,6 +83,20 @@ public class IndexReplicationHandler implements ReplicationHandler {
   private volatile String currentVersion;
   private volatile InfoStream infoStream = InfoStream.getDefault();
   
+  // pre-copied files not referenced by the current revision yet, by file name
+  private final Map<String,PreCopiedFile> preCopiedFiles = new ConcurrentHashMap<>();
+  
+  private static final class PreCopiedFile {
+    // the size and checksum of the copy in the index directory
+    final RevisionFile file;
+    // the number of revisions that were installed without referencing the file
+    int skippedRevisions;
+    
+    PreCopiedFile(RevisionFile file) {
+      this.file = file;
+    }
+  }
+  
   /**
    * Returns the last {@link IndexCommit} found in the {@link Directory}, or
    * {@code null} if there are no commits.
@@ -139,6 +165,14 @@ public class IndexReplicationHandler implements ReplicationHandler {
    * the next time.
    */
   public static void cleanupOldIndexFiles(Directory dir, String segmentsFile, InfoStream infoStream) {
+    cleanupOldIndexFiles(dir, segmentsFile, Collections.<String>emptySet(), infoStream);
+  }
+  
+  /**
+   * Same as {@link #cleanupOldIndexFiles(Directory, String, InfoStream)}, but
+   * also keeps the given files even if the last commit does not reference them.
+   */
+  public static void cleanupOldIndexFiles(Directory dir, String segmentsFile, Set<String> keepFiles, InfoStream infoStream) {
     try {
       IndexCommit commit = getLastCommit(dir);
       // commit == null means weird IO errors occurred, ignore them
@@ -147,6 +181,7 @@ public class IndexReplicationHandler implements ReplicationHandler {
       if (commit != null && commit.getSegmentsFileName().equals(segmentsFile)) {
         Set<String> commitFiles = new HashSet<>();
         commitFiles.addAll(commit.getFileNames());
+        commitFiles.addAll(keepFiles);
         Matcher matcher = IndexFileNames.CODEC_FILE_PATTERN.matcher("");
         for (String file : dir.listAll()) {
           if (!commitFiles.contains(file)
@@ -208,11 +243,63 @@ public class IndexReplicationHandler implements ReplicationHandler {
   
   @Override
   public Map<String,List<RevisionFile>> currentRevisionFiles() {
-    return currentRevisionFiles;
+    final Map<String,List<RevisionFile>> revisionFiles = currentRevisionFiles;
+    if (preCopiedFiles.isEmpty()) {
+      return revisionFiles;
+    }
+    List<RevisionFile> files = new ArrayList<>();
+    if (revisionFiles != null) {
+      files.addAll(revisionFiles.values().iterator().next());
+    }
+    for (PreCopiedFile preCopied : preCopiedFiles.values()) {
+      files.add(preCopied.file);
+    }
+    return Collections.singletonMap(IndexRevision.SOURCE, files);
+  }
+  
+  /**
+   * Copies the given files, typically those of a segment that was just merged
+   * and not committed yet, from the source directory to the index directory,
+   * so that the revision which eventually references them does not need to
+   * copy them. Files which are not referenced by either of the next two
+   * revisions are deleted again.
+   * <p>
+   * <b>NOTE:</b> this method blocks {@link #revisionReady} while it copies.
+   */
+  public synchronized void preCopyFiles(Directory source, Collection<String> files) throws IOException {
+    Set<String> existingFiles = new HashSet<>(Arrays.asList(indexDir.listAll()));
+    List<String> toCopy = new ArrayList<>();
+    for (String file : files) {
+      if (!existingFiles.contains(file)) {
+        toCopy.add(file);
+      }
+    }
+    
+    List<RevisionFile> copied = new ArrayList<>();
+    boolean success = false;
+    try {
+      copyFiles(source, indexDir, toCopy);
+      indexDir.sync(toCopy);
+      for (String file : toCopy) {
+        copied.add(IndexRevision.newRevisionFile(file, indexDir));
+      }
+      success = true;
+    } finally {
+      if (!success) {
+        cleanupFilesOnFailure(indexDir, toCopy);
+      }
+    }
+    
+    for (RevisionFile file : copied) {
+      preCopiedFiles.put(file.fileName, new PreCopiedFile(file));
+    }
+    if (infoStream.isEnabled(INFO_STREAM_COMPONENT)) {
+      infoStream.message(INFO_STREAM_COMPONENT, "preCopyFiles(): copied=" + toCopy);
+    }
   }
   
   @Override
-  public void revisionReady(String version, Map<String,List<RevisionFile>> revisionFiles,
+  public synchronized void revisionReady(String version, Map<String,List<RevisionFile>> revisionFiles,
       Map<String,List<String>> copiedFiles, Map<String,Directory> sourceDirectory) throws IOException {
     if (revisionFiles.size() > 1) {
       throw new IllegalArgumentException("this handler handles only a single source; got " + revisionFiles.keySet());
@@ -221,6 +308,25 @@ public class IndexReplicationHandler implements ReplicationHandler {
     Directory clientDir = sourceDirectory.values().iterator().next();
     List<String> files = copiedFiles.values().iterator().next();
     String segmentsFile = getSegmentsFile(files, false);
+    // files pre-copied after the client computed the files it needs are kept if
+    // they match the revision's files, otherwise the client's copy replaces them
+    Map<String,RevisionFile> sourceFiles = new HashMap<>();
+    for (RevisionFile file : revisionFiles.values().iterator().next()) {
+      sourceFiles.put(file.fileName, file);
+    }
+    for (Iterator<String> it = files.iterator(); it.hasNext(); ) {
+      String file = it.next();
+      PreCopiedFile preCopied = preCopiedFiles.get(file);
+      if (preCopied != null) {
+        RevisionFile sourceFile = sourceFiles.get(file);
+        if (sourceFile != null && preCopied.file.matches(sourceFile)) {
+          it.remove();
+        } else {
+          preCopiedFiles.remove(file);
+          indexDir.deleteFile(file);
+        }
+      }
+    }
     String pendingSegmentsFile = "pending_" + segmentsFile;
     
     boolean success = false;
@@ -254,12 +360,26 @@ public class IndexReplicationHandler implements ReplicationHandler {
           + " currentRevisionFiles=" + currentRevisionFiles);
     }
     
+    // pre-copied files now referenced by the index no longer need protection.
+    // The others are kept for one more revision, in case the merge that
+    // produced them was committed just after this revision was taken.
+    for (RevisionFile file : revisionFiles.values().iterator().next()) {
+      preCopiedFiles.remove(file.fileName);
+    }
+    for (Map.Entry<String,PreCopiedFile> e : preCopiedFiles.entrySet()) {
+      if (e.getValue().skippedRevisions > 0) {
+        preCopiedFiles.remove(e.getKey());
+      } else {
+        e.getValue().skippedRevisions++;
+      }
+    }
+    
     // Cleanup the index directory from old and unused index files.
     // NOTE: we don't use IndexWriter.deleteUnusedFiles here since it may have
     // side-effects, e.g. if it hits sudden IO errors while opening the index
     // (and can end up deleting the entire index). It is not our job to protect
     // against those errors, app will probably hit them elsewhere.
-    cleanupOldIndexFiles(indexDir, segmentsFile, infoStream);
+    cleanupOldIndexFiles(indexDir, segmentsFile, preCopiedFiles.keySet(), infoStream);
 
     // successfully updated the index, notify the callback that the index is
     // ready.
@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexDeletionPolicy;
 import org.apache.lucene.index.IndexWriter;
@@ -32,6 +33,7 @@ import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.SnapshotDeletionPolicy;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 
 /**
  * A {@link Revision} of a single index files which comprises the list of files
@@ -51,7 +53,9 @@ import org.apache.lucene.store.IOContext;
 public class IndexRevision implements Revision {
   
   private static final int RADIX = 16;
-  private static final String SOURCE = "index";
+  
+  /** The source name of the index files. */
+  public static final String SOURCE = "index";
   
   private final IndexWriter writer;
   private final IndexCommit commit;
@@ -60,9 +64,12 @@ public class IndexRevision implements Revision {
   private final Map<String,List<RevisionFile>> sourceFiles;
   
   // returns a RevisionFile with some metadata
-  private static RevisionFile newRevisionFile(String file, Directory dir) throws IOException {
+  static RevisionFile newRevisionFile(String file, Directory dir) throws IOException {
     RevisionFile revFile = new RevisionFile(file);
-    revFile.size = dir.fileLength(file);
+    try (IndexInput in = dir.openInput(file, IOContext.READONCE)) {
+      revFile.size = in.length();
+      revFile.checksum = CodecUtil.retrieveChecksum(in);
+    }
     return revFile;
   }
   
@@ -0,0 +1,88 @@
+package org.apache.lucene.replicator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriter.IndexReaderWarmer;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.util.InfoStream;
+
+/**
+ * An {@link IndexReaderWarmer} which copies the files of every newly merged
+ * segment to the index directories of the registered replicas, before the
+ * {@link IndexWriter} commits the merge. The next revision replicated to those
+ * replicas then only needs to copy the small, recently flushed segments, instead
+ * of causing a copy spike when a large merge becomes visible.
+ * <p>
+ * Set it with {@link IndexWriterConfig#setMergedSegmentWarmer}. Note that
+ * {@link IndexWriter} only warms merged segments while it pools readers, i.e.
+ * after an NRT reader was opened from it. A replica which fails to pre-copy the
+ * files is skipped; it copies them with the revision as usual.
+ *
+ * @lucene.experimental
+ */
+public class PreCopyMergedSegmentWarmer extends IndexReaderWarmer {
+
+  /** The component name to use with {@link InfoStream#isEnabled(String)}. */
+  public static final String INFO_STREAM_COMPONENT = "PreCopyMergedSegmentWarmer";
+
+  private final List<IndexReplicationHandler> replicas = new CopyOnWriteArrayList<>();
+  private final InfoStream infoStream;
+
+  /** Constructor with the {@link InfoStream} to log failed copies to. */
+  public PreCopyMergedSegmentWarmer(InfoStream infoStream) {
+    this.infoStream = infoStream;
+  }
+
+  /** Registers a replica to copy merged segments to. */
+  public void addReplica(IndexReplicationHandler replica) {
+    replicas.add(replica);
+  }
+
+  /** Stops copying merged segments to the given replica. */
+  public void removeReplica(IndexReplicationHandler replica) {
+    replicas.remove(replica);
+  }
+
+  @Override
+  public void warm(LeafReader reader) throws IOException {
+    if (!(reader instanceof SegmentReader)) {
+      return;
+    }
+    final SegmentReader segmentReader = (SegmentReader) reader;
+    final Collection<String> files = segmentReader.getSegmentInfo().files();
+    for (IndexReplicationHandler replica : replicas) {
+      try {
+        replica.preCopyFiles(segmentReader.directory(), files);
+      } catch (IOException e) {
+        // don't fail the merge because of a replica
+        if (infoStream.isEnabled(INFO_STREAM_COMPONENT)) {
+          infoStream.message(INFO_STREAM_COMPONENT, "failed to pre-copy " + files + ": " + e);
+        }
+      }
+    }
+  }
+
+}
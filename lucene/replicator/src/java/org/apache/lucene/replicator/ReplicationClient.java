@@ -24,11 +24,9 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -290,7 +288,8 @@ public class ReplicationClient implements Closeable {
   
   /**
    * Returns the files required for replication. By default, this method returns
-   * all files that exist in the new revision, but not in the handler.
+   * all files that exist in the new revision, but not in the handler, or
+   * whose size or checksum differs in the handler.
    */
   protected Map<String,List<RevisionFile>> requiredFiles(Map<String,List<RevisionFile>> newRevisionFiles) {
     Map<String,List<RevisionFile>> handlerRevisionFiles = handler.currentRevisionFiles();
@@ -300,10 +299,10 @@ public class ReplicationClient implements Closeable {
     
     Map<String,List<RevisionFile>> requiredFiles = new HashMap<>();
     for (Entry<String,List<RevisionFile>> e : handlerRevisionFiles.entrySet()) {
-      // put the handler files in a Set, for faster contains() checks later
-      Set<String> handlerFiles = new HashSet<>();
+      // put the handler files in a Map, for faster lookups later
+      Map<String,RevisionFile> handlerFiles = new HashMap<>();
       for (RevisionFile file : e.getValue()) {
-        handlerFiles.add(file.fileName);
+        handlerFiles.put(file.fileName, file);
       }
       
       // make sure to preserve revisionFiles order
@@ -311,7 +310,8 @@ public class ReplicationClient implements Closeable {
       String source = e.getKey();
       assert newRevisionFiles.containsKey(source) : "source not found in newRevisionFiles: " + newRevisionFiles;
       for (RevisionFile file : newRevisionFiles.get(source)) {
-        if (!handlerFiles.contains(file.fileName)) {
+        RevisionFile handlerFile = handlerFiles.get(file.fileName);
+        if (handlerFile == null || !handlerFile.matches(file)) {
           res.add(file);
         }
       }
@@ -32,6 +32,12 @@ public class RevisionFile {
   /** The size of the file denoted by {@link #fileName}. */
   public long size = -1;
   
+  /**
+   * The checksum stored in the codec footer of the file denoted by
+   * {@link #fileName}, or -1 if unknown.
+   */
+  public long checksum = -1;
+  
   /** Constructor with the given file name. */
   public RevisionFile(String fileName) {
     if (fileName == null || fileName.isEmpty()) {
@@ -40,20 +46,31 @@ public class RevisionFile {
     this.fileName = fileName;
   }
   
+  /**
+   * Returns true if the given file has the same name as this file, and the same
+   * size and checksum as far as both files know them.
+   */
+  public boolean matches(RevisionFile other) {
+    return fileName.equals(other.fileName)
+        && (size == -1 || other.size == -1 || size == other.size)
+        && (checksum == -1 || other.checksum == -1 || checksum == other.checksum);
+  }
+  
   @Override
   public boolean equals(Object obj) {
     RevisionFile other = (RevisionFile) obj;
-    return fileName.equals(other.fileName) && size == other.size;
+    return fileName.equals(other.fileName) && size == other.size && checksum == other.checksum;
   }
   
   @Override
   public int hashCode() {
-    return fileName.hashCode() ^ (int) (size ^ (size >>> 32));
+    int h = fileName.hashCode() ^ (int) (size ^ (size >>> 32));
+    return 31 * h + (int) (checksum ^ (checksum >>> 32));
   }
   
   @Override
   public String toString() {
-    return "fileName=" + fileName + " size=" + size;
+    return "fileName=" + fileName + " size=" + size + " checksum=" + checksum;
   }
   
 }
@@ -17,7 +17,9 @@ package org.apache.lucene.replicator;
  * limitations under the License.
  */
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInput;
+import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -56,9 +58,41 @@ public final class SessionToken {
    */
   public final Map<String,List<RevisionFile>> sourceFiles;
   
-  /** Constructor which deserializes from the given {@link DataInput}. */
+  /**
+   * Written in place of the length of the id by tokens which start with a
+   * format version; older tokens start with the id itself, which is never
+   * that long.
+   */
+  private static final int FORMAT_MARKER = 0xFFFF;
+
+  /** Format of tokens without a version header, and without checksums. */
+  static final int VERSION_START = 0;
+  /** Format which adds the checksum of every file. */
+  static final int VERSION_CHECKSUMS = 1;
+  static final int VERSION_CURRENT = VERSION_CHECKSUMS;
+  
+  /**
+   * Constructor which deserializes from the given {@link DataInput}. Tokens
+   * serialized by older versions, without checksums, are read as well.
+   */
   public SessionToken(DataInput in) throws IOException {
-    this.id = in.readUTF();
+    final int formatVersion;
+    final int header = in.readUnsignedShort();
+    if (header == FORMAT_MARKER) {
+      formatVersion = in.readInt();
+      if (formatVersion < VERSION_START || formatVersion > VERSION_CURRENT) {
+        throw new IOException("unsupported session token format version: " + formatVersion);
+      }
+      this.id = in.readUTF();
+    } else {
+      // the old layout, the header was the length of the id
+      formatVersion = VERSION_START;
+      byte[] utf = new byte[2 + header];
+      utf[0] = (byte) (header >>> 8);
+      utf[1] = (byte) header;
+      in.readFully(utf, 2, header);
+      this.id = new DataInputStream(new ByteArrayInputStream(utf)).readUTF();
+    }
     this.version = in.readUTF();
     this.sourceFiles = new HashMap<>();
     int numSources = in.readInt();
@@ -70,6 +104,9 @@ public final class SessionToken {
         String fileName = in.readUTF();
         RevisionFile file = new RevisionFile(fileName);
         file.size = in.readLong();
+        if (formatVersion >= VERSION_CHECKSUMS) {
+          file.checksum = in.readLong();
+        }
         files.add(file);
       }
       this.sourceFiles.put(source, files);
@@ -86,6 +123,8 @@ public final class SessionToken {
   
   /** Serialize the token data for communication between server and client. */
   public void serialize(DataOutput out) throws IOException {
+    out.writeShort(FORMAT_MARKER);
+    out.writeInt(VERSION_CURRENT);
     out.writeUTF(id);
     out.writeUTF(version);
     out.writeInt(sourceFiles.size());
@@ -96,6 +135,7 @@ public final class SessionToken {
       for (RevisionFile file : files) {
         out.writeUTF(file.fileName);
         out.writeLong(file.size);
+        out.writeLong(file.checksum);
       }
     }
   }
@@ -19,20 +19,34 @@ package org.apache.lucene.replicator;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.index.SnapshotDeletionPolicy;
 import org.apache.lucene.replicator.ReplicationClient.ReplicationHandler;
 import org.apache.lucene.replicator.ReplicationClient.SourceDirectoryFactory;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.store.MockDirectoryWrapper;
 import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.InfoStream;
 import org.apache.lucene.util.TestUtil;
 import org.apache.lucene.util.ThreadInterruptedException;
 import org.junit.After;
@@ -206,6 +220,107 @@ public class IndexReplicationClientTest extends ReplicatorTestCase {
     client.updateNow();
   }
 
+  /** Replaces the handler with one which records the files the client copied. */
+  private List<String> recordCopiedFiles() throws IOException {
+    final List<String> copied = new ArrayList<>();
+    client.close();
+    handler = new IndexReplicationHandler(handlerDir, callback) {
+      @Override
+      public synchronized void revisionReady(String version, Map<String,List<RevisionFile>> revisionFiles,
+          Map<String,List<String>> copiedFiles, Map<String,Directory> sourceDirectory) throws IOException {
+        copied.addAll(copiedFiles.get(IndexRevision.SOURCE));
+        super.revisionReady(version, revisionFiles, copiedFiles, sourceDirectory);
+      }
+    };
+    client = new ReplicationClient(replicator, handler, sourceDirFactory);
+    return copied;
+  }
+  
+  @Test
+  public void testPreCopyMergedSegments() throws Exception {
+    List<String> copied = recordCopiedFiles();
+    publishWriter.close();
+    PreCopyMergedSegmentWarmer warmer = new PreCopyMergedSegmentWarmer(InfoStream.NO_OUTPUT);
+    warmer.addReplica((IndexReplicationHandler) handler);
+    IndexWriterConfig conf = newIndexWriterConfig(null);
+    conf.setIndexDeletionPolicy(new SnapshotDeletionPolicy(conf.getIndexDeletionPolicy()));
+    conf.setMergePolicy(newLogMergePolicy());
+    conf.setMergedSegmentWarmer(warmer);
+    publishWriter = new IndexWriter(publishDir, conf);
+    // merged segments are only warmed while the writer pools readers
+    DirectoryReader.open(publishWriter).close();
+    
+    replicator.publish(createRevision(1));
+    client.updateNow();
+    replicator.publish(createRevision(2));
+    client.updateNow();
+    
+    publishWriter.forceMerge(1);
+    // the merged segment was copied before it was committed
+    SegmentInfos infos = SegmentInfos.readLatestCommit(publishDir);
+    publishWriter.commit();
+    SegmentInfos merged = SegmentInfos.readLatestCommit(publishDir);
+    assertEquals(1, merged.size());
+    SegmentCommitInfo mergedInfo = merged.info(0);
+    Collection<String> mergedFiles = mergedInfo.files();
+    Set<String> handlerFiles = new HashSet<>(Arrays.asList(handlerDir.listAll()));
+    assertTrue("merged files " + mergedFiles + " not pre-copied: " + handlerFiles, handlerFiles.containsAll(mergedFiles));
+    for (SegmentCommitInfo info : infos) {
+      assertFalse(info.info.name.equals(mergedInfo.info.name));
+    }
+    
+    copied.clear();
+    replicator.publish(createRevision(3));
+    client.updateNow();
+    assertFalse("client copied nothing", copied.isEmpty());
+    for (String file : mergedFiles) {
+      assertFalse("client copied pre-copied file " + file, copied.contains(file));
+    }
+    List<RevisionFile> currentFiles = handler.currentRevisionFiles().get(IndexRevision.SOURCE);
+    Set<String> currentFileNames = new HashSet<>();
+    for (RevisionFile file : currentFiles) {
+      currentFileNames.add(file.fileName);
+    }
+    assertTrue(currentFileNames.containsAll(mergedFiles));
+  }
+  
+  @Test
+  public void testPreCopiedFilesAreVerified() throws Exception {
+    List<String> copied = recordCopiedFiles();
+    // the bogus files are replaced under the same names
+    handlerDir.setPreventDoubleWrite(false);
+    publishWriter.close();
+    IndexWriterConfig conf = newIndexWriterConfig(null);
+    conf.setIndexDeletionPolicy(new SnapshotDeletionPolicy(conf.getIndexDeletionPolicy()));
+    conf.setMergePolicy(NoMergePolicy.INSTANCE);
+    publishWriter = new IndexWriter(publishDir, conf);
+    replicator.publish(createRevision(1));
+    client.updateNow();
+    
+    publishWriter.addDocument(new Document());
+    publishWriter.commit();
+    SegmentInfos infos = SegmentInfos.readLatestCommit(publishDir);
+    Collection<String> newFiles = infos.info(infos.size() - 1).files();
+    
+    // pre-copy files with the names, but not the contents, of the new segment
+    Directory otherDir = newDirectory();
+    for (String file : newFiles) {
+      try (IndexOutput out = otherDir.createOutput(file, IOContext.DEFAULT)) {
+        CodecUtil.writeHeader(out, "bogus", 0);
+        out.writeString(file);
+        CodecUtil.writeFooter(out);
+      }
+    }
+    ((IndexReplicationHandler) handler).preCopyFiles(otherDir, newFiles);
+    otherDir.close();
+    
+    // the callback checks the index, which fails if the bogus files were kept
+    copied.clear();
+    replicator.publish(createRevision(2));
+    client.updateNow();
+    assertTrue("client did not replace " + newFiles + ": " + copied, copied.containsAll(newFiles));
+  }
+  
   /*
    * This test verifies that the client and handler do not end up in a corrupt
    * index if exceptions are thrown at any point during replication. Either when
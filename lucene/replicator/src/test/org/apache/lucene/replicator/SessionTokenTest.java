@@ -62,4 +62,32 @@ public class SessionTokenTest extends ReplicatorTestCase {
     IOUtils.close(dir);
   }
   
+  @Test
+  public void testReadOldFormat() throws IOException {
+    // the layout before the format version header and checksums were added
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    out.writeUTF("17");
+    out.writeUTF("5");
+    out.writeInt(1);
+    out.writeUTF("index");
+    out.writeInt(2);
+    out.writeUTF("_0.cfs");
+    out.writeLong(42);
+    out.writeUTF("segments_1");
+    out.writeLong(7);
+    out.close();
+
+    SessionToken session = new SessionToken(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+    assertEquals("17", session.id);
+    assertEquals("5", session.version);
+    List<RevisionFile> files = session.sourceFiles.get("index");
+    assertEquals(2, files.size());
+    assertEquals("_0.cfs", files.get(0).fileName);
+    assertEquals(42, files.get(0).size);
+    assertEquals(-1, files.get(0).checksum);
+    assertEquals("segments_1", files.get(1).fileName);
+    assertEquals(7, files.get(1).size);
+  }
+  
 }
@@ -20,14 +20,20 @@ package org.apache.lucene.search.suggest;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.FilterLeafReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiDocValues;
 import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SegmentReader;
 import org.apache.lucene.search.spell.Dictionary;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
@@ -103,6 +109,41 @@ public class DocumentDictionary implements Dictionary {
     return new DocumentInputIterator(payloadField!=null, contextsField!=null);
   }
 
+  /**
+   * Returns an iterator over the entries of the documents in segments other than
+   * the given ones, e.g. the {@link #getSegmentNames()} of the dictionary a suggester
+   * was last built from, so that only the documents that were added or updated since
+   * can be added to the suggester. Segments written by merges are new as well, so
+   * their documents are returned again. Entries of documents that were deleted since
+   * are not reported.
+   */
+  public InputIterator getEntryIterator(Set<String> skipSegments) throws IOException {
+    return new DocumentInputIterator(payloadField!=null, contextsField!=null, skipSegments);
+  }
+
+  /**
+   * Returns the names of the segments of the reader, to pass to
+   * {@link #getEntryIterator(Set)} of a dictionary over a later reader of the same index.
+   */
+  public Set<String> getSegmentNames() {
+    Set<String> segmentNames = new HashSet<>();
+    for (LeafReaderContext context : reader.leaves()) {
+      String segmentName = getSegmentName(context.reader());
+      if (segmentName != null) {
+        segmentNames.add(segmentName);
+      }
+    }
+    return segmentNames;
+  }
+
+  private static String getSegmentName(LeafReader reader) {
+    LeafReader unwrapped = FilterLeafReader.unwrap(reader);
+    if (unwrapped instanceof SegmentReader) {
+      return ((SegmentReader) unwrapped).getSegmentName();
+    }
+    return null;
+  }
+
   /** Implements {@link InputIterator} from stored fields. */
   protected class DocumentInputIterator implements InputIterator {
 
@@ -116,6 +157,9 @@ public class DocumentDictionary implements Dictionary {
     private BytesRef currentPayload = null;
     private Set<BytesRef> currentContexts;
     private final NumericDocValues weightValues;
+    private final List<LeafReaderContext> leaves;
+    /** Whether to skip the documents of each leaf, or null */
+    private final boolean[] skipLeaves;
     IndexableField[] currentDocFields = new IndexableField[0];
     int nextFieldsPosition = 0;
 
@@ -125,6 +169,24 @@ public class DocumentDictionary implements Dictionary {
      * over only term and weight.
      */
     public DocumentInputIterator(boolean hasPayloads, boolean hasContexts) throws IOException {
+      this(hasPayloads, hasContexts, null);
+    }
+
+    /**
+     * Creates an iterator like {@link #DocumentInputIterator(boolean, boolean)},
+     * which skips the documents of the segments with the given names.
+     */
+    public DocumentInputIterator(boolean hasPayloads, boolean hasContexts, Set<String> skipSegments) throws IOException {
+      leaves = reader.leaves();
+      if (skipSegments != null && skipSegments.isEmpty() == false) {
+        skipLeaves = new boolean[leaves.size()];
+        for (int i = 0; i < skipLeaves.length; i++) {
+          String segmentName = getSegmentName(leaves.get(i).reader());
+          skipLeaves[i] = segmentName != null && skipSegments.contains(segmentName);
+        }
+      } else {
+        skipLeaves = null;
+      }
       this.hasPayloads = hasPayloads;
       this.hasContexts = hasContexts;
       docCount = reader.maxDoc() - 1;
@@ -159,6 +221,15 @@ public class DocumentDictionary implements Dictionary {
         }
 
         currentDocId++;
+        if (skipLeaves != null) {
+          int leafIndex = ReaderUtil.subIndex(currentDocId, leaves);
+          if (skipLeaves[leafIndex]) {
+            // jump to the last document of the leaf
+            LeafReaderContext leaf = leaves.get(leafIndex);
+            currentDocId = leaf.docBase + leaf.reader().maxDoc() - 1;
+            continue;
+          }
+        }
         if (liveDocs != null && !liveDocs.get(currentDocId)) { 
           continue;
         }
@@ -20,6 +20,7 @@ package org.apache.lucene.search.suggest;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexReader;
@@ -101,7 +102,12 @@ public class DocumentValueSourceDictionary extends DocumentDictionary {
   
   @Override
   public InputIterator getEntryIterator() throws IOException {
-    return new DocumentValueSourceInputIterator(payloadField!=null, contextsField!=null);
+    return new DocumentValueSourceInputIterator(payloadField!=null, contextsField!=null, null);
+  }
+
+  @Override
+  public InputIterator getEntryIterator(Set<String> skipSegments) throws IOException {
+    return new DocumentValueSourceInputIterator(payloadField!=null, contextsField!=null, skipSegments);
   }
   
   final class DocumentValueSourceInputIterator extends DocumentDictionary.DocumentInputIterator {
@@ -114,9 +120,9 @@ public class DocumentValueSourceDictionary extends DocumentDictionary {
     /** current leave index */
     private int currentLeafIndex = 0;
 
-    public DocumentValueSourceInputIterator(boolean hasPayloads, boolean hasContexts)
+    public DocumentValueSourceInputIterator(boolean hasPayloads, boolean hasContexts, Set<String> skipSegments)
         throws IOException {
-      super(hasPayloads, hasContexts);
+      super(hasPayloads, hasContexts, skipSegments);
       leaves = reader.leaves();
       starts = new int[leaves.size() + 1];
       for (int i = 0; i < leaves.size(); i++) {
@@ -28,6 +28,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.AnalyzerWrapper;
@@ -73,6 +80,7 @@ import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopFieldCollector;
 import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.suggest.DocumentDictionary;
 import org.apache.lucene.search.suggest.InputIterator;
 import org.apache.lucene.search.suggest.Lookup;
 import org.apache.lucene.store.DataInput;
@@ -82,7 +90,9 @@ import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.ThreadInterruptedException;
 
 // TODO:
 //   - a PostingsFormat that stores super-high-freq terms as
@@ -148,6 +158,10 @@ public class AnalyzingInfixSuggester extends Lookup implements Closeable {
   /** Default higlighting option. */
   public static final boolean DEFAULT_HIGHLIGHT = true;
 
+  /** How many suggestions each thread indexes at once in
+   *  {@link #build(InputIterator, int)}. */
+  private static final int BUILD_BATCH_SIZE = 1000;
+
   /** How we sort the postings and search results. */
   private static final Sort SORT = new Sort(new SortField("weight", SortField.Type.LONG, true));
 
@@ -245,6 +259,17 @@ public class AnalyzingInfixSuggester extends Lookup implements Closeable {
 
   @Override
   public void build(InputIterator iter) throws IOException {
+    build(iter, 1);
+  }
+
+  /** Builds the suggester from the iterator like {@link
+   *  #build(InputIterator)}, but indexes the suggestions
+   *  with the given number of threads.  The iterator is
+   *  still consumed by the calling thread. */
+  public void build(InputIterator iter, int numThreads) throws IOException {
+    if (numThreads < 1) {
+      throw new IllegalArgumentException("numThreads must be >= 1; got: " + numThreads);
+    }
     
     if (searcherMgr != null) {
       searcherMgr.close();
@@ -264,17 +289,10 @@ public class AnalyzingInfixSuggester extends Lookup implements Closeable {
                                getIndexWriterConfig(getGramAnalyzer(), IndexWriterConfig.OpenMode.CREATE));
       //long t0 = System.nanoTime();
 
-      // TODO: use threads?
-      BytesRef text;
-      while ((text = iter.next()) != null) {
-        BytesRef payload;
-        if (iter.hasPayloads()) {
-          payload = iter.payload();
-        } else {
-          payload = null;
-        }
-
-        add(text, iter.contexts(), iter.weight(), payload);
+      if (numThreads == 1) {
+        indexAll(iter, false);
+      } else {
+        indexAll(iter, numThreads);
       }
 
       //System.out.println("initial indexing time: " + ((System.nanoTime()-t0)/1000000) + " msec");
@@ -291,6 +309,110 @@ public class AnalyzingInfixSuggester extends Lookup implements Closeable {
     }
   }
 
+  /** Updates ({@link #update}) every suggestion of the
+   *  iterator, and then refreshes, without rebuilding the
+   *  suggester.  Use this with {@link
+   *  DocumentDictionary#getEntryIterator(Set)} to apply only
+   *  the documents which were added or updated since the
+   *  suggester was built.  Suggestions are not removed
+   *  when their documents are deleted. */
+  public void update(InputIterator iter) throws IOException {
+    ensureOpen();
+    indexAll(iter, true);
+    if (commitOnBuild) {
+      commit();
+    }
+    refresh();
+  }
+
+  private void indexAll(InputIterator iter, boolean update) throws IOException {
+    BytesRef text;
+    while ((text = iter.next()) != null) {
+      BytesRef payload;
+      if (iter.hasPayloads()) {
+        payload = iter.payload();
+      } else {
+        payload = null;
+      }
+
+      if (update) {
+        update(text, iter.contexts(), iter.weight(), payload);
+      } else {
+        add(text, iter.contexts(), iter.weight(), payload);
+      }
+    }
+  }
+
+  /** Adds the suggestions in batches, each indexed by
+   *  one of the threads; the calling thread indexes a
+   *  batch itself when all threads are busy. */
+  private void indexAll(InputIterator iter, int numThreads) throws IOException {
+    ExecutorService executor = new ThreadPoolExecutor(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS,
+                                                      new ArrayBlockingQueue<Runnable>(numThreads),
+                                                      new NamedThreadFactory("AnalyzingInfixSuggester"),
+                                                      new ThreadPoolExecutor.CallerRunsPolicy());
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      List<Document> batch = new ArrayList<>(BUILD_BATCH_SIZE);
+      BytesRef text;
+      while ((text = iter.next()) != null) {
+        // The iterator may reuse its BytesRefs:
+        BytesRef payload = null;
+        if (iter.hasPayloads() && iter.payload() != null) {
+          payload = BytesRef.deepCopyOf(iter.payload());
+        }
+        Set<BytesRef> contexts = null;
+        if (iter.contexts() != null) {
+          contexts = new HashSet<>();
+          for (BytesRef context : iter.contexts()) {
+            contexts.add(BytesRef.deepCopyOf(context));
+          }
+        }
+        batch.add(buildDocument(BytesRef.deepCopyOf(text), contexts, iter.weight(), payload));
+        if (batch.size() == BUILD_BATCH_SIZE) {
+          futures.add(executor.submit(new AddDocumentsTask(writer, batch)));
+          batch = new ArrayList<>(BUILD_BATCH_SIZE);
+        }
+      }
+      if (batch.isEmpty() == false) {
+        futures.add(executor.submit(new AddDocumentsTask(writer, batch)));
+      }
+
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (InterruptedException e) {
+          throw new ThreadInterruptedException(e);
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
+          }
+          throw new RuntimeException(e);
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static final class AddDocumentsTask implements Callable<Void> {
+    private final IndexWriter writer;
+    private final List<Document> docs;
+
+    AddDocumentsTask(IndexWriter writer, List<Document> docs) {
+      this.writer = writer;
+      this.docs = docs;
+    }
+
+    @Override
+    public Void call() throws IOException {
+      for (Document doc : docs) {
+        writer.addDocument(doc);
+      }
+      return null;
+    }
+  }
+
   /** Commits all pending changes made to this suggester to disk.
    *
    *  @see IndexWriter#commit */
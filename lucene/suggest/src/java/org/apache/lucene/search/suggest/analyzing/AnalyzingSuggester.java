@@ -37,6 +37,7 @@ import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.DataOutput;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
@@ -605,6 +606,18 @@ public class AnalyzingSuggester extends Lookup implements Accountable {
     return true;
   }
 
+  /** Loads a suggester previously saved with {@link #store(DataOutput)};
+   *  if <code>offHeap</code> is true, the FST is not copied to the heap but
+   *  read directly from the input, which must then stay open while this
+   *  suggester is used. */
+  public boolean load(IndexInput input, boolean offHeap) throws IOException {
+    count = input.readVLong();
+    this.fst = new FST<>(input, new PairOutputs<>(PositiveIntOutputs.getSingleton(), ByteSequenceOutputs.getSingleton()), offHeap);
+    maxAnalyzedPathsForOneInput = input.readVInt();
+    hasPayloads = input.readByte() == 1;
+    return true;
+  }
+
   private LookupResult getLookupResult(Long output1, BytesRef output2, CharsRefBuilder spare) {
     LookupResult result;
     if (hasPayloads) {
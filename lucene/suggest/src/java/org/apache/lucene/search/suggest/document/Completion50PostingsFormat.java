@@ -35,6 +35,15 @@ public class Completion50PostingsFormat extends CompletionPostingsFormat {
     super();
   }
 
+  /**
+   * Creates a {@link Completion50PostingsFormat} which reads the
+   * suggester FSTs of the fields it writes off-heap if
+   * <code>fstOffHeap</code> is true
+   */
+  public Completion50PostingsFormat(boolean fstOffHeap) {
+    super(fstOffHeap);
+  }
+
   @Override
   protected PostingsFormat delegatePostingsFormat() {
     return PostingsFormat.forName("Lucene50");
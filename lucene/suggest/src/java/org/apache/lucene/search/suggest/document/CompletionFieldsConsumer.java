@@ -41,6 +41,7 @@ import org.apache.lucene.util.IOUtils;
 import static org.apache.lucene.search.suggest.document.CompletionPostingsFormat.CODEC_NAME;
 import static org.apache.lucene.search.suggest.document.CompletionPostingsFormat.COMPLETION_VERSION_CURRENT;
 import static org.apache.lucene.search.suggest.document.CompletionPostingsFormat.DICT_EXTENSION;
+import static org.apache.lucene.search.suggest.document.CompletionPostingsFormat.FST_OFF_HEAP_KEY;
 import static org.apache.lucene.search.suggest.document.CompletionPostingsFormat.INDEX_EXTENSION;
 
 /**
@@ -58,13 +59,15 @@ import static org.apache.lucene.search.suggest.document.CompletionPostingsFormat
 final class CompletionFieldsConsumer extends FieldsConsumer {
 
   private final String delegatePostingsFormatName;
+  private final boolean fstOffHeap;
   private final Map<String, CompletionMetaData> seenFields = new HashMap<>();
   private final SegmentWriteState state;
   private IndexOutput dictOut;
   private FieldsConsumer delegateFieldsConsumer;
 
-  CompletionFieldsConsumer(PostingsFormat delegatePostingsFormat, SegmentWriteState state) throws IOException {
+  CompletionFieldsConsumer(PostingsFormat delegatePostingsFormat, SegmentWriteState state, boolean fstOffHeap) throws IOException {
     this.delegatePostingsFormatName = delegatePostingsFormat.getName();
+    this.fstOffHeap = fstOffHeap;
     this.state = state;
     String dictFile = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, DICT_EXTENSION);
     boolean success = false;
@@ -102,6 +105,9 @@ final class CompletionFieldsConsumer extends FieldsConsumer {
             termWriter.minWeight,
             termWriter.maxWeight,
             termWriter.type));
+        if (fstOffHeap) {
+          state.fieldInfos.fieldInfo(field).putAttribute(FST_OFF_HEAP_KEY, "true");
+        }
       }
     }
   }
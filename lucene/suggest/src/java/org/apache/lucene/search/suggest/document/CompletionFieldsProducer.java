@@ -43,6 +43,7 @@ import static org.apache.lucene.search.suggest.document.CompletionPostingsFormat
 import static org.apache.lucene.search.suggest.document.CompletionPostingsFormat.COMPLETION_CODEC_VERSION;
 import static org.apache.lucene.search.suggest.document.CompletionPostingsFormat.COMPLETION_VERSION_CURRENT;
 import static org.apache.lucene.search.suggest.document.CompletionPostingsFormat.DICT_EXTENSION;
+import static org.apache.lucene.search.suggest.document.CompletionPostingsFormat.FST_OFF_HEAP_KEY;
 import static org.apache.lucene.search.suggest.document.CompletionPostingsFormat.INDEX_EXTENSION;
 
 /**
@@ -102,7 +103,8 @@ final class CompletionFieldsProducer extends FieldsProducer {
         byte type = index.readByte();
         FieldInfo fieldInfo = state.fieldInfos.fieldInfo(fieldNumber);
         // we don't load the FST yet
-        readers.put(fieldInfo.name, new CompletionsTermsReader(dictIn, offset, minWeight, maxWeight, type));
+        boolean fstOffHeap = Boolean.parseBoolean(fieldInfo.getAttribute(FST_OFF_HEAP_KEY));
+        readers.put(fieldInfo.name, new CompletionsTermsReader(dictIn, offset, minWeight, maxWeight, type, fstOffHeap));
       }
       CodecUtil.checkFooter(index);
       success = true;
@@ -23,6 +23,7 @@ import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.FieldsConsumer;
 import org.apache.lucene.codecs.FieldsProducer;
 import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.SegmentWriteState;
@@ -97,11 +98,27 @@ public abstract class CompletionPostingsFormat extends PostingsFormat {
   static final String INDEX_EXTENSION = "cmp";
   static final String DICT_EXTENSION = "lkp";
 
+  /** {@link FieldInfo} attribute key which is set to {@code true} for
+   *  suggest fields whose FST is read directly from the dictionary file */
+  static final String FST_OFF_HEAP_KEY = CompletionPostingsFormat.class.getSimpleName() + ".fstOffHeap";
+
+  private final boolean fstOffHeap;
+
   /**
    * Used only by core Lucene at read-time via Service Provider instantiation
    */
   public CompletionPostingsFormat() {
+    this(false);
+  }
+
+  /**
+   * Creates a completion postings format which records whether the
+   * suggester FSTs of the fields it writes should be read off-heap,
+   * from the completion dictionary, instead of being loaded on the heap.
+   */
+  protected CompletionPostingsFormat(boolean fstOffHeap) {
     super(CODEC_NAME);
+    this.fstOffHeap = fstOffHeap;
   }
 
   /**
@@ -116,7 +133,7 @@ public abstract class CompletionPostingsFormat extends PostingsFormat {
       throw new UnsupportedOperationException("Error - " + getClass().getName()
           + " has been constructed without a choice of PostingsFormat");
     }
-    return new CompletionFieldsConsumer(delegatePostingsFormat, state);
+    return new CompletionFieldsConsumer(delegatePostingsFormat, state, fstOffHeap);
   }
 
   @Override
@@ -39,14 +39,16 @@ public final class CompletionsTermsReader implements Accountable {
   public final byte type;
   private final IndexInput dictIn;
   private final long offset;
+  private final boolean fstOffHeap;
 
   private NRTSuggester suggester;
 
   /**
    * Creates a CompletionTermsReader to load a field-specific suggester
-   * from the index <code>dictIn</code> with <code>offset</code>
+   * from the index <code>dictIn</code> with <code>offset</code>, keeping
+   * its FST off-heap if <code>fstOffHeap</code> is true
    */
-  CompletionsTermsReader(IndexInput dictIn, long offset, long minWeight, long maxWeight, byte type) throws IOException {
+  CompletionsTermsReader(IndexInput dictIn, long offset, long minWeight, long maxWeight, byte type, boolean fstOffHeap) throws IOException {
     assert minWeight <= maxWeight;
     assert offset >= 0l && offset < dictIn.length();
     this.dictIn = dictIn;
@@ -54,6 +56,7 @@ public final class CompletionsTermsReader implements Accountable {
     this.minWeight = minWeight;
     this.maxWeight = maxWeight;
     this.type = type;
+    this.fstOffHeap = fstOffHeap;
   }
 
   /**
@@ -64,7 +67,7 @@ public final class CompletionsTermsReader implements Accountable {
     if (suggester == null) {
       try (IndexInput dictClone = dictIn.clone()) { // let multiple fields load concurrently
         dictClone.seek(offset);
-        suggester = NRTSuggester.load(dictClone);
+        suggester = NRTSuggester.load(dictClone, fstOffHeap);
       }
     }
     return suggester;
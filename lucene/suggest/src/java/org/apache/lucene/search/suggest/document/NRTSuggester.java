@@ -239,8 +239,17 @@ public final class NRTSuggester implements Accountable {
    * Loads a {@link NRTSuggester} from {@link org.apache.lucene.store.IndexInput}
    */
   public static NRTSuggester load(IndexInput input) throws IOException {
+    return load(input, false);
+  }
+
+  /**
+   * Loads a {@link NRTSuggester} from {@link org.apache.lucene.store.IndexInput};
+   * if <code>offHeap</code> is true, its FST is read from the input, which must
+   * then stay open while the suggester is used
+   */
+  public static NRTSuggester load(IndexInput input, boolean offHeap) throws IOException {
     final FST<Pair<Long, BytesRef>> fst = new FST<>(input, new PairOutputs<>(
-        PositiveIntOutputs.getSingleton(), ByteSequenceOutputs.getSingleton()));
+        PositiveIntOutputs.getSingleton(), ByteSequenceOutputs.getSingleton()), offHeap);
 
     /* read some meta info */
     int maxAnalyzedPathsPerOutput = input.readVInt();
@@ -33,6 +33,7 @@ import org.apache.lucene.store.ByteArrayDataOutput;
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.DataOutput;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
 import org.apache.lucene.util.ArrayUtil;
@@ -153,6 +154,16 @@ public class WFSTCompletionLookup extends Lookup implements Accountable {
     return true;
   }
 
+  /** Loads a lookup previously saved with {@link #store(DataOutput)};
+   *  if <code>offHeap</code> is true, the FST is not copied to the heap but
+   *  read directly from the input, which must then stay open while this
+   *  lookup is used. */
+  public boolean load(IndexInput input, boolean offHeap) throws IOException {
+    count = input.readVLong();
+    this.fst = new FST<>(input, PositiveIntOutputs.getSingleton(), offHeap);
+    return true;
+  }
+
   @Override
   public List<LookupResult> lookup(CharSequence key, Set<BytesRef> contexts, boolean onlyMorePopular, int num) {
     if (contexts != null) {
@@ -17,11 +17,14 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.spell.Dictionary;
@@ -313,6 +316,66 @@ public class DocumentDictionaryTest extends LuceneTestCase {
     IOUtils.close(ir, analyzer, dir);
   }
 
+  @Test
+  public void testSkipSegments() throws IOException {
+    Directory dir = newDirectory();
+    Analyzer analyzer = new MockAnalyzer(random());
+    IndexWriterConfig iwc = newIndexWriterConfig(random(), analyzer);
+    iwc.setMergePolicy(NoMergePolicy.INSTANCE);
+    IndexWriter writer = new IndexWriter(dir, iwc);
+
+    int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", "old_" + i, Field.Store.NO));
+      doc.add(new TextField(FIELD_NAME, "old_" + i, Field.Store.YES));
+      writer.addDocument(doc);
+    }
+    writer.commit();
+    IndexReader oldReader = DirectoryReader.open(dir);
+    Set<String> oldSegments = new DocumentDictionary(oldReader, FIELD_NAME, null).getSegmentNames();
+    assertFalse(oldSegments.isEmpty());
+
+    Set<String> newTerms = new HashSet<>();
+    int numNewDocs = atLeast(10);
+    for (int i = 0; i < numNewDocs; i++) {
+      Document doc = new Document();
+      doc.add(new TextField(FIELD_NAME, "new_" + i, Field.Store.YES));
+      writer.addDocument(doc);
+      newTerms.add("new_" + i);
+    }
+    // an update re-adds the document to a new segment
+    Document doc = new Document();
+    doc.add(new StringField("id", "old_0", Field.Store.NO));
+    doc.add(new TextField(FIELD_NAME, "old_0", Field.Store.YES));
+    writer.updateDocument(new Term("id", "old_0"), doc);
+    newTerms.add("old_0");
+    writer.commit();
+    writer.close();
+
+    IndexReader ir = DirectoryReader.open(dir);
+    DocumentDictionary dictionary = new DocumentDictionary(ir, FIELD_NAME, null);
+    assertTrue(dictionary.getSegmentNames().containsAll(oldSegments));
+
+    InputIterator inputIterator = dictionary.getEntryIterator(oldSegments);
+    Set<String> terms = new HashSet<>();
+    BytesRef f;
+    while((f = inputIterator.next())!=null) {
+      assertTrue(terms.add(f.utf8ToString()));
+    }
+    assertEquals(newTerms, terms);
+
+    // without segments to skip, all documents are returned
+    inputIterator = dictionary.getEntryIterator(new HashSet<String>());
+    int count = 0;
+    while(inputIterator.next() != null) {
+      count++;
+    }
+    assertEquals(numDocs + numNewDocs, count);
+
+    IOUtils.close(oldReader, ir, analyzer, dir);
+  }
+
   /** Returns Pair(list of invalid document terms, Map of document term -&gt; document) */
   private Map.Entry<List<String>, Map<String, Document>> generateIndexDocuments(int ndocs, boolean requiresContexts) {
     Map<String, Document> docs = new HashMap<>();
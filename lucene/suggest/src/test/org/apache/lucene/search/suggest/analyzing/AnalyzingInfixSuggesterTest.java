@@ -122,6 +122,43 @@ public class AnalyzingInfixSuggesterTest extends LuceneTestCase {
     a.close();
   }
 
+  public void testBuildWithThreadsAndUpdate() throws Exception {
+    int numKeys = atLeast(3000);
+    Input keys[] = new Input[numKeys];
+    for (int i = 0; i < numKeys; i++) {
+      keys[i] = new Input("key " + i, i, new BytesRef("payload" + i));
+    }
+
+    Analyzer a = new MockAnalyzer(random(), MockTokenizer.WHITESPACE, false);
+    AnalyzingInfixSuggester suggester = new AnalyzingInfixSuggester(newDirectory(), a, a, 3, false);
+    suggester.build(new InputArrayIterator(keys), TestUtil.nextInt(random(), 2, 4));
+    assertEquals(numKeys, suggester.getCount());
+
+    List<LookupResult> results = suggester.lookup(TestUtil.stringToCharSequence("key", random()), 2, true, false);
+    assertEquals(2, results.size());
+    assertEquals("key " + (numKeys - 1), results.get(0).key);
+    assertEquals(numKeys - 1, results.get(0).value);
+    assertEquals(new BytesRef("payload" + (numKeys - 1)), results.get(0).payload);
+
+    // apply one changed and one new suggestion without a rebuild
+    suggester.update(new InputArrayIterator(new Input[] {
+        new Input("key 0", numKeys, new BytesRef("changed")),
+        new Input("new key", numKeys + 1, new BytesRef("new")),
+    }));
+    assertEquals(numKeys + 1, suggester.getCount());
+
+    results = suggester.lookup(TestUtil.stringToCharSequence("key", random()), 2, true, false);
+    assertEquals(2, results.size());
+    assertEquals("new key", results.get(0).key);
+    assertEquals(new BytesRef("new"), results.get(0).payload);
+    assertEquals("key 0", results.get(1).key);
+    assertEquals(numKeys, results.get(1).value);
+    assertEquals(new BytesRef("changed"), results.get(1).payload);
+
+    suggester.close();
+    a.close();
+  }
+
   private void testConstructorDefaults(AnalyzingInfixSuggester suggester, Input[] keys, Analyzer a, 
       boolean allTermsRequired, boolean highlight) throws IOException {
     AnalyzingInfixSuggester suggester2 = new AnalyzingInfixSuggester(newDirectory(), a, a, 3, false, allTermsRequired, highlight);
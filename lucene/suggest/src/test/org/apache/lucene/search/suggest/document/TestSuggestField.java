@@ -39,6 +39,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.StoredField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LeafReaderContext;
@@ -421,6 +422,47 @@ public class TestSuggestField extends LuceneTestCase {
     iw.close();
   }
 
+  @Test
+  public void testOffHeapFST() throws Exception {
+    Analyzer analyzer = new MockAnalyzer(random());
+    IndexWriterConfig iwc = iwcWithSuggestField(analyzer, "suggest_field");
+    iwc.setCodec(new Lucene60Codec() {
+      PostingsFormat postingsFormat = new Completion50PostingsFormat(true);
+
+      @Override
+      public PostingsFormat getPostingsFormatForField(String field) {
+        if ("suggest_field".equals(field)) {
+          return postingsFormat;
+        }
+        return super.getPostingsFormatForField(field);
+      }
+    });
+    RandomIndexWriter iw = new RandomIndexWriter(random(), dir, iwc);
+    int num = Math.min(1000, atLeast(10));
+    Entry[] entries = new Entry[num];
+    for (int i = 0; i < num; i++) {
+      Document document = new Document();
+      document.add(new SuggestField("suggest_field", "abc_" + i, num - i));
+      entries[i] = new Entry("abc_" + i, num - i);
+      iw.addDocument(document);
+      if (usually()) {
+        iw.commit();
+      }
+    }
+    DirectoryReader reader = iw.getReader();
+    for (LeafReaderContext context : reader.leaves()) {
+      FieldInfo fieldInfo = context.reader().getFieldInfos().fieldInfo("suggest_field");
+      assertEquals("true", fieldInfo.getAttribute(CompletionPostingsFormat.FST_OFF_HEAP_KEY));
+    }
+    SuggestIndexSearcher indexSearcher = new SuggestIndexSearcher(reader);
+    PrefixCompletionQuery query = new PrefixCompletionQuery(analyzer, new Term("suggest_field", "abc_"));
+    TopSuggestDocs suggest = indexSearcher.suggest(query, num);
+    assertSuggestions(suggest, entries);
+
+    reader.close();
+    iw.close();
+  }
+
 
   @Test
   public void testReturnedDocID() throws Exception {
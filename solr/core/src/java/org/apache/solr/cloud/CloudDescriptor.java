@@ -23,6 +23,7 @@ import java.util.Properties;
 
 import com.google.common.base.Strings;
 import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.core.CoreDescriptor;
 import org.apache.solr.util.PropertiesUtil;
 
@@ -34,6 +35,7 @@ public class CloudDescriptor {
   private String roles = null;
   private Integer numShards;
   private String nodeName = null;
+  private final boolean pullReplica;
   private Map<String, String> collectionParams = new HashMap<>();
 
   private volatile boolean isLeader = false;
@@ -57,6 +59,7 @@ public class CloudDescriptor {
     if (Strings.isNullOrEmpty(nodeName))
       this.nodeName = null;
     this.numShards = PropertiesUtil.toInteger(props.getProperty(CloudDescriptor.NUM_SHARDS), null);
+    this.pullReplica = Boolean.parseBoolean(props.getProperty(ZkStateReader.PULL_REPLICA_PROP));
 
     for (String propName : props.stringPropertyNames()) {
       if (propName.startsWith(ZkController.COLLECTION_PARAM_PREFIX)) {
@@ -105,6 +108,15 @@ public class CloudDescriptor {
     this.collectionName = collectionName;
   }
 
+  /**
+   * A pull replica never becomes leader and is not sent updates; it periodically copies the leader's
+   * latest commit instead (see {@link ReplicateFromLeader}). Set with the core property
+   * {@value ZkStateReader#PULL_REPLICA_PROP}, e.g. <code>property.pullReplica=true</code> on ADDREPLICA.
+   */
+  public boolean isPullReplica() {
+    return pullReplica;
+  }
+
   public String getRoles(){
     return roles;
   }
@@ -576,7 +576,7 @@ final class ShardLeaderElectionContext extends ShardLeaderElectionContextBase {
         }
         
         // on startup and after connection timeout, wait for all known shards
-        if (found >= slices.getReplicasMap().size()) {
+        if (found >= countElectionCandidates(slices)) {
           log.info("Enough replicas found to continue.");
           return true;
         } else {
@@ -584,7 +584,7 @@ final class ShardLeaderElectionContext extends ShardLeaderElectionContextBase {
             log.info("Waiting until we see more replicas up for shard {}: total={}"
               + " found={}"
               + " timeoutin={}ms",
-                shardId, slices.getReplicasMap().size(), found,
+                shardId, countElectionCandidates(slices), found,
                 TimeUnit.MILLISECONDS.convert(timeoutAt - System.nanoTime(), TimeUnit.NANOSECONDS));
           }
         }
@@ -607,6 +607,17 @@ final class ShardLeaderElectionContext extends ShardLeaderElectionContextBase {
     return false;
   }
   
+  // pull replicas never join the election, so they are not waited for
+  private static int countElectionCandidates(Slice slice) {
+    int count = 0;
+    for (Replica replica : slice.getReplicas()) {
+      if (!replica.getBool(ZkStateReader.PULL_REPLICA_PROP, false)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
   // returns true if all replicas are found to be up, false if not
   private boolean areAllReplicasParticipating() throws InterruptedException {
     final String shardsElectZkPath = electionPath + LeaderElector.ELECTION_NODE;
@@ -626,7 +637,7 @@ final class ShardLeaderElectionContext extends ShardLeaderElectionContextBase {
         SolrException.log(log, "Error checking for the number of election participants", e);
       }
       
-      if (found >= slices.getReplicasMap().size()) {
+      if (found >= countElectionCandidates(slices)) {
         log.info("All replicas are ready to participate in election.");
         return true;
       }
@@ -0,0 +1,119 @@
+package org.apache.solr.cloud;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.cloud.ZkCoreNodeProps;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.core.CoreContainer;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.handler.ReplicationHandler;
+import org.apache.solr.request.SolrRequestHandler;
+import org.apache.solr.util.DefaultSolrThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a pull replica (see {@link CloudDescriptor#isPullReplica()}) up to date by polling the shard
+ * leader's latest commit through the {@link ReplicationHandler}, the same way recovery replicates,
+ * instead of indexing every update a second time. The replica is published as active once its first
+ * fetch succeeds.
+ * <p>
+ * Only hard commits on the leader are replicated, so the replica lags by up to the leader's
+ * autoCommit interval plus the poll interval.
+ */
+public class ReplicateFromLeader {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final int POLL_INTERVAL_MS = Integer.getInteger("solr.cloud.pull-replica-poll-interval", 3000);
+
+  private static final String REPLICATION_HANDLER = "/replication";
+
+  private final CoreContainer cc;
+  private final String coreName;
+  private final ExecutorService executor;
+  private final CountDownLatch stopped = new CountDownLatch(1);
+
+  public ReplicateFromLeader(CoreContainer cc, String coreName) {
+    this.cc = cc;
+    this.coreName = coreName;
+    this.executor = ExecutorUtil.newMDCAwareSingleThreadExecutor(
+        new DefaultSolrThreadFactory("replicateFromLeader"));
+  }
+
+  public void start() {
+    LOG.info("Will replicate core [{}] from its leader every {} ms", coreName, POLL_INTERVAL_MS);
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          do {
+            fetchFromLeader();
+          } while (!stopped.await(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+  }
+
+  /** Stops polling, and waits for a fetch that is already running to finish. */
+  public void stop() {
+    stopped.countDown();
+    ExecutorUtil.shutdownAndAwaitTermination(executor);
+  }
+
+  private void fetchFromLeader() {
+    try (SolrCore core = cc.getCore(coreName)) {
+      if (core == null || core.isClosed()) {
+        return;
+      }
+      CloudDescriptor cloudDesc = core.getCoreDescriptor().getCloudDescriptor();
+      ZkController zkController = cc.getZkController();
+      Replica leader = zkController.getZkStateReader().getLeaderRetry(
+          cloudDesc.getCollectionName(), cloudDesc.getShardId());
+      String leaderUrl = new ZkCoreNodeProps(leader).getCoreUrl();
+
+      SolrRequestHandler handler = core.getRequestHandler(REPLICATION_HANDLER);
+      if (!(handler instanceof ReplicationHandler)) {
+        LOG.error("Cannot replicate core [{}] from its leader, no {} handler found", coreName, REPLICATION_HANDLER);
+        return;
+      }
+
+      ModifiableSolrParams solrParams = new ModifiableSolrParams();
+      solrParams.set(ReplicationHandler.MASTER_URL, leaderUrl);
+      boolean success = ((ReplicationHandler) handler).doFetch(solrParams, false);
+
+      if (success && cloudDesc.getLastPublished() != Replica.State.ACTIVE) {
+        zkController.publish(core.getCoreDescriptor(), Replica.State.ACTIVE);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      // keep polling, the next attempt may find a (new) leader
+      LOG.error("Could not replicate core [{}] from its leader", coreName, e);
+    }
+  }
+}
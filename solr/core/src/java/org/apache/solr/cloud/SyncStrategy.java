@@ -168,7 +168,10 @@ public class SyncStrategy {
     
     List<String> syncWith = new ArrayList<>(nodes.size());
     for (ZkCoreNodeProps node : nodes) {
-      syncWith.add(node.getCoreUrl());
+      // pull replicas have no tlog to sync with
+      if (!node.isPullReplica()) {
+        syncWith.add(node.getCoreUrl());
+      }
     }
     
     // if we can't reach a replica for sync, we still consider the overall sync a success
@@ -194,6 +197,9 @@ public class SyncStrategy {
 
     ZkCoreNodeProps zkLeader = new ZkCoreNodeProps(leaderProps);
     for (ZkCoreNodeProps node : nodes) {
+      if (node.isPullReplica()) {
+        continue;
+      }
       try {
         log.info(ZkCoreNodeProps.getCoreUrl(leaderProps) + ": try and ask " + node.getCoreUrl() + " to sync");
         
@@ -144,6 +144,9 @@ public final class ZkController {
 
   private final Map<ContextKey, ElectionContext> electionContexts = Collections.synchronizedMap(new HashMap<>());
 
+  // pull replicas by core name
+  private final Map<String, ReplicateFromLeader> replicateFromLeaders = Collections.synchronizedMap(new HashMap<>());
+
   private final SolrZkClient zkClient;
   private final ZkCmdExecutor cmdExecutor;
   private final ZkStateReader zkStateReader;
@@ -495,6 +498,12 @@ public final class ZkController {
    */
   public void close() {
     this.isClosed = true;
+    synchronized (replicateFromLeaders) {
+      for (ReplicateFromLeader replicateFromLeader : replicateFromLeaders.values()) {
+        replicateFromLeader.stop();
+      }
+      replicateFromLeaders.clear();
+    }
     try {
       for (ElectionContext context : electionContexts.values()) {
         try {
@@ -882,6 +891,15 @@ public final class ZkController {
       
       ZkNodeProps leaderProps = new ZkNodeProps(props);
       
+      if (cloudDesc.isPullReplica()) {
+        // pull replicas never become leader and are not sent updates, so there is no election
+        // to join and no tlog to replay; they go active once the first copy from the leader is done
+        startReplicationFromLeader(coreName);
+        cloudDesc.setHasRegistered(true);
+        zkStateReader.updateClusterState();
+        return shardId;
+      }
+      
       try {
         // If we're a preferred leader, insert ourselves at the head of the queue
         boolean joinAtHead = false;
@@ -952,6 +970,22 @@ public final class ZkController {
     }
   }
 
+  private void startReplicationFromLeader(String coreName) {
+    ReplicateFromLeader replicateFromLeader = new ReplicateFromLeader(cc, coreName);
+    ReplicateFromLeader previous = replicateFromLeaders.put(coreName, replicateFromLeader);
+    if (previous != null) {
+      previous.stop();
+    }
+    replicateFromLeader.start();
+  }
+
+  private void stopReplicationFromLeader(String coreName) {
+    ReplicateFromLeader replicateFromLeader = replicateFromLeaders.remove(coreName);
+    if (replicateFromLeader != null) {
+      replicateFromLeader.stop();
+    }
+  }
+
   // timeoutms is the timeout for the first call to get the leader - there is then
   // a longer wait to make sure that leader matches our local state
   private String getLeader(final CloudDescriptor cloudDesc, int timeoutms) {
@@ -1203,6 +1237,9 @@ public final class ZkController {
       if (coreNodeName != null) {
         props.put(ZkStateReader.CORE_NODE_NAME_PROP, coreNodeName);
       }
+      if (cd.getCloudDescriptor().isPullReplica()) {
+        props.put(ZkStateReader.PULL_REPLICA_PROP, "true");
+      }
       
       if (ClusterStateUtil.isAutoAddReplicas(getZkStateReader(), collection)) {
         try (SolrCore core = cc.getCore(cd.getName())) {
@@ -1256,6 +1293,7 @@ public final class ZkController {
     if (context != null) {
       context.cancelElection();
     }
+    stopReplicationFromLeader(coreName);
     
     final Collection<SolrCore> cores = cc.getCores();
     
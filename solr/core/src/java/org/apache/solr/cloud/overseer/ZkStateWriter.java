@@ -18,6 +18,7 @@ package org.apache.solr.cloud.overseer;
  */
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -57,6 +58,12 @@ public class ZkStateWriter {
   private static final long MAX_FLUSH_INTERVAL = TimeUnit.NANOSECONDS.convert(Overseer.STATE_UPDATE_DELAY, TimeUnit.MILLISECONDS);
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  /**
+   * Maximum number of stateFormat=2 collections whose updates are buffered together before a flush.
+   * Each of them has its own state.json, so updates to different collections need not be written separately.
+   */
+  static final int MAX_BATCHED_COLLECTIONS = 100;
+
   /**
    * Represents a no-op {@link ZkWriteCommand} which will result in no modification to cluster state
    */
@@ -65,14 +72,14 @@ public class ZkStateWriter {
   protected final ZkStateReader reader;
   protected final Overseer.Stats stats;
 
-  protected Map<String, DocCollection> updates = new HashMap<>();
+  // keeps the order in which the collections were first updated, so they are written in message order
+  protected Map<String, DocCollection> updates = new LinkedHashMap<>();
   protected ClusterState clusterState = null;
   protected boolean isClusterStateModified = false;
   protected long lastUpdatedTime = 0;
 
   // state information which helps us batch writes
   protected int lastStateFormat = -1; // sentinel value
-  protected String lastCollectionName = null;
 
   /**
    * Set to true if we ever get a BadVersionException so that we can disallow future operations
@@ -178,7 +185,10 @@ public class ZkStateWriter {
     if (cmd.collection.getStateFormat() != lastStateFormat) {
       return true;
     }
-    return cmd.collection.getStateFormat() > 1 && !cmd.name.equals(lastCollectionName);
+    // updates for interleaved collections are batched, which lets a backlog of messages for many
+    // collections (e.g. on a rolling restart) drain with one write per collection instead of per message
+    return cmd.collection.getStateFormat() > 1
+        && updates.size() >= MAX_BATCHED_COLLECTIONS && !updates.containsKey(cmd.name);
   }
 
   /**
@@ -190,7 +200,6 @@ public class ZkStateWriter {
   protected boolean maybeFlushAfter(ZkWriteCommand cmd) {
     if (cmd.collection == null)
       return false;
-    lastCollectionName = cmd.name;
     lastStateFormat = cmd.collection.getStateFormat();
     return System.nanoTime() - lastUpdatedTime > MAX_FLUSH_INTERVAL;
   }
@@ -38,6 +38,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -46,11 +47,15 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.Adler32;
 import java.util.zip.Checksum;
 import java.util.zip.InflaterInputStream;
@@ -111,11 +116,13 @@ import static org.apache.solr.handler.ReplicationHandler.COMPRESSION;
 import static org.apache.solr.handler.ReplicationHandler.CONF_FILES;
 import static org.apache.solr.handler.ReplicationHandler.CONF_FILE_SHORT;
 import static org.apache.solr.handler.ReplicationHandler.EXTERNAL;
+import static org.apache.solr.handler.ReplicationHandler.FETCH_THREADS;
 import static org.apache.solr.handler.ReplicationHandler.FILE;
 import static org.apache.solr.handler.ReplicationHandler.FILE_STREAM;
 import static org.apache.solr.handler.ReplicationHandler.GENERATION;
 import static org.apache.solr.handler.ReplicationHandler.INTERNAL;
 import static org.apache.solr.handler.ReplicationHandler.MASTER_URL;
+import static org.apache.solr.handler.ReplicationHandler.MAX_WRITE_PER_SECOND;
 import static org.apache.solr.handler.ReplicationHandler.OFFSET;
 import static org.apache.solr.handler.ReplicationHandler.SIZE;
 import static org.apache.solr.handler.ReplicationHandler.TLOG_FILE;
@@ -160,6 +167,10 @@ public class IndexFetcher {
 
   private volatile DirectoryFileFetcher dirFileFetcher;
 
+  // the fetchers of index files that are being downloaded concurrently
+  private final Set<DirectoryFileFetcher> concurrentFileFetchers =
+      Collections.newSetFromMap(new ConcurrentHashMap<DirectoryFileFetcher,Boolean>());
+
   private volatile LocalFsFileFetcher localFileFetcher;
 
   private volatile ExecutorService fsyncService;
@@ -172,6 +183,12 @@ public class IndexFetcher {
 
   private final HttpClient myHttpClient;
 
+  // number of index files downloaded concurrently, each over its own stream
+  private final int fetchThreads;
+
+  // overall bandwidth cap, split evenly across concurrent index file streams; null if unlimited
+  private final Double maxWriteMBPerSec;
+
   private static HttpClient createHttpClient(SolrCore core, String connTimeout, String readTimeout, String httpBasicAuthUser, String httpBasicAuthPassword, boolean useCompression) {
     final ModifiableSolrParams httpClientParams = new ModifiableSolrParams();
     httpClientParams.set(HttpClientUtil.PROP_CONNECTION_TIMEOUT, connTimeout != null ? connTimeout : "5000");
@@ -204,6 +221,14 @@ public class IndexFetcher {
     String httpBasicAuthUser = (String) initArgs.get(HttpClientUtil.PROP_BASIC_AUTH_USER);
     String httpBasicAuthPassword = (String) initArgs.get(HttpClientUtil.PROP_BASIC_AUTH_PASS);
     myHttpClient = createHttpClient(solrCore, connTimeout, readTimeout, httpBasicAuthUser, httpBasicAuthPassword, useExternalCompression);
+    Object fetchThreads = initArgs.get(FETCH_THREADS);
+    this.fetchThreads = fetchThreads == null ? 1 : Integer.parseInt(fetchThreads.toString());
+    if (this.fetchThreads < 1) {
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,
+          "'" + FETCH_THREADS + "' must be at least 1, got " + this.fetchThreads);
+    }
+    Object maxWriteMBPerSec = initArgs.get(MAX_WRITE_PER_SECOND);
+    this.maxWriteMBPerSec = maxWriteMBPerSec == null ? null : Double.parseDouble(maxWriteMBPerSec.toString());
   }
 
   /**
@@ -712,7 +737,10 @@ public class IndexFetcher {
     }
 
     //get size from current file being downloaded
-    Map<String, Object> currentFile = getCurrentFile();
+    for (DirectoryFileFetcher fetcher : concurrentFileFetchers) {
+      bytesDownloaded += fetcher.getBytesDownloaded();
+    }
+    Map<String, Object> currentFile = concurrentFileFetchers.isEmpty() ? getCurrentFile() : null;
     if (currentFile != null) {
       if (currentFile.containsKey("bytesDownloaded")) {
         bytesDownloaded += (Long) currentFile.get("bytesDownloaded");
@@ -856,25 +884,106 @@ public class IndexFetcher {
       LOG.debug("Download files to dir: " + Arrays.asList(indexDir.listAll()));
     }
     long bytesDownloaded = 0;
+    List<Map<String,Object>> changedFiles = new ArrayList<>();
     for (Map<String,Object> file : filesToDownload) {
       String filename = (String) file.get(NAME);
       long size = (Long) file.get(SIZE);
       CompareResult compareResult = compareFile(indexDir, filename, size, (Long) file.get(CHECKSUM));
       if (!compareResult.equal || downloadCompleteIndex
           || filesToAlwaysDownloadIfNoChecksums(filename, size, compareResult)) {
-        dirFileFetcher = new DirectoryFileFetcher(tmpIndexDir, file,
-            (String) file.get(NAME), FILE, latestGeneration);
-        currentFile = file;
-        dirFileFetcher.fetchFile();
-        bytesDownloaded += dirFileFetcher.getBytesDownloaded();
-        filesDownloaded.add(new HashMap<>(file));
+        changedFiles.add(file);
       } else {
         LOG.info("Skipping download for " + file.get(NAME)
             + " because it already exists");
       }
     }
+    if (fetchThreads > 1 && changedFiles.size() > 1) {
+      return downloadIndexFilesConcurrently(changedFiles, tmpIndexDir, latestGeneration);
+    }
+    for (Map<String,Object> file : changedFiles) {
+      bytesDownloaded += downloadIndexFile(file, tmpIndexDir, latestGeneration);
+    }
     return bytesDownloaded;
   }
+
+  private long downloadIndexFile(Map<String,Object> file, Directory tmpIndexDir, long latestGeneration) throws Exception {
+    DirectoryFileFetcher fetcher = new DirectoryFileFetcher(tmpIndexDir, file,
+        (String) file.get(NAME), FILE, latestGeneration);
+    dirFileFetcher = fetcher;
+    currentFile = file;
+    fetcher.fetchFile();
+    filesDownloaded.add(new HashMap<>(file));
+    return fetcher.getBytesDownloaded();
+  }
+
+  /** Downloads an index file as one of {@code streams} concurrent downloads. */
+  private long downloadIndexFileConcurrently(Map<String,Object> file, Directory tmpIndexDir, long latestGeneration,
+                                             int streams) throws Exception {
+    DirectoryFileFetcher fetcher = new DirectoryFileFetcher(tmpIndexDir, file,
+        (String) file.get(NAME), FILE, latestGeneration);
+    fetcher.setStreams(streams);
+    concurrentFileFetchers.add(fetcher);
+    try {
+      fetcher.fetchFile();
+    } finally {
+      concurrentFileFetchers.remove(fetcher);
+    }
+    filesDownloaded.add(new HashMap<>(file));
+    return fetcher.getBytesDownloaded();
+  }
+
+  /**
+   * Downloads the given files over up to {@link #fetchThreads} streams at once, largest files first so
+   * that a big segment does not end up being fetched alone at the end. The first failure aborts the
+   * remaining downloads.
+   */
+  private long downloadIndexFilesConcurrently(List<Map<String,Object>> files, final Directory tmpIndexDir,
+                                              final long latestGeneration) throws Exception {
+    Collections.sort(files, new Comparator<Map<String,Object>>() {
+      @Override
+      public int compare(Map<String,Object> f1, Map<String,Object> f2) {
+        return Long.compare((Long) f2.get(SIZE), (Long) f1.get(SIZE));
+      }
+    });
+    final int streams = Math.min(fetchThreads, files.size());
+    ExecutorService executor = ExecutorUtil.newMDCAwareFixedThreadPool(streams,
+        new DefaultSolrThreadFactory("indexFetcher"));
+    final AtomicReference<Exception> firstFailure = new AtomicReference<>();
+    try {
+      ExecutorCompletionService<Long> downloads = new ExecutorCompletionService<>(executor);
+      for (final Map<String,Object> file : files) {
+        downloads.submit(new Callable<Long>() {
+          @Override
+          public Long call() throws Exception {
+            try {
+              return downloadIndexFileConcurrently(file, tmpIndexDir, latestGeneration, streams);
+            } catch (Exception e) {
+              // stop the other streams right away, the index can't be installed without this file
+              firstFailure.compareAndSet(null, e);
+              stop = true;
+              throw e;
+            }
+          }
+        });
+      }
+      long bytesDownloaded = 0;
+      for (int i = 0; i < files.size(); i++) {
+        try {
+          bytesDownloaded += downloads.take().get();
+        } catch (ExecutionException e) {
+          // report the failure that caused the others to abort
+          Exception failure = firstFailure.get();
+          if (failure != null) throw failure;
+          Throwable cause = e.getCause();
+          if (cause instanceof Exception) throw (Exception) cause;
+          throw e;
+        }
+      }
+      return bytesDownloaded;
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+  }
   
   private boolean filesToAlwaysDownloadIfNoChecksums(String filename,
       long size, CompareResult compareResult) {
@@ -1372,6 +1481,12 @@ public class IndexFetcher {
   Map<String, Object> getCurrentFile() {
     Map<String, Object> tmp = currentFile;
     DirectoryFileFetcher tmpFileFetcher = dirFileFetcher;
+    for (DirectoryFileFetcher fetcher : concurrentFileFetchers) {
+      // with concurrent downloads, report one of the files in progress
+      tmp = fetcher.fileDetails;
+      tmpFileFetcher = fetcher;
+      break;
+    }
     if (tmp == null)
       return null;
     tmp = new HashMap<>(tmp);
@@ -1412,10 +1527,14 @@ public class IndexFetcher {
     private Checksum checksum;
     private int errorCount = 0;
     private boolean aborted = false;
+    // number of files downloaded at the same time as this one, which share the bandwidth cap
+    private int streams = 1;
+    final Map<String, Object> fileDetails;
 
     FileFetcher(FileInterface file, Map<String, Object> fileDetails, String saveAs,
                 String solrParamOutput, long latestGen) throws IOException {
       this.file = file;
+      this.fileDetails = fileDetails;
       this.fileName = (String) fileDetails.get(NAME);
       this.size = (Long) fileDetails.get(SIZE);
       this.solrParamOutput = solrParamOutput;
@@ -1429,6 +1548,10 @@ public class IndexFetcher {
       return bytesDownloaded;
     }
 
+    void setStreams(int streams) {
+      this.streams = streams;
+    }
+
     /**
      * The main method which downloads file
      */
@@ -1471,7 +1594,7 @@ public class IndexFetcher {
       try {
         while (true) {
           if (stop) {
-            stop = false;
+            // stop is reset once the whole fetch is cleaned up, so that concurrent fetchers all see it
             aborted = true;
             throw new ReplicationHandlerException("User aborted replication");
           }
@@ -1603,6 +1726,9 @@ public class IndexFetcher {
       if (bytesDownloaded > 0) {
         params.set(OFFSET, Long.toString(bytesDownloaded));
       }
+      if (maxWriteMBPerSec != null) {
+        params.set(MAX_WRITE_PER_SECOND, Double.toString(maxWriteMBPerSec / streams));
+      }
 
 
       NamedList response;
@@ -1659,6 +1659,8 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
 
   public static final String MAX_WRITE_PER_SECOND = "maxWriteMBPerSec";
 
+  public static final String FETCH_THREADS = "fetchThreads";
+
   public static final String CONF_FILE_SHORT = "cf";
 
   public static final String TLOG_FILE = "tlogFile";
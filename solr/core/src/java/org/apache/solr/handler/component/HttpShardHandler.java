@@ -199,7 +199,7 @@ public class HttpShardHandler extends ShardHandler {
               ssr.nl = client.request(req);
             }
           } else {
-            LBHttpSolrClient.Rsp rsp = httpShardHandlerFactory.makeLoadBalancedRequest(req, urls);
+            LBHttpSolrClient.Rsp rsp = httpShardHandlerFactory.makeHedgedRequest(req, urls);
             ssr.nl = rsp.getResponse();
             srsp.setShardAddress(rsp.getServer());
           }
@@ -24,6 +24,7 @@ import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.HttpClientConfigurer;
 import org.apache.solr.client.solrj.impl.HttpClientUtil;
 import org.apache.solr.client.solrj.impl.LBHttpSolrClient;
+import org.apache.solr.client.solrj.impl.ReplicaSelector;
 import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.util.ExecutorUtil;
@@ -38,13 +39,18 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -68,6 +74,16 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
       new DefaultSolrThreadFactory("httpShardExecutor")
   );
 
+  // Runs both requests of a hedged shard request. This is separate from commExecutor because hedged
+  // requests are made from commExecutor tasks, which must not wait on tasks queued behind them.
+  private ThreadPoolExecutor hedgeExecutor = new ExecutorUtil.MDCAwareThreadPoolExecutor(
+      0,
+      Integer.MAX_VALUE,
+      5, TimeUnit.SECONDS, // terminate idle threads after 5 sec
+      new SynchronousQueue<Runnable>(),  // directly hand off tasks
+      new DefaultSolrThreadFactory("httpShardHedgeExecutor")
+  );
+
   protected HttpClient defaultClient;
   private LBHttpSolrClient loadbalancer;
   //default values:
@@ -81,11 +97,15 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
   int queueSize = -1;
   boolean accessPolicy = false;
   boolean useRetries = false;
+  int hedgeDelay = 0;
 
   private String scheme = null;
 
   private final Random r = new Random();
 
+  // shares r so that replica choice stays reproducible in tests
+  private final ReplicaSelector replicaSelector = new ReplicaSelector(r);
+
   // URL scheme to be used in distributed search.
   static final String INIT_URL_SCHEME = "urlScheme";
 
@@ -108,6 +128,10 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
   // due to connection pooling limitations / races
   static final String USE_RETRIES = "useRetries";
 
+  // If a shard request to one replica has not completed after this many milliseconds, the same
+  // request is also sent to another replica and the first successful response is used (0 to disable)
+  static final String INIT_HEDGE_DELAY = "hedgeDelay";
+
   /**
    * Get {@link ShardHandler} that uses the default http client.
    */
@@ -142,6 +166,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
     this.queueSize = getParameter(args, INIT_SIZE_OF_QUEUE, queueSize,sb);
     this.accessPolicy = getParameter(args, INIT_FAIRNESS_POLICY, accessPolicy,sb);
     this.useRetries = getParameter(args, USE_RETRIES, useRetries,sb);
+    this.hedgeDelay = getParameter(args, INIT_HEDGE_DELAY, hedgeDelay,sb);
     log.info("created with {}",sb);
     
     // magic sysprop to make tests reproducible: set by SolrTestCaseJ4.
@@ -174,6 +199,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
     }
     
     this.loadbalancer = createLoadbalancer(defaultClient);
+    this.loadbalancer.setReplicaSelector(replicaSelector);
   }
   
   protected ModifiableSolrParams getClientParams() {
@@ -221,6 +247,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
   public void close() {
     try {
       ExecutorUtil.shutdownAndAwaitTermination(commExecutor);
+      ExecutorUtil.shutdownAndAwaitTermination(hedgeExecutor);
     } finally {
       try {
         if (defaultClient != null) {
@@ -247,6 +274,88 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
     return loadbalancer.request(new LBHttpSolrClient.Req(req, urls));
   }
 
+  /**
+   * Makes a request to one or more of the given urls like {@link #makeLoadBalancedRequest}, but if
+   * there is no response after the configured hedge delay, the request is also sent starting with the
+   * next url, and whichever of the two succeeds first is returned.
+   * <p>
+   * Both requests run on a dedicated executor rather than the one shard requests run on, so that a
+   * bounded shard request pool can never be filled with requests waiting for their own hedges.
+   *
+   * @param req The solr search request that should be sent through the load balancer
+   * @param urls The list of solr server urls to load balance across
+   * @return The response from the request
+   */
+  public LBHttpSolrClient.Rsp makeHedgedRequest(final QueryRequest req, List<String> urls)
+    throws SolrServerException, IOException {
+    if (hedgeDelay <= 0 || urls.size() < 2) {
+      return makeLoadBalancedRequest(req, urls);
+    }
+
+    CompletionService<LBHttpSolrClient.Rsp> requests = new ExecutorCompletionService<>(hedgeExecutor);
+    List<Future<LBHttpSolrClient.Rsp>> futures = new ArrayList<>(2);
+    // a request may try every url, each for up to the socket timeout
+    final long maxWaitMillis = soTimeout > 0 ? hedgeDelay + (long) (soTimeout + connectionTimeout) * urls.size() : Long.MAX_VALUE;
+    final long startNanos = System.nanoTime();
+    try {
+      futures.add(requests.submit(newLoadBalancedRequest(req, urls)));
+      Future<LBHttpSolrClient.Rsp> done = requests.poll(hedgeDelay, TimeUnit.MILLISECONDS);
+      if (done == null) {
+        List<String> hedgeUrls = new ArrayList<>(urls);
+        Collections.rotate(hedgeUrls, -1);
+        futures.add(requests.submit(newLoadBalancedRequest(req, hedgeUrls)));
+      }
+
+      Throwable failure = null;
+      for (int remaining = futures.size(); remaining > 0; remaining--) {
+        if (done == null) {
+          done = requests.poll(remainingMillis(startNanos, maxWaitMillis), TimeUnit.MILLISECONDS);
+          if (done == null) {
+            throw new SolrServerException("Timed out after " + maxWaitMillis + " ms waiting for a response from " + urls);
+          }
+        }
+        try {
+          return done.get();
+        } catch (ExecutionException e) {
+          failure = e.getCause();
+        }
+        done = null;
+      }
+
+      if (failure instanceof SolrServerException) throw (SolrServerException) failure;
+      if (failure instanceof IOException) throw (IOException) failure;
+      if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+      throw new SolrServerException(failure);
+    } catch (RejectedExecutionException e) {
+      // only happens once the factory is closed
+      throw new SolrServerException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolrServerException(e);
+    } finally {
+      // the slower request can't be aborted mid-read; it completes in the background and is ignored
+      for (Future<LBHttpSolrClient.Rsp> future : futures) {
+        future.cancel(false);
+      }
+    }
+  }
+
+  private static long remainingMillis(long startNanos, long maxWaitMillis) {
+    if (maxWaitMillis == Long.MAX_VALUE) {
+      return Long.MAX_VALUE;
+    }
+    return Math.max(0, maxWaitMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+  }
+
+  private Callable<LBHttpSolrClient.Rsp> newLoadBalancedRequest(final QueryRequest req, final List<String> urls) {
+    return new Callable<LBHttpSolrClient.Rsp>() {
+      @Override
+      public LBHttpSolrClient.Rsp call() throws Exception {
+        return makeLoadBalancedRequest(req, urls);
+      }
+    };
+  }
+
   /**
    * Creates a randomized list of urls for the given shard.
    *
@@ -266,8 +375,11 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
     // This prevents accidental synchronization where multiple shards could get in sync
     // and query the same replica at the same time.
     //
-    if (urls.size() > 1)
+    if (urls.size() > 1) {
       Collections.shuffle(urls, r);
+      // then prefer the less loaded of two random replicas
+      replicaSelector.order(urls);
+    }
 
     return urls;
   }
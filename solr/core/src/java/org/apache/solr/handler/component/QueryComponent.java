@@ -27,11 +27,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.lucene.index.IndexReaderContext;
 import org.apache.lucene.index.LeafReaderContext;
@@ -58,11 +60,15 @@ import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.ExpandParams;
+import org.apache.solr.common.params.FacetParams;
 import org.apache.solr.common.params.GroupParams;
+import org.apache.solr.common.params.HighlightParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.MoreLikeThisParams;
 import org.apache.solr.common.params.ShardParams;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.params.StatsParams;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.apache.solr.common.util.StrUtils;
@@ -846,6 +852,38 @@ public class QueryComponent extends SearchComponent
     cache.mergeToGlobalStats(rb.req, sreq.responses);
   }
 
+  /**
+   * Returns true if the shards would send back few enough documents in total (see
+   * {@link ShardParams#DISTRIB_SINGLE_PASS_MAX_DOCS}) that returning their fields along with the
+   * top ids is cheaper than a second round trip to fetch them.
+   */
+  private boolean isSmallDistributedResult(ResponseBuilder rb) {
+    int maxDocs = rb.req.getParams().getInt(ShardParams.DISTRIB_SINGLE_PASS_MAX_DOCS, 0);
+    if (maxDocs <= 0 || rb.shards == null) return false;
+    long docsPerShard = rb.shards_rows > -1 ? rb.shards_rows
+        : (long) rb.getSortSpec().getOffset() + rb.getSortSpec().getCount();
+    return docsPerShard * rb.shards.length <= maxDocs;
+  }
+
+  /**
+   * Returns how many rows to ask each shard for when {@link ShardParams#SHARDS_ROWS_ESTIMATE} is set,
+   * or -1 to ask for all of start+rows.
+   * <p>
+   * With documents spread randomly, the number of the top start+rows documents a shard holds is roughly
+   * binomially distributed around (start+rows)/numShards, so asking for that plus a few standard
+   * deviations is almost always enough. {@link #mergeIds} detects the rare case where it isn't.
+   */
+  private int estimateShardRows(ResponseBuilder rb) {
+    if (!rb.req.getParams().getBool(ShardParams.SHARDS_ROWS_ESTIMATE, false)
+        || rb.shards == null || rb.shards.length < 2 || rb.getMergeStrategies() != null) {
+      return -1;
+    }
+    long window = (long) rb.getSortSpec().getOffset() + rb.getSortSpec().getCount();
+    double perShard = (double) window / rb.shards.length;
+    long rows = (long) Math.ceil(perShard + 4 * Math.sqrt(perShard)) + 1;
+    return rows < window ? (int) rows : -1;
+  }
+
   private void createMainQuery(ResponseBuilder rb) {
     ShardRequest sreq = new ShardRequest();
     sreq.purpose = ShardRequest.PURPOSE_GET_TOP_IDS;
@@ -856,7 +894,8 @@ public class QueryComponent extends SearchComponent
     ReturnFields fields = rb.rsp.getReturnFields();
 
     // distrib.singlePass=true forces a one-pass query regardless of requested fields
-    boolean distribSinglePass = rb.req.getParams().getBool(ShardParams.DISTRIB_SINGLE_PASS, false);
+    Boolean singlePassParam = rb.req.getParams().getBool(ShardParams.DISTRIB_SINGLE_PASS);
+    boolean distribSinglePass = singlePassParam != null ? singlePassParam : isSmallDistributedResult(rb);
 
     if(distribSinglePass || (fields != null && fields.wantsField(keyFieldName)
         && fields.getRequestedFieldNames() != null  
@@ -883,9 +922,12 @@ public class QueryComponent extends SearchComponent
     // perhaps we shouldn't attempt to parse the query at this level?
     // Alternate Idea: instead of specifying all these things at the upper level,
     // we could just specify that this is a shard request.
+    int estimatedShardRows;
     if(rb.shards_rows > -1) {
       // if the client set shards.rows set this explicity
       sreq.params.set(CommonParams.ROWS,rb.shards_rows);
+    } else if (!distribSinglePass && (estimatedShardRows = estimateShardRows(rb)) > -1) {
+      sreq.params.set(CommonParams.ROWS, estimatedShardRows);
     } else {
       sreq.params.set(CommonParams.ROWS, rb.getSortSpec().getOffset() + rb.getSortSpec().getCount());
     }
@@ -931,6 +973,30 @@ public class QueryComponent extends SearchComponent
     rb.addRequest(this, sreq);
   }
   
+  /**
+   * Re-sends a top ids request whose rows were cut down by {@link #estimateShardRows} with the full
+   * start+rows. The request is private and has the other components switched off, so that only the
+   * ids are merged again.
+   */
+  private void createFullRowsQuery(ResponseBuilder rb, ShardRequest estimated) {
+    ShardRequest sreq = new ShardRequest();
+    sreq.purpose = ShardRequest.PURPOSE_GET_TOP_IDS | ShardRequest.PURPOSE_PRIVATE;
+    sreq.params = new ModifiableSolrParams(estimated.params);
+    sreq.params.set(CommonParams.ROWS, rb.getSortSpec().getOffset() + rb.getSortSpec().getCount());
+    sreq.params.set(FacetParams.FACET, false);
+    sreq.params.remove("_facet_"); // json facet state, see FacetModule
+    sreq.params.set(StatsParams.STATS, false);
+    sreq.params.set(HighlightParams.HIGHLIGHT, false);
+    sreq.params.set(MoreLikeThisParams.MLT, false);
+    sreq.params.set(ExpandParams.EXPAND, false);
+    sreq.params.remove(CommonParams.DEBUG);
+    sreq.params.remove(CommonParams.DEBUG_QUERY);
+    sreq.params.remove("child.facet.field"); // see BlockJoinFacetComponent
+    // the shards will be reported again by the full request
+    rb.rsp.getValues().remove(ShardParams.SHARDS_INFO);
+    rb.addRequest(this, sreq);
+  }
+
   private boolean addFL(StringBuilder fl, String field, boolean additionalAdded) {
     if (additionalAdded) fl.append(",");
     fl.append(field);
@@ -975,6 +1041,16 @@ public class QueryComponent extends SearchComponent
       ShardFieldSortedHitQueue queue;
       queue = new ShardFieldSortedHitQueue(sortFields, ss.getOffset() + ss.getCount(), rb.req.getSearcher());
 
+      // If the shards were asked for fewer rows than start+rows (see estimateShardRows), the last doc of
+      // every shard that has more matches must end up outside of the merged window; otherwise the docs
+      // that shard did not return might belong in it and the full rows have to be fetched.
+      Set<ShardDoc> lastShardDocs = null;
+      boolean truncatedShardDuplicate = false;
+      if (rb.shards_rows == -1
+          && sreq.params.getInt(CommonParams.ROWS, ss.getOffset() + ss.getCount()) < ss.getOffset() + ss.getCount()) {
+        lastShardDocs = Collections.newSetFromMap(new IdentityHashMap<ShardDoc,Boolean>());
+      }
+
       NamedList<Object> shardInfo = null;
       if(rb.req.getParams().getBool(ShardParams.SHARDS_INFO, false)) {
         shardInfo = new SimpleOrderedMap<>();
@@ -1045,10 +1121,14 @@ public class QueryComponent extends SearchComponent
           SolrDocument doc = docs.get(i);
           Object id = doc.getFieldValue(uniqueKeyField.getName());
 
+          boolean lastOfTruncatedShard = lastShardDocs != null
+              && i == docs.size() - 1 && docs.getNumFound() > docs.size();
+
           String prevShard = uniqueDoc.put(id, srsp.getShard());
           if (prevShard != null) {
             // duplicate detected
             numFound--;
+            truncatedShardDuplicate |= lastOfTruncatedShard;
 
             // For now, just always use the first encountered since we can't currently
             // remove the previous one added to the priority queue.  If we switched
@@ -1076,9 +1156,20 @@ public class QueryComponent extends SearchComponent
 
           shardDoc.sortFieldValues = unmarshalledSortFieldValues;
 
-          queue.insertWithOverflow(shardDoc);
+          if (lastOfTruncatedShard) {
+            lastShardDocs.add(shardDoc);
+          }
+          ShardDoc dropped = queue.insertWithOverflow(shardDoc);
+          if (dropped != null && lastShardDocs != null) {
+            lastShardDocs.remove(dropped);
+          }
         } // end for-each-doc-in-response
       } // end for-each-response
+
+      if (lastShardDocs != null && (truncatedShardDuplicate || !lastShardDocs.isEmpty())) {
+        createFullRowsQuery(rb, sreq);
+        return;
+      }
       
       // The queue now has 0 -> queuesize docs, where queuesize <= start + rows
       // So we want to pop the last documents off the queue to get
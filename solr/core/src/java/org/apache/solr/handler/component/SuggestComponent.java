@@ -509,7 +509,7 @@ public class SuggestComponent extends SearchComponent implements SolrCoreAware,
       } else {
         if (buildOnCommit)  {
           LOG.info("buildOnCommit: " + suggester.getName());
-          buildSuggesterIndex(newSearcher);
+          updateSuggesterIndex(newSearcher);
         } else if (buildOnOptimize) {
           if (newSearcher.getIndexReader().leaves().size() == 1)  {
             LOG.info("buildOnOptimize: " + suggester.getName());
@@ -528,6 +528,14 @@ public class SuggestComponent extends SearchComponent implements SolrCoreAware,
       }
     }
 
+    private void updateSuggesterIndex(SolrIndexSearcher newSearcher) {
+      try {
+        suggester.update(core, newSearcher);
+      } catch (Exception e) {
+        LOG.error("Exception in updating suggester index for: " + suggester.getName(), e);
+      }
+    }
+
     @Override
     public void postCommit() {}
 
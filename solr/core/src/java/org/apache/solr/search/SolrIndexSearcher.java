@@ -192,6 +192,9 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   private final String path;
   private boolean releaseDirectory;
 
+  // per-leaf unique key terms and their bounds, lazily loaded by lookupId
+  private volatile IdTerms idTerms;
+
   private static DirectoryReader getReader(SolrCore core, SolrIndexConfig config, DirectoryFactory directoryFactory,
       String path) throws IOException {
     final Directory dir = directoryFactory.get(path, DirContext.DEFAULT, config.lockType);
@@ -897,15 +900,18 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
    * @lucene.internal
    */
   public long lookupId(BytesRef idBytes) throws IOException {
-    String field = schema.getUniqueKeyField().getName();
+    final IdTerms idTerms = getIdTerms();
 
     for (int i = 0, c = leafContexts.size(); i < c; i++) {
       final LeafReaderContext leaf = leafContexts.get(i);
       final LeafReader reader = leaf.reader();
 
-      final Terms terms = reader.terms(field);
+      final Terms terms = idTerms.terms[i];
       if (terms == null) continue;
 
+      // segments whose id range can't contain this id are skipped without a terms index seek
+      if (idBytes.compareTo(idTerms.minTerms[i]) < 0 || idBytes.compareTo(idTerms.maxTerms[i]) > 0) continue;
+
       TermsEnum te = terms.iterator();
       if (te.seekExact(idBytes)) {
         PostingsEnum docs = te.postings(null, PostingsEnum.NONE);
@@ -921,6 +927,48 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return -1;
   }
 
+  /** The {@link Terms} of the unique key field of each leaf, with their min and max id. */
+  private static final class IdTerms {
+    // entries are null for leaves without any ids
+    final Terms[] terms;
+    final BytesRef[] minTerms;
+    final BytesRef[] maxTerms;
+
+    IdTerms(Terms[] terms, BytesRef[] minTerms, BytesRef[] maxTerms) {
+      this.terms = terms;
+      this.minTerms = minTerms;
+      this.maxTerms = maxTerms;
+    }
+  }
+
+  /**
+   * Returns the per-leaf {@link Terms} of the unique key field, loading them (along with the min and max id of each
+   * leaf) on first use. Racing threads may each load them, but every thread only uses the instance it got.
+   */
+  private IdTerms getIdTerms() throws IOException {
+    IdTerms idTerms = this.idTerms;
+    if (idTerms == null) {
+      final String field = schema.getUniqueKeyField().getName();
+      final int numLeaves = leafContexts.size();
+      final Terms[] terms = new Terms[numLeaves];
+      final BytesRef[] minTerms = new BytesRef[numLeaves];
+      final BytesRef[] maxTerms = new BytesRef[numLeaves];
+      for (int i = 0; i < numLeaves; i++) {
+        final Terms leafTerms = leafContexts.get(i).reader().terms(field);
+        if (leafTerms == null) continue;
+        final BytesRef min = leafTerms.getMin();
+        final BytesRef max = leafTerms.getMax();
+        if (min == null || max == null) continue;
+        minTerms[i] = BytesRef.deepCopyOf(min);
+        maxTerms[i] = BytesRef.deepCopyOf(max);
+        terms[i] = leafTerms;
+      }
+      idTerms = new IdTerms(terms, minTerms, maxTerms);
+      this.idTerms = idTerms;
+    }
+    return idTerms;
+  }
+
   /**
    * Compute and cache the DocSet that matches a query. The normal usage is expected to be cacheDocSet(myQuery,
    * null,false) meaning that Solr will determine if the Query warrants caching, and if so, will compute the DocSet that
@@ -26,6 +26,7 @@ import java.lang.invoke.MethodHandles;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardTokenizerFactory;
@@ -35,8 +36,10 @@ import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.spell.Dictionary;
+import org.apache.lucene.search.suggest.DocumentDictionary;
 import org.apache.lucene.search.suggest.Lookup;
 import org.apache.lucene.search.suggest.Lookup.LookupResult;
+import org.apache.lucene.search.suggest.analyzing.AnalyzingInfixSuggester;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.IOUtils;
 import org.apache.solr.analysis.TokenizerChain;
@@ -79,6 +82,20 @@ public class SolrSuggester implements Accountable {
    * is null the storing will be disabled.
    */
   public static final String STORE_DIR = "storeDir";
+
+  /**
+   * Number of threads used to index the suggestions when an {@link AnalyzingInfixSuggester}
+   * is built; defaults to 1.
+   */
+  public static final String BUILD_THREADS = "buildThreads";
+
+  /**
+   * If true, an {@link AnalyzingInfixSuggester} over a {@link DocumentDictionary} is only
+   * updated with the documents of the segments which are new since its last build, instead
+   * of being rebuilt, when it is built on commit. Suggestions of deleted documents are then
+   * kept until the next full build, which explicit build requests always do.
+   */
+  public static final String INCREMENTAL_BUILD = "incrementalBuild";
   
   static SuggesterResult EMPTY_RESULT = new SuggesterResult();
   
@@ -89,6 +106,10 @@ public class SolrSuggester implements Accountable {
   private String lookupImpl;
   private String dictionaryImpl;
   private String name;
+  private int buildThreads;
+  private boolean incrementalBuild;
+  // segments of the dictionary the lookup was last built from, for incremental builds
+  private Set<String> builtSegments;
 
   private LookupFactory factory;
   private DictionaryFactory dictionaryFactory;
@@ -108,6 +129,8 @@ public class SolrSuggester implements Accountable {
     lookupImpl = (String) config.get(LOOKUP_IMPL);
     dictionaryImpl = (String) config.get(DICTIONARY_IMPL);
     String store = (String)config.get(STORE_DIR);
+    buildThreads = config.get(BUILD_THREADS) != null ? Integer.parseInt(config.get(BUILD_THREADS).toString()) : 1;
+    incrementalBuild = config.get(INCREMENTAL_BUILD) != null && Boolean.parseBoolean(config.get(INCREMENTAL_BUILD).toString());
 
     if (lookupImpl == null) {
       lookupImpl = LookupFactory.DEFAULT_FILE_BASED_DICT;
@@ -172,9 +195,34 @@ public class SolrSuggester implements Accountable {
   /** Build the underlying Lucene Suggester */
   public void build(SolrCore core, SolrIndexSearcher searcher) throws IOException {
     LOG.info("SolrSuggester.build(" + name + ")");
+    build(core, searcher, false);
+  }
+
+  /**
+   * Updates the underlying Lucene Suggester after a commit: with {@link #INCREMENTAL_BUILD}, only the
+   * documents of new segments are added, otherwise this is the same as {@link #build}.
+   */
+  public void update(SolrCore core, SolrIndexSearcher searcher) throws IOException {
+    LOG.info("SolrSuggester.update(" + name + ")");
+    build(core, searcher, incrementalBuild);
+  }
 
+  private void build(SolrCore core, SolrIndexSearcher searcher, boolean incremental) throws IOException {
     dictionary = dictionaryFactory.create(core, searcher);
-    lookup.build(dictionary);
+    if (lookup instanceof AnalyzingInfixSuggester) {
+      AnalyzingInfixSuggester infixSuggester = (AnalyzingInfixSuggester) lookup;
+      if (incremental && builtSegments != null && dictionary instanceof DocumentDictionary) {
+        LOG.info("Updating suggester " + name + " with the documents of new segments");
+        infixSuggester.update(((DocumentDictionary) dictionary).getEntryIterator(builtSegments));
+      } else {
+        infixSuggester.build(dictionary.getEntryIterator(), buildThreads);
+      }
+    } else {
+      lookup.build(dictionary);
+    }
+    if (incrementalBuild && dictionary instanceof DocumentDictionary) {
+      builtSegments = ((DocumentDictionary) dictionary).getSegmentNames();
+    }
     if (storeDir != null) {
       File target = getStoreFile();
       if(!lookup.store(new FileOutputStream(target))) {
@@ -174,17 +174,18 @@ public class SolrCmdDistributor {
   
   public void distribDelete(DeleteUpdateCommand cmd, List<Node> nodes, ModifiableSolrParams params, boolean sync) throws IOException {
     
+    // the request is only read once submitted, so a single instance is shared by all nodes
+    UpdateRequest uReq = new UpdateRequest();
+    uReq.setParams(params);
+    uReq.setCommitWithin(cmd.commitWithin);
+    if (cmd.isDeleteById()) {
+      uReq.deleteById(cmd.getId(), cmd.getRoute(), cmd.getVersion());
+    } else {
+      uReq.deleteByQuery(cmd.query);
+    }
+    String cmdStr = cmd.toString();
     for (Node node : nodes) {
-      UpdateRequest uReq = new UpdateRequest();
-      uReq.setParams(params);
-      uReq.setCommitWithin(cmd.commitWithin);
-      if (cmd.isDeleteById()) {
-        uReq.deleteById(cmd.getId(), cmd.getRoute(), cmd.getVersion());
-      } else {
-        uReq.deleteByQuery(cmd.query);
-      }
-      
-      submit(new Req(cmd.toString(), node, uReq, sync), false);
+      submit(new Req(cmdStr, node, uReq, sync), false);
     }
   }
   
@@ -198,12 +199,13 @@ public class SolrCmdDistributor {
   
   public void distribAdd(AddUpdateCommand cmd, List<Node> nodes, ModifiableSolrParams params, boolean synchronous, RequestReplicationTracker rrt) throws IOException {  
     String cmdStr = cmd.toString();
+    // the request is only read once submitted, so a single instance is shared by all nodes
+    UpdateRequest uReq = new UpdateRequest();
+    if (cmd.isLastDocInBatch)
+      uReq.lastDocInBatch();
+    uReq.setParams(params);
+    uReq.add(cmd.solrDoc, cmd.commitWithin, cmd.overwrite);
     for (Node node : nodes) {
-      UpdateRequest uReq = new UpdateRequest();
-      if (cmd.isLastDocInBatch)
-        uReq.lastDocInBatch();
-      uReq.setParams(params);
-      uReq.add(cmd.solrDoc, cmd.commitWithin, cmd.overwrite);
       submit(new Req(cmdStr, node, uReq, synchronous, rrt, cmd.pollQueueTime), false);
     }
     
@@ -87,6 +87,13 @@ public class TransactionLog implements Closeable {
   long snapshot_size;
   int snapshot_numRecords;
 
+  // log position known to be on stable storage; guarded by "this"
+  private long syncedPosition;
+  // bumped whenever the log is truncated, so an fsync racing a rollback does not overstate syncedPosition
+  private int truncations;
+  // serializes fsyncs, so that callers queued behind one can share the next one
+  private final Object syncLock = new Object();
+
   // write a BytesRef as a byte array
   JavaBinCodec.ObjectResolver resolver = new JavaBinCodec.ObjectResolver() {
     @Override
@@ -250,6 +257,8 @@ public class TransactionLog implements Closeable {
       fos.setWritten(pos);
       assert fos.size() == pos;
       numRecords = snapshot_numRecords;
+      syncedPosition = Math.min(syncedPosition, pos);
+      truncations++;
     }
   }
 
@@ -522,15 +531,35 @@ public class TransactionLog implements Closeable {
   public void finish(UpdateLog.SyncLevel syncLevel) {
     if (syncLevel == UpdateLog.SyncLevel.NONE) return;
     try {
+      long flushedTo;
       synchronized (this) {
         fos.flushBuffer();
+        flushedTo = fos.size();
+        if (syncLevel != UpdateLog.SyncLevel.FSYNC || syncedPosition >= flushedTo) return;
       }
 
-      if (syncLevel == UpdateLog.SyncLevel.FSYNC) {
+      // Group commit: only one thread fsyncs at a time, and it syncs everything written so far,
+      // so threads that were waiting on it usually find their records already covered.
+      synchronized (syncLock) {
+        long syncTo;
+        int truncationsAtSync;
+        synchronized (this) {
+          if (syncedPosition >= flushedTo) return;
+          fos.flushBuffer();
+          syncTo = fos.size();
+          truncationsAtSync = truncations;
+        }
+
         // Since fsync is outside of synchronized block, we can end up with a partial
         // last record on power failure (which is OK, and does not represent an error...
         // we just need to be aware of it when reading).
         raf.getFD().sync();
+
+        synchronized (this) {
+          if (truncationsAtSync == truncations) {
+            syncedPosition = Math.max(syncedPosition, syncTo);
+          }
+        }
       }
 
     } catch (IOException e) {
@@ -36,10 +36,14 @@ import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.lucene.util.BytesRef;
@@ -49,6 +53,7 @@ import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.Hash;
 import org.apache.solr.core.PluginInfo;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.request.LocalSolrQueryRequest;
@@ -73,6 +78,8 @@ import static org.apache.solr.update.processor.DistributingUpdateProcessorFactor
 /** @lucene.experimental */
 public class UpdateLog implements PluginInfoInitialized {
   private static final long STATUS_TIME = TimeUnit.NANOSECONDS.convert(60, TimeUnit.SECONDS);
+  // max number of commands read ahead of each replay thread
+  private static final int MAX_PENDING_REPLAY_OPS = 1000;
   public static String LOG_FILENAME_PATTERN = "%s.%019d";
   public static String TLOG_NAME="tlog";
 
@@ -148,6 +155,7 @@ public class UpdateLog implements PluginInfoInitialized {
   protected int numRecordsToKeep;
   protected int maxNumLogsToKeep;
   protected int numVersionBuckets; // This should only be used to initialize VersionInfo... the actual number of buckets may be rounded up to a power of two.
+  protected int numReplayThreads; // number of threads applying adds and deletes by id during log replay
   protected Long maxVersionFromIndex = null;
 
   // keep track of deletes only... this is not updated on an add
@@ -233,6 +241,10 @@ public class UpdateLog implements PluginInfoInitialized {
     return numVersionBuckets;
   }
 
+  public int getNumReplayThreads() {
+    return numReplayThreads;
+  }
+
   protected static int objToInt(Object obj, int def) {
     if (obj != null) {
       return Integer.parseInt(obj.toString());
@@ -251,9 +263,13 @@ public class UpdateLog implements PluginInfoInitialized {
     if (numVersionBuckets <= 0)
       throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,
           "Number of version buckets must be greater than 0!");
+    numReplayThreads = objToInt(info.initArgs.get("numReplayThreads"), 1);
+    if (numReplayThreads <= 0)
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,
+          "Number of replay threads must be greater than 0!");
 
-    log.info("Initializing UpdateLog: dataDir={} defaultSyncLevel={} numRecordsToKeep={} maxNumLogsToKeep={} numVersionBuckets={}",
-        dataDir, defaultSyncLevel, numRecordsToKeep, maxNumLogsToKeep, numVersionBuckets);
+    log.info("Initializing UpdateLog: dataDir={} defaultSyncLevel={} numRecordsToKeep={} maxNumLogsToKeep={} numVersionBuckets={} numReplayThreads={}",
+        dataDir, defaultSyncLevel, numRecordsToKeep, maxNumLogsToKeep, numVersionBuckets, numReplayThreads);
   }
 
   /* Note, when this is called, uhandler is not completely constructed.
@@ -1237,6 +1253,14 @@ public class UpdateLog implements PluginInfoInitialized {
     private SolrQueryRequest req;
     private SolrQueryResponse rsp;
 
+    // When replaying with more than one thread, adds and deletes by id are partitioned by the hash of
+    // their id, so operations on the same document are still applied in log order. Everything else
+    // (deleteByQuery, or updates once other updates have been blocked) waits for the partitions to drain.
+    private ReplayPartition[] partitions;
+    private Semaphore pendingOps;
+    private final AtomicInteger partitionErrors = new AtomicInteger();
+    private final AtomicReference<SolrException> partitionFailure = new AtomicReference<>();
+
 
     @Override
     public void run() {
@@ -1304,6 +1328,9 @@ public class UpdateLog implements PluginInfoInitialized {
 
         UpdateRequestProcessorChain processorChain = req.getCore().getUpdateProcessingChain(null);
         UpdateRequestProcessor proc = processorChain.createProcessor(req, rsp);
+        if (numReplayThreads > 1 && !finishing) {
+          openPartitions(processorChain);
+        }
 
         long commitVersion = 0;
         int operationAndFlags = 0;
@@ -1336,7 +1363,9 @@ public class UpdateLog implements PluginInfoInitialized {
                 // we could be starved from ever completing recovery.  Only unlock
                 // after we've finished this recovery.
                 // NOTE: our own updates won't be blocked since the thread holding a write lock can
-                // lock a read lock.
+                // lock a read lock. Updates from partition threads would be, so the rest of the log
+                // is replayed on this thread.
+                closePartitions();
                 versionInfo.blockUpdates();
                 finishing = true;
                 o = tlogReader.next();
@@ -1378,7 +1407,7 @@ public class UpdateLog implements PluginInfoInitialized {
                 cmd.setFlags(UpdateCommand.REPLAY | UpdateCommand.IGNORE_AUTOCOMMIT);
                 if (debug) log.debug("add " + cmd);
 
-                proc.processAdd(cmd);
+                replay(proc, cmd, cmd.getIndexedId());
                 break;
               }
               case UpdateLog.DELETE: {
@@ -1389,7 +1418,7 @@ public class UpdateLog implements PluginInfoInitialized {
                 cmd.setVersion(version);
                 cmd.setFlags(UpdateCommand.REPLAY | UpdateCommand.IGNORE_AUTOCOMMIT);
                 if (debug) log.debug("delete " + cmd);
-                proc.processDelete(cmd);
+                replay(proc, cmd, cmd.getIndexedId());
                 break;
               }
 
@@ -1401,7 +1430,7 @@ public class UpdateLog implements PluginInfoInitialized {
                 cmd.setVersion(version);
                 cmd.setFlags(UpdateCommand.REPLAY | UpdateCommand.IGNORE_AUTOCOMMIT);
                 if (debug) log.debug("deleteByQuery " + cmd);
-                proc.processDelete(cmd);
+                replay(proc, cmd, null);
                 break;
               }
 
@@ -1440,6 +1469,9 @@ public class UpdateLog implements PluginInfoInitialized {
           }
         }
 
+        closePartitions();
+        checkPartitionFailure();
+
         CommitUpdateCommand cmd = new CommitUpdateCommand(req, false);
         cmd.setVersion(commitVersion);
         cmd.softCommit = false;
@@ -1470,10 +1502,144 @@ public class UpdateLog implements PluginInfoInitialized {
         }
 
       } finally {
+        if (partitions != null) {
+          // only reached with open partitions if replay was aborted
+          for (ReplayPartition partition : partitions) {
+            ExecutorUtil.shutdownAndAwaitTermination(partition.executor);
+          }
+          partitions = null;
+        }
         if (tlogReader != null) tlogReader.close();
         translog.decref();
       }
     }
+
+    /** Applies an add or delete, on a partition thread if the replay is parallel and the command has an id. */
+    private void replay(UpdateRequestProcessor proc, UpdateCommand cmd, BytesRef indexedId) throws IOException {
+      if (partitions == null) {
+        apply(proc, cmd);
+        return;
+      }
+      checkPartitionFailure();
+      if (indexedId == null) {
+        // a barrier: everything read before this command must be applied before it
+        awaitPartitions();
+        checkPartitionFailure();
+        apply(proc, cmd);
+        return;
+      }
+
+      // any consistent partitioning works, since only the order of updates to the same id matters
+      int hash = Hash.murmurhash3_x86_32(indexedId.bytes, indexedId.offset, indexedId.length, 0);
+      partitions[(hash & 0x7fffffff) % partitions.length].submit(cmd);
+    }
+
+    private void apply(UpdateRequestProcessor proc, UpdateCommand cmd) throws IOException {
+      if (cmd instanceof AddUpdateCommand) {
+        proc.processAdd((AddUpdateCommand) cmd);
+      } else {
+        proc.processDelete((DeleteUpdateCommand) cmd);
+      }
+    }
+
+    private void openPartitions(UpdateRequestProcessorChain processorChain) {
+      partitions = new ReplayPartition[numReplayThreads];
+      pendingOps = new Semaphore(MAX_PENDING_REPLAY_OPS * numReplayThreads);
+      for (int i = 0; i < partitions.length; i++) {
+        partitions[i] = new ReplayPartition(processorChain);
+      }
+      loglog.info("Replaying adds and deletes by id with {} threads", numReplayThreads);
+    }
+
+    /** Waits until every submitted command has been applied. */
+    private void awaitPartitions() {
+      int permits = MAX_PENDING_REPLAY_OPS * partitions.length;
+      pendingOps.acquireUninterruptibly(permits);
+      pendingOps.release(permits);
+      recoveryInfo.errors += partitionErrors.getAndSet(0);
+    }
+
+    /** Rethrows an error from a partition that should abort the replay. */
+    private void checkPartitionFailure() {
+      SolrException failure = partitionFailure.get();
+      if (failure != null) throw failure;
+    }
+
+    /** Drains and finishes the partitions, so that the rest of the replay runs on this thread. */
+    private void closePartitions() {
+      if (partitions == null) return;
+      ReplayPartition[] toClose = partitions;
+      try {
+        awaitPartitions();
+        for (ReplayPartition partition : toClose) {
+          partition.submit(null);
+        }
+        awaitPartitions();
+      } finally {
+        for (ReplayPartition partition : toClose) {
+          ExecutorUtil.shutdownAndAwaitTermination(partition.executor);
+        }
+        partitions = null;
+      }
+    }
+
+    /** A single replay thread with its own request and processor chain. */
+    private class ReplayPartition {
+      final ExecutorService executor = ExecutorUtil.newMDCAwareSingleThreadExecutor(
+          new DefaultSolrThreadFactory("logReplayExecutor"));
+      final UpdateRequestProcessorChain processorChain;
+      final SolrQueryRequest partitionReq;
+      final SolrQueryResponse partitionRsp = new SolrQueryResponse();
+      UpdateRequestProcessor proc;  // only accessed from the executor thread
+
+      ReplayPartition(UpdateRequestProcessorChain processorChain) {
+        this.processorChain = processorChain;
+        this.partitionReq = new LocalSolrQueryRequest(uhandler.core, req.getParams());
+      }
+
+      /** Applies the command in submission order, or finishes the processor chain if cmd is null. */
+      void submit(final UpdateCommand cmd) {
+        pendingOps.acquireUninterruptibly();
+        try {
+          executor.execute(new Runnable() {
+            @Override
+            public void run() {
+              SolrRequestInfo.setRequestInfo(new SolrRequestInfo(partitionReq, partitionRsp));
+              try {
+                if (cmd == null) {
+                  if (proc != null) proc.finish();
+                  partitionReq.close();
+                  return;
+                }
+                if (proc == null) proc = processorChain.createProcessor(partitionReq, partitionRsp);
+                cmd.req = partitionReq;
+                apply(proc, cmd);
+                if (partitionRsp.getException() != null) {
+                  loglog.error("REPLAY_ERR: Exception replaying log", partitionRsp.getException());
+                  throw partitionRsp.getException();
+                }
+              } catch (SolrException ex) {
+                if (ex.code() == ErrorCode.SERVICE_UNAVAILABLE.code) {
+                  partitionFailure.compareAndSet(null, ex);
+                } else {
+                  partitionErrors.incrementAndGet();
+                  loglog.warn("REPLAY_ERR: Exception replaying log", ex);
+                }
+              } catch (Exception ex) {
+                partitionErrors.incrementAndGet();
+                loglog.warn("REPLAY_ERR: Exception replaying log", ex);
+              } finally {
+                SolrRequestInfo.clearRequestInfo();
+                pendingOps.release();
+              }
+            }
+          });
+        } catch (RuntimeException e) {
+          pendingOps.release();
+          throw e;
+        }
+      }
+    }
   }
 
   public void cancelApplyBufferedUpdates() {
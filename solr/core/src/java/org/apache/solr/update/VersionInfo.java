@@ -20,6 +20,7 @@ package org.apache.solr.update;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -151,31 +152,35 @@ public class VersionInfo {
   // that times are somewhat synchronized in the cluster).
   // Good if we want to relax some constraints to scale down to where only one node may be
   // up at a time.  Possibly harder to detect missing messages (because versions are not contiguous).
-  private long vclock;
-  private final Object clockSync = new Object();
+  // Updated with compare-and-set rather than under a shared lock, since every add on the leader
+  // asks for a new clock value while holding its bucket.
+  private final AtomicLong vclock = new AtomicLong();
 
   @SuppressForbidden(reason = "need currentTimeMillis just for getting realistic version stamps, does not assume monotonicity")
   public long getNewClock() {
-    synchronized (clockSync) {
+    for (;;) {
       long time = System.currentTimeMillis();
       long result = time << 20;
-      if (result <= vclock) {
-        result = vclock + 1;
+      long current = vclock.get();
+      if (result <= current) {
+        result = current + 1;
+      }
+      if (vclock.compareAndSet(current, result)) {
+        return result;
       }
-      vclock = result;
-      return vclock;
     }
   }
 
   public long getOldClock() {
-    synchronized (clockSync) {
-      return vclock;
-    }
+    return vclock.get();
   }
 
   public void updateClock(long clock) {
-    synchronized (clockSync) {
-      vclock = Math.max(vclock, clock);
+    for (;;) {
+      long current = vclock.get();
+      if (current >= clock || vclock.compareAndSet(current, clock)) {
+        return;
+      }
     }
   }
 
@@ -410,6 +410,10 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
             }
 
             for (ZkCoreNodeProps props : replicaProps) {
+              if (props.isPullReplica()) {
+                // pull replicas copy the leader's index instead of indexing the update themselves
+                continue;
+              }
               if (skipList != null) {
                 boolean skip = skipListSet.contains(props.getCoreUrl());
                 log.info("check url:" + props.getCoreUrl() + " against:" + skipListSet + " result:" + skip);
@@ -644,7 +648,9 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
       if (replicaProps != null) {
         nodes = new ArrayList<>(replicaProps.size());
         for (ZkCoreNodeProps props : replicaProps) {
-          nodes.add(new StdNode(props, collection, shardId));
+          if (!props.isPullReplica()) {
+            nodes.add(new StdNode(props, collection, shardId));
+          }
         }
       }
     } catch (InterruptedException e) {
@@ -1339,7 +1345,9 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
           if (replicaProps != null) {
             final List<Node> myReplicas = new ArrayList<>(replicaProps.size());
             for (ZkCoreNodeProps replicaProp : replicaProps) {
-              myReplicas.add(new StdNode(replicaProp, collection, myShardId));
+              if (!replicaProp.isPullReplica()) {
+                myReplicas.add(new StdNode(replicaProp, collection, myShardId));
+              }
             }
             cmdDistrib.distribDelete(cmd, myReplicas, params);
             someReplicas = true;
@@ -1667,7 +1675,8 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
       
       for (Entry<String,Replica> entry : shardMap.entrySet()) {
         ZkCoreNodeProps nodeProps = new ZkCoreNodeProps(entry.getValue());
-        if (clusterState.liveNodesContain(nodeProps.getNodeName())) {
+        // a local commit on a pull replica would fork its index from the leader's
+        if (clusterState.liveNodesContain(nodeProps.getNodeName()) && !nodeProps.isPullReplica()) {
           urls.add(new StdNode(nodeProps, collection, replicas.getName()));
         }
       }
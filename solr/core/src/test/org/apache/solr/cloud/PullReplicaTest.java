@@ -0,0 +1,153 @@
+package org.apache.solr.cloud;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.util.LuceneTestCase.Slow;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.embedded.JettySolrRunner;
+import org.apache.solr.client.solrj.request.CollectionAdminRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.cloud.Slice;
+import org.apache.solr.common.cloud.ZkStateReader;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.util.TimeOut;
+import org.junit.Test;
+
+/**
+ * Tests that a pull replica copies the index of its leader, and that it never
+ * becomes leader itself, not even when the leader goes away.
+ */
+@Slow
+@SolrTestCaseJ4.SuppressSSL
+public class PullReplicaTest extends AbstractFullDistribZkTestBase {
+
+  private static final String COLLECTION = "pull_replica_collection";
+
+  public PullReplicaTest() {
+    sliceCount = 1;
+    fixShardCount(2);
+  }
+
+  @Test
+  public void test() throws Exception {
+    // two replicas which take part in the election, on two of the three nodes
+    createCollection(COLLECTION, 1, 2, 1);
+    waitForRecoveriesToFinish(COLLECTION, false);
+
+    ZkStateReader zkStateReader = cloudClient.getZkStateReader();
+    zkStateReader.updateClusterState();
+    Set<String> freeNodes = new HashSet<>(zkStateReader.getClusterState().getLiveNodes());
+    for (Replica replica : getSlice().getReplicas()) {
+      freeNodes.remove(replica.getNodeName());
+    }
+    assertEquals("expected a single node without a replica: " + freeNodes, 1, freeNodes.size());
+
+    Properties props = new Properties();
+    props.setProperty(ZkStateReader.PULL_REPLICA_PROP, "true");
+    CollectionAdminRequest.AddReplica addReplica = new CollectionAdminRequest.AddReplica()
+        .setCollectionName(COLLECTION)
+        .setShardName("shard1")
+        .setNode(freeNodes.iterator().next());
+    addReplica.setProperties(props);
+    assertEquals(0, addReplica.process(cloudClient).getStatus());
+
+    Replica pullReplica = waitForActivePullReplica();
+    assertFalse(pullReplica.getName().equals(getLeader().getName()));
+
+    cloudClient.setDefaultCollection(COLLECTION);
+    final int numDocs = 50;
+    for (int i = 0; i < numDocs; i++) {
+      SolrInputDocument doc = new SolrInputDocument();
+      doc.addField(id, i);
+      doc.addField(i1, i);
+      cloudClient.add(doc);
+    }
+    cloudClient.commit();
+    assertEquals(numDocs, cloudClient.query(new SolrQuery("*:*")).getResults().getNumFound());
+
+    try (SolrClient pullClient = createNewSolrClient(
+        pullReplica.getStr(ZkStateReader.CORE_NAME_PROP), pullReplica.getStr(ZkStateReader.BASE_URL_PROP))) {
+      SolrQuery query = new SolrQuery("*:*");
+      query.set(CommonParams.DISTRIB, false);
+      TimeOut timeout = new TimeOut(60, TimeUnit.SECONDS);
+      long numFound;
+      while ((numFound = pullClient.query(query).getResults().getNumFound()) != numDocs) {
+        if (timeout.hasTimedOut()) {
+          fail("pull replica did not catch up with its leader, found " + numFound + " of " + numDocs + " docs");
+        }
+        Thread.sleep(200);
+      }
+    }
+
+    // take the leader away; the other election candidate must take over
+    Replica leader = getLeader();
+    JettySolrRunner leaderJetty = getJettyOnPort(getReplicaPort(leader));
+    ChaosMonkey.stop(leaderJetty);
+    try {
+      TimeOut timeout = new TimeOut(60, TimeUnit.SECONDS);
+      Replica newLeader = getLeader();
+      while (newLeader == null || newLeader.getName().equals(leader.getName())) {
+        if (timeout.hasTimedOut()) {
+          fail("no new leader was elected after " + leader.getName() + " went away");
+        }
+        assertFalse("pull replica became leader",
+            newLeader != null && newLeader.getName().equals(pullReplica.getName()));
+        Thread.sleep(200);
+        newLeader = getLeader();
+      }
+      assertFalse("pull replica became leader", newLeader.getName().equals(pullReplica.getName()));
+      assertFalse(newLeader.getBool(ZkStateReader.PULL_REPLICA_PROP, false));
+    } finally {
+      ChaosMonkey.start(leaderJetty);
+    }
+    waitForRecoveriesToFinish(COLLECTION, false);
+    assertFalse(getLeader().getName().equals(pullReplica.getName()));
+  }
+
+  private Slice getSlice() throws Exception {
+    ZkStateReader zkStateReader = cloudClient.getZkStateReader();
+    zkStateReader.updateClusterState();
+    return zkStateReader.getClusterState().getSlice(COLLECTION, "shard1");
+  }
+
+  private Replica getLeader() throws Exception {
+    return getSlice().getLeader();
+  }
+
+  private Replica waitForActivePullReplica() throws Exception {
+    TimeOut timeout = new TimeOut(60, TimeUnit.SECONDS);
+    while (!timeout.hasTimedOut()) {
+      for (Replica replica : getSlice().getReplicas()) {
+        if (replica.getBool(ZkStateReader.PULL_REPLICA_PROP, false) && replica.getState() == Replica.State.ACTIVE) {
+          return replica;
+        }
+      }
+      Thread.sleep(200);
+    }
+    fail("pull replica did not become active: " + getSlice());
+    return null;
+  }
+}
@@ -27,6 +27,7 @@ import org.apache.solr.cloud.Overseer;
 import org.apache.solr.cloud.OverseerTest;
 import org.apache.solr.cloud.ZkController;
 import org.apache.solr.cloud.ZkTestServer;
+import org.apache.solr.common.cloud.ClusterState;
 import org.apache.solr.common.cloud.DocCollection;
 import org.apache.solr.common.cloud.DocRouter;
 import org.apache.solr.common.cloud.Slice;
@@ -181,4 +182,61 @@ public class ZkStateReaderTest extends SolrTestCaseJ4 {
       server.shutdown();
     }
   }
+
+  public void testUnchangedCollectionStateIsNotReparsed() throws Exception {
+    String zkDir = createTempDir("testUnchangedCollectionStateIsNotReparsed").toFile().getAbsolutePath();
+    ZkTestServer server = new ZkTestServer(zkDir);
+    SolrZkClient zkClient = null;
+
+    try {
+      server.run();
+      AbstractZkTestCase.tryCleanSolrZkNode(server.getZkHost());
+      AbstractZkTestCase.makeSolrZkNode(server.getZkHost());
+
+      zkClient = new SolrZkClient(server.getZkAddress(), OverseerTest.DEFAULT_CONNECTION_TIMEOUT);
+      ZkController.createClusterZkNodes(zkClient);
+
+      ZkStateReader reader = new ZkStateReader(zkClient);
+      reader.createClusterStateWatchersAndUpdate();
+
+      ZkStateWriter writer = new ZkStateWriter(reader, new Overseer.Stats());
+
+      // c1 is watched, c2 is lazily loaded
+      for (String coll : new String[] {"c1", "c2"}) {
+        zkClient.makePath(ZkStateReader.COLLECTIONS_ZKNODE + "/" + coll, true);
+        ZkWriteCommand c = new ZkWriteCommand(coll,
+            new DocCollection(coll, new HashMap<String, Slice>(), new HashMap<String, Object>(), DocRouter.DEFAULT, 0, ZkStateReader.getCollectionPath(coll)));
+        writer.enqueueUpdate(reader.getClusterState(), c, null);
+      }
+      writer.writePendingUpdates();
+      reader.updateClusterState();
+      reader.addCollectionWatch("c1");
+
+      // refreshing unchanged state nodes keeps the states which were already parsed
+      DocCollection watched = reader.getClusterState().getCollection("c1");
+      reader.updateClusterState();
+      assertSame(watched, reader.getClusterState().getCollection("c1"));
+
+      ClusterState.CollectionRef lazyRef = reader.getClusterState().getCollectionRef("c2");
+      assertTrue(lazyRef.isLazilyLoaded());
+      DocCollection lazy = lazyRef.get();
+      assertSame(lazy, lazyRef.get());
+
+      // rewriting the state nodes moves their versions on
+      for (String coll : new String[] {"c1", "c2"}) {
+        String path = ZkStateReader.getCollectionPath(coll);
+        zkClient.setData(path, zkClient.getData(path, null, null, true), true);
+      }
+      reader.updateClusterState();
+      DocCollection changed = reader.getClusterState().getCollection("c1");
+      assertNotSame(watched, changed);
+      assertEquals(watched.getZNodeVersion() + 1, changed.getZNodeVersion());
+      DocCollection lazyChanged = lazyRef.get();
+      assertNotSame(lazy, lazyChanged);
+      assertEquals(lazy.getZNodeVersion() + 1, lazyChanged.getZNodeVersion());
+    } finally {
+      IOUtils.close(zkClient);
+      server.shutdown();
+    }
+  }
 }
@@ -32,9 +32,14 @@ import org.apache.solr.common.cloud.SolrZkClient;
 import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.util.Utils;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ZkStateWriterTest extends SolrTestCaseJ4 {
 
@@ -73,7 +78,7 @@ public class ZkStateWriterTest extends SolrTestCaseJ4 {
 
       ZkWriteCommand c2 = new ZkWriteCommand("c2",
           new DocCollection("c2", new HashMap<>(), new HashMap<>(), DocRouter.DEFAULT, 0, ZkStateReader.COLLECTIONS_ZKNODE + "/c2"));
-      assertTrue("Different (new) collection create cannot be batched together with another create", writer.maybeFlushBefore(c2));
+      assertFalse("Different collections with stateFormat=2 can be batched together", writer.maybeFlushBefore(c2));
 
       // simulate three state changes on same collection, all should be batched together before
       assertFalse(writer.maybeFlushBefore(c1));
@@ -84,13 +89,13 @@ public class ZkStateWriterTest extends SolrTestCaseJ4 {
       assertFalse(writer.maybeFlushAfter(c1));
       assertFalse(writer.maybeFlushAfter(c1));
 
-      // simulate three state changes on two different collections with stateFormat=2, none should be batched
+      // simulate three state changes on two different collections with stateFormat=2, all should be batched
       assertFalse(writer.maybeFlushBefore(c1));
       // flushAfter has to be called as it updates the internal batching related info
       assertFalse(writer.maybeFlushAfter(c1));
-      assertTrue(writer.maybeFlushBefore(c2));
+      assertFalse(writer.maybeFlushBefore(c2));
       assertFalse(writer.maybeFlushAfter(c2));
-      assertTrue(writer.maybeFlushBefore(c1));
+      assertFalse(writer.maybeFlushBefore(c1));
       assertFalse(writer.maybeFlushAfter(c1));
 
       // create a collection in stateFormat = 1 i.e. inside the main cluster state
@@ -121,6 +126,95 @@ public class ZkStateWriterTest extends SolrTestCaseJ4 {
     }
   }
 
+  public void testBatchedCollectionsAreBounded() throws Exception {
+    String zkDir = createTempDir("testBatchedCollectionsAreBounded").toFile().getAbsolutePath();
+
+    ZkTestServer server = new ZkTestServer(zkDir);
+
+    SolrZkClient zkClient = null;
+
+    try {
+      server.run();
+      AbstractZkTestCase.tryCleanSolrZkNode(server.getZkHost());
+      AbstractZkTestCase.makeSolrZkNode(server.getZkHost());
+
+      zkClient = new SolrZkClient(server.getZkAddress(), OverseerTest.DEFAULT_CONNECTION_TIMEOUT);
+      ZkController.createClusterZkNodes(zkClient);
+
+      ZkStateReader reader = new ZkStateReader(zkClient);
+      reader.createClusterStateWatchersAndUpdate();
+
+      // never flush because of the elapsed time, so that only the batch limit triggers a write
+      ZkStateWriter writer = new ZkStateWriter(reader, new Overseer.Stats()) {
+        @Override
+        protected boolean maybeFlushAfter(ZkWriteCommand cmd) {
+          super.maybeFlushAfter(cmd);
+          return false;
+        }
+      };
+      final AtomicInteger writes = new AtomicInteger();
+      ZkStateWriter.ZkWriteCallback callback = new ZkStateWriter.ZkWriteCallback() {
+        @Override
+        public void onEnqueue() throws Exception {
+        }
+
+        @Override
+        public void onWrite() throws Exception {
+          writes.incrementAndGet();
+        }
+      };
+
+      int numCollections = ZkStateWriter.MAX_BATCHED_COLLECTIONS + 1;
+      List<ZkWriteCommand> commands = new ArrayList<>();
+      for (int i = 0; i <= numCollections; i++) {
+        String name = "c" + i;
+        zkClient.makePath(ZkStateReader.COLLECTIONS_ZKNODE + "/" + name, true);
+        commands.add(new ZkWriteCommand(name,
+            new DocCollection(name, new HashMap<String, Slice>(), new HashMap<String, Object>(), DocRouter.DEFAULT, 0, ZkStateReader.getCollectionPath(name))));
+      }
+
+      ClusterState state = writer.enqueueUpdate(reader.getClusterState(), commands.get(0), callback);
+      state = writer.writePendingUpdates();
+
+      // enqueue in a shuffled order, the collections must still be written in that order
+      List<ZkWriteCommand> batch = new ArrayList<>(commands.subList(1, numCollections));
+      Collections.shuffle(batch, random());
+      for (ZkWriteCommand cmd : batch) {
+        assertFalse("Collection " + cmd.name + " should have been batched", writer.maybeFlushBefore(cmd));
+        state = writer.enqueueUpdate(state, cmd, callback);
+      }
+      assertEquals(0, writes.get());
+      assertTrue(writer.hasPendingUpdates());
+
+      // another update to a batched collection doesn't grow the batch
+      assertFalse(writer.maybeFlushBefore(batch.get(0)));
+
+      // but one more collection does
+      ZkWriteCommand last = commands.get(numCollections);
+      assertTrue("Batch of " + ZkStateWriter.MAX_BATCHED_COLLECTIONS + " collections should have been flushed",
+          writer.maybeFlushBefore(last));
+      state = writer.enqueueUpdate(state, last, callback);
+      assertEquals(1, writes.get());
+      assertTrue(writer.hasPendingUpdates());
+
+      long lastCzxid = -1;
+      for (ZkWriteCommand cmd : batch) {
+        Stat stat = zkClient.exists(ZkStateReader.getCollectionPath(cmd.name), null, true);
+        assertNotNull("state.json of " + cmd.name + " was not written", stat);
+        assertTrue("state.json of " + cmd.name + " was not written in message order", stat.getCzxid() > lastCzxid);
+        lastCzxid = stat.getCzxid();
+      }
+      assertNull(zkClient.exists(ZkStateReader.getCollectionPath(last.name), null, true));
+
+      writer.writePendingUpdates();
+      assertNotNull(zkClient.exists(ZkStateReader.getCollectionPath(last.name), null, true));
+
+    } finally {
+      IOUtils.close(zkClient);
+      server.shutdown();
+    }
+  }
+
   public void testSingleLegacyCollection() throws Exception {
     String zkDir = createTempDir("testSingleLegacyCollection").toFile().getAbsolutePath();
 
@@ -701,6 +701,48 @@ public class TestReplicationHandler extends SolrTestCaseJ4 {
   }
   
   
+  @Test
+  public void doTestConcurrentIndexFetch() throws Exception {
+    // no polling
+    slave.copyConfigFile(CONF_DIR + "solrconfig-slave1.xml", "solrconfig.xml");
+    slaveJetty.stop();
+    slaveJetty = createJetty(slave);
+    slaveClient.close();
+    slaveClient = createNewSolrClient(slaveJetty.getLocalPort());
+
+    masterClient.deleteByQuery("*:*");
+    slaveClient.deleteByQuery("*:*");
+    slaveClient.commit();
+
+    // several segments, so that several files are fetched at once
+    int numDocs = 0;
+    for (int commit = 0; commit < 5; commit++) {
+      for (int i = 0; i < 20; i++, numDocs++)
+        index(masterClient, "id", numDocs, "name", "name = " + numDocs);
+      masterClient.commit();
+    }
+
+    NamedList masterQueryRsp = rQuery(numDocs, "*:*", masterClient);
+    SolrDocumentList masterQueryResult = (SolrDocumentList) masterQueryRsp.get("response");
+    assertEquals(numDocs, masterQueryResult.getNumFound());
+
+    String masterUrl = buildUrl(slaveJetty.getLocalPort()) + "/" + DEFAULT_TEST_CORENAME + "/replication?command=fetchindex"
+        + "&" + ReplicationHandler.FETCH_THREADS + "=4&masterUrl=";
+    masterUrl += buildUrl(masterJetty.getLocalPort()) + "/" + DEFAULT_TEST_CORENAME + "/replication";
+    URL url = new URL(masterUrl);
+    InputStream stream = url.openStream();
+    stream.close();
+
+    NamedList slaveQueryRsp = rQuery(numDocs, "*:*", slaveClient);
+    SolrDocumentList slaveQueryResult = (SolrDocumentList) slaveQueryRsp.get("response");
+    assertEquals(numDocs, slaveQueryResult.getNumFound());
+    String cmp = BaseDistributedSearchTestCase.compare(masterQueryResult, slaveQueryResult, 0, null);
+    assertEquals(null, cmp);
+
+    assertVersions(masterClient, slaveClient);
+    checkForSingleIndex(slaveJetty);
+  }
+
   @Test 
   public void doTestStressReplication() throws Exception {
     // change solrconfig on slave
@@ -19,6 +19,7 @@ package org.apache.solr.handler.component;
 
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.cloud.AbstractFullDistribZkTestBase;
+import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.ShardParams;
 import org.apache.solr.common.util.SimpleOrderedMap;
@@ -26,6 +27,7 @@ import org.apache.solr.common.util.StrUtils;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -94,6 +96,17 @@ public class DistributedQueryComponentOptimizationTest extends AbstractFullDistr
     QueryResponse nonDistribRsp = query("q", "*:*", "fl", "id,test_sS,score", "sort", "payload asc", "rows", "20");
     compareResponses(rsp, nonDistribRsp); // make sure distrib and distrib.singlePass return the same thing
 
+    // a small enough result switches to a single pass by itself
+    rsp = query("q", "*:*", "fl", "id,test_sS,score", "sort", "payload asc", "rows", "20", ShardParams.DISTRIB_SINGLE_PASS_MAX_DOCS, "1000");
+    assertFieldValues(rsp.getResults(), "test_sS", "27", "21", "26", "24", "22", "30", "32", "23", "25", "29", "28", "33", "31");
+    compareResponses(rsp, nonDistribRsp);
+
+    // estimated per-shard rows must not change the merged page
+    nonDistribRsp = query("q", "*:*", "fl", "id,score", "sort", "payload asc", "start", "2", "rows", "30");
+    rsp = query("q", "*:*", "fl", "id,score", "sort", "payload asc", "start", "2", "rows", "30", ShardParams.SHARDS_ROWS_ESTIMATE, "true");
+    assertFieldValues(rsp.getResults(), id, 6, 4, 2, 10, 12, 3, 5, 9, 8, 13, 11);
+    compareResponses(rsp, nonDistribRsp);
+
     nonDistribRsp = query("q", "*:*", "fl", "score", "sort", "payload asc", "rows", "20");
     rsp = query("q", "*:*", "fl", "score", "sort", "payload asc", "rows", "20", "distrib.singlePass", "true");
     compareResponses(rsp, nonDistribRsp); // make sure distrib and distrib.singlePass return the same thing
@@ -144,6 +157,74 @@ public class DistributedQueryComponentOptimizationTest extends AbstractFullDistr
     // fl=*,score
     queryWithAsserts("q", "*:*", "fl", "*,score", "sort", "payload desc", ShardParams.DISTRIB_SINGLE_PASS, "true");
     queryWithAsserts("q", "*:*", "fl", "*,score", "sort", "payload desc");
+
+    testEstimatedShardRowsRefetch();
+  }
+
+  /**
+   * Skews the matching docs towards one shard so that it holds more of the merged window than the
+   * rows estimated for it, which must make the top ids of that shard be fetched again with the full rows.
+   */
+  private void testEstimatedShardRowsRefetch() throws Exception {
+    for (int i = 1000; i < 1200; i++) {
+      index(id, String.valueOf(i), "test_sS", String.valueOf(i));
+    }
+    commit();
+
+    List<Integer> shard1Ids = getShardIds(SHARD1);
+    List<Integer> shard2Ids = getShardIds(SHARD2);
+    assertTrue("too few docs in " + SHARD1 + ": " + shard1Ids.size(), shard1Ids.size() >= 60);
+
+    // 60 docs of shard1 and the docs of shard2 that sort after them: with 2 shards and rows=50 each shard
+    // is only asked for 46 rows, but the whole page comes from shard1
+    List<Integer> matching = new ArrayList<>(shard1Ids.subList(0, 60));
+    for (int shard2Id : shard2Ids) {
+      if (shard2Id > shard1Ids.get(59)) {
+        matching.add(shard2Id);
+      }
+    }
+    StringBuilder q = new StringBuilder("id:(");
+    for (int i = 0; i < matching.size(); i++) {
+      if (i > 0) q.append(" OR ");
+      q.append(matching.get(i));
+    }
+    q.append(')');
+    Object[] expected = shard1Ids.subList(0, 50).toArray();
+
+    for (String fl : new String[] {"id", "id,test_sS"}) {
+      TrackingShardHandlerFactory.RequestTrackingQueue trackingQueue = new TrackingShardHandlerFactory.RequestTrackingQueue();
+      TrackingShardHandlerFactory.setTrackingQueue(jettys, trackingQueue);
+
+      QueryResponse nonDistribRsp = query("q", q.toString(), "fl", fl, "sort", "id asc", "rows", "50");
+      QueryResponse rsp = query("q", q.toString(), "fl", fl, "sort", "id asc", "rows", "50", ShardParams.SHARDS_ROWS_ESTIMATE, "true");
+      assertFieldValues(rsp.getResults(), id, expected);
+      assertEquals(matching.size(), rsp.getResults().getNumFound());
+      compareResponses(rsp, nonDistribRsp);
+
+      int fullRowsRequests = 0;
+      for (TrackingShardHandlerFactory.ShardRequestAndParams request
+          : trackingQueue.getShardRequests(cloudClient.getZkStateReader(), DEFAULT_COLLECTION, SHARD1)) {
+        if ((request.sreq.purpose & ShardRequest.PURPOSE_PRIVATE) != 0) {
+          assertTrue((request.sreq.purpose & ShardRequest.PURPOSE_GET_TOP_IDS) != 0);
+          assertEquals("50", request.params.get(CommonParams.ROWS));
+          fullRowsRequests++;
+        } else if ((request.sreq.purpose & ShardRequest.PURPOSE_GET_TOP_IDS) != 0
+            && request.params.getBool(ShardParams.SHARDS_ROWS_ESTIMATE, false)) {
+          assertEquals("46", request.params.get(CommonParams.ROWS));
+        }
+      }
+      assertEquals("top ids of " + SHARD1 + " were not fetched again with the full rows", 1, fullRowsRequests);
+    }
+  }
+
+  private List<Integer> getShardIds(String shard) throws Exception {
+    QueryResponse rsp = cloudClient.query(params("q", "id:[1000 TO 1199]", "fl", "id", "sort", "id asc",
+        "rows", "200", ShardParams.SHARDS, shard));
+    List<Integer> ids = new ArrayList<>();
+    for (SolrDocument doc : rsp.getResults()) {
+      ids.add(((Number) doc.getFieldValue(id)).intValue());
+    }
+    return ids;
   }
 
   /**
@@ -198,6 +198,47 @@ public class SuggestComponentTest extends SolrTestCaseJ4 {
         );
   }
   
+  @Test
+  public void testIncrementalBuild() throws Exception {
+    final String suggester = "suggest_infix_doc_dict_incremental";
+    assertU(adoc("id", "100", "cat", "incremental first", "price", "60", "weight", "50"));
+    assertU((commit()));
+    waitForWarming();
+    assertQ(req("qt", rh, 
+        SuggesterParams.SUGGEST_DICT, suggester,
+        SuggesterParams.SUGGEST_Q, "incremental",
+        SuggesterParams.SUGGEST_COUNT, "5"),
+        "//lst[@name='suggest']/lst[@name='" + suggester + "']/lst[@name='incremental']/int[@name='numFound'][.='1']",
+        "//lst[@name='suggest']/lst[@name='" + suggester + "']/lst[@name='incremental']/arr[@name='suggestions']/lst[1]/str[@name='term'][.='incremental first']"
+        );
+    
+    // the second commit adds the documents of its new segment
+    assertU(adoc("id", "101", "cat", "incremental second", "price", "65", "weight", "50"));
+    assertU((commit()));
+    waitForWarming();
+    assertQ(req("qt", rh, 
+        SuggesterParams.SUGGEST_DICT, suggester,
+        SuggesterParams.SUGGEST_Q, "incremental",
+        SuggesterParams.SUGGEST_COUNT, "5"),
+        "//lst[@name='suggest']/lst[@name='" + suggester + "']/lst[@name='incremental']/int[@name='numFound'][.='2']",
+        "//lst[@name='suggest']/lst[@name='" + suggester + "']/lst[@name='incremental']/arr[@name='suggestions']/lst[1]/str[@name='term'][.='incremental second']",
+        "//lst[@name='suggest']/lst[@name='" + suggester + "']/lst[@name='incremental']/arr[@name='suggestions']/lst[2]/str[@name='term'][.='incremental first']"
+        );
+    
+    // an explicit build is a full one, which drops the suggestions of deleted documents
+    assertU(delI("100"));
+    assertU((commit()));
+    waitForWarming();
+    assertQ(req("qt", rh, 
+        SuggesterParams.SUGGEST_DICT, suggester,
+        SuggesterParams.SUGGEST_BUILD, "true",
+        SuggesterParams.SUGGEST_Q, "incremental",
+        SuggesterParams.SUGGEST_COUNT, "5"),
+        "//lst[@name='suggest']/lst[@name='" + suggester + "']/lst[@name='incremental']/int[@name='numFound'][.='1']",
+        "//lst[@name='suggest']/lst[@name='" + suggester + "']/lst[@name='incremental']/arr[@name='suggestions']/lst[1]/str[@name='term'][.='incremental second']"
+        );
+  }
+  
 
   @Test
   public void testDefaultBuildOnStartupNotStoredDict() throws Exception {
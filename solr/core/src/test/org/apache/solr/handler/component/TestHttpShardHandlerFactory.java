@@ -0,0 +1,132 @@
+package org.apache.solr.handler.component;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.LBHttpSolrClient;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.PluginInfo;
+import org.junit.Test;
+
+/**
+ * Tests hedged shard requests of {@link HttpShardHandlerFactory}, with a fake load balanced
+ * request in place of HTTP.
+ */
+public class TestHttpShardHandlerFactory extends SolrTestCaseJ4 {
+
+  private static final String SLOW = "http://slow/solr";
+  private static final String FAST = "http://fast/solr";
+
+  /** Answers at once, except for requests starting at {@link #SLOW}, which wait to be released. */
+  private static class FakeShardHandlerFactory extends HttpShardHandlerFactory {
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger requests = new AtomicInteger();
+
+    @Override
+    public LBHttpSolrClient.Rsp makeLoadBalancedRequest(QueryRequest req, final List<String> urls)
+        throws SolrServerException, IOException {
+      requests.incrementAndGet();
+      if (urls.get(0).equals(SLOW)) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new SolrServerException(e);
+        }
+      }
+      return new LBHttpSolrClient.Rsp() {{
+        server = urls.get(0);
+      }};
+    }
+  }
+
+  private static FakeShardHandlerFactory newFactory(Object... args) {
+    NamedList<Object> initArgs = new NamedList<>();
+    for (int i = 0; i < args.length; i += 2) {
+      initArgs.add((String) args[i], args[i + 1]);
+    }
+    FakeShardHandlerFactory factory = new FakeShardHandlerFactory();
+    factory.init(new PluginInfo("shardHandlerFactory", Collections.<String,String>emptyMap(), initArgs, null));
+    return factory;
+  }
+
+  @Test
+  public void testHedgedRequest() throws Exception {
+    FakeShardHandlerFactory factory = newFactory(HttpShardHandlerFactory.INIT_HEDGE_DELAY, 10);
+    try {
+      LBHttpSolrClient.Rsp rsp = factory.makeHedgedRequest(null, Arrays.asList(SLOW, FAST));
+      assertEquals(FAST, rsp.getServer());
+      assertEquals(2, factory.requests.get());
+    } finally {
+      factory.release.countDown();
+      factory.close();
+    }
+  }
+
+  @Test
+  public void testNoHedgeWhenFast() throws Exception {
+    FakeShardHandlerFactory factory = newFactory(HttpShardHandlerFactory.INIT_HEDGE_DELAY, 60000);
+    try {
+      LBHttpSolrClient.Rsp rsp = factory.makeHedgedRequest(null, Arrays.asList(FAST, SLOW));
+      assertEquals(FAST, rsp.getServer());
+      assertEquals(1, factory.requests.get());
+    } finally {
+      factory.release.countDown();
+      factory.close();
+    }
+  }
+
+  @Test
+  public void testHedgedRequestFromExhaustedPool() throws Exception {
+    // a single shard request thread and queue slot, both taken while the hedged request is made
+    final FakeShardHandlerFactory factory = newFactory(
+        HttpShardHandlerFactory.INIT_CORE_POOL_SIZE, 1,
+        HttpShardHandlerFactory.INIT_MAX_POOL_SIZE, 1,
+        HttpShardHandlerFactory.INIT_SIZE_OF_QUEUE, 1,
+        HttpShardHandlerFactory.INIT_HEDGE_DELAY, 10);
+    try {
+      Future<LBHttpSolrClient.Rsp> rsp = factory.getThreadPoolExecutor().submit(new Callable<LBHttpSolrClient.Rsp>() {
+        @Override
+        public LBHttpSolrClient.Rsp call() throws Exception {
+          return factory.makeHedgedRequest(null, Arrays.asList(SLOW, FAST));
+        }
+      });
+      Future<?> queued = factory.getThreadPoolExecutor().submit(new Runnable() {
+        @Override
+        public void run() {}
+      });
+      assertEquals(FAST, rsp.get(30, TimeUnit.SECONDS).getServer());
+      queued.get(30, TimeUnit.SECONDS);
+    } finally {
+      factory.release.countDown();
+      factory.close();
+    }
+  }
+}
@@ -33,6 +33,7 @@ import org.apache.lucene.index.LogDocMergePolicy;
 import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.queries.function.FunctionValues;
 import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.util.NamedList;
@@ -87,6 +88,47 @@ public class TestIndexSearcher extends SolrTestCaseJ4 {
     return vals.strVal(doc-leaf.docBase);
   }
 
+  public void testLookupId() throws Exception {
+    // one segment per commit, with disjoint id ranges except for the gaps in the second one
+    assertU(adoc("id","1"));
+    assertU(adoc("id","2"));
+    assertU(commit());
+    assertU(adoc("id","100"));
+    assertU(adoc("id","110"));
+    assertU(adoc("id","120"));
+    assertU(commit());
+    assertU(adoc("id","1000"));
+    assertU(adoc("id","1001"));
+    assertU(commit());
+    assertU(delI("110"));
+    assertU(commit());
+
+    SolrQueryRequest req = req("q","*:*");
+    try {
+      SolrIndexSearcher searcher = req.getSearcher();
+      assertTrue(searcher.getIndexReader().leaves().size() >= 3);
+      for (String id : new String[] {"1", "2", "100", "120", "1000", "1001"}) {
+        long lookup = lookupId(searcher, id);
+        assertTrue("id " + id + " not found", lookup >= 0);
+        LeafReaderContext leaf = searcher.getIndexReader().leaves().get((int) (lookup >> 32));
+        int doc = leaf.docBase + (int) lookup;
+        assertEquals(id, searcher.doc(doc).get("id"));
+      }
+      // outside of all ranges, between ranges, in a range but missing, and deleted
+      for (String id : new String[] {"0", "50", "105", "500", "5000", "110"}) {
+        assertEquals("id " + id, -1, lookupId(searcher, id));
+      }
+    } finally {
+      req.close();
+    }
+  }
+
+  private static long lookupId(SolrIndexSearcher searcher, String id) throws IOException {
+    BytesRefBuilder indexed = new BytesRefBuilder();
+    searcher.getSchema().getUniqueKeyField().getType().readableToIndexed(id, indexed);
+    return searcher.lookupId(indexed.get());
+  }
+
   public void testReopen() throws Exception {
 
     assertU(adoc("id","1", "v_t","Hello Dude", "v_s1","string1"));
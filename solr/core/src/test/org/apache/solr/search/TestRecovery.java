@@ -1173,6 +1173,75 @@ public class TestRecovery extends SolrTestCaseJ4 {
   }
 
 
+  @Test
+  public void testParallelLogReplay() throws Exception {
+    try {
+      DirectUpdateHandler2.commitOnClose = false;
+      final Semaphore logReplayFinish = new Semaphore(0);
+
+      UpdateLog.testing_logReplayFinishHook = new Runnable() {
+        @Override
+        public void run() {
+          logReplayFinish.release();
+        }
+      };
+
+      clearIndex();
+      assertU(commit());
+
+      // interleaved updates and deletes of the same ids, so that replaying the
+      // updates of an id out of order would leave the wrong version behind
+      final int numIds = 20;
+      final Long[] expectedVersions = new Long[numIds];
+      final int[] expectedValues = new int[numIds];
+      for (int round = 0; round < 10; round++) {
+        for (int i = 0; i < numIds; i++) {
+          final String id = "P" + i;
+          if (random().nextInt(4) == 0) {
+            deleteAndGetVersion(id, null);
+            expectedVersions[i] = null;
+          } else {
+            expectedVersions[i] = addAndGetVersion(sdoc("id", id, "val_i", round), null);
+            expectedValues[i] = round;
+          }
+        }
+        if (round == 5) {
+          // a barrier in the middle of the log
+          deleteByQueryAndGetVersion("id:P0", null);
+          expectedVersions[0] = null;
+        }
+      }
+
+      h.close();
+      System.setProperty("solr.ulog.numReplayThreads", "4");
+      try {
+        createCore();
+        assertEquals(4, h.getCore().getUpdateHandler().getUpdateLog().getNumReplayThreads());
+        assertTrue(logReplayFinish.tryAcquire(timeout, TimeUnit.SECONDS));
+      } finally {
+        System.clearProperty("solr.ulog.numReplayThreads");
+      }
+
+      int numLive = 0;
+      for (int i = 0; i < numIds; i++) {
+        final String id = "P" + i;
+        if (expectedVersions[i] == null) {
+          assertJQ(req("qt","/get","id",id, "fl","id,_version_,val_i"), "=={'doc':null}");
+        } else {
+          numLive++;
+          assertJQ(req("qt","/get","id",id, "fl","id,_version_,val_i"),
+              "=={'doc':{'id':'" + id + "','_version_':" + expectedVersions[i] + ",'val_i':" + expectedValues[i] + "}}");
+        }
+      }
+      assertJQ(req("q","id:P*"), "/response/numFound==" + numLive);
+
+    } finally {
+      DirectUpdateHandler2.commitOnClose = true;
+      UpdateLog.testing_logReplayFinishHook = null;
+    }
+  }
+
+
   // NOTE: replacement must currently be same size
   private static void findReplace(byte[] from, byte[] to, byte[] data) {
     int idx = -from.length;
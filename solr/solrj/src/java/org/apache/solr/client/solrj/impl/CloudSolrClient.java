@@ -196,6 +196,7 @@ public class CloudSolrClient extends SolrClient {
       this.clientIsInternal = true;
       this.myClient = HttpClientUtil.createClient(null);
       this.lbClient = new LBHttpSolrClient(myClient);
+      this.lbClient.setReplicaSelector(new ReplicaSelector(rand));
       this.lbClient.setRequestWriter(new BinaryRequestWriter());
       this.lbClient.setParser(new BinaryResponseParser());
       this.updatesToLeaders = true;
@@ -231,6 +232,7 @@ public class CloudSolrClient extends SolrClient {
     this.clientIsInternal = httpClient == null;
     this.myClient = httpClient == null ? HttpClientUtil.createClient(null) : httpClient;
     this.lbClient = new LBHttpSolrClient(myClient);
+    this.lbClient.setReplicaSelector(new ReplicaSelector(rand));
     this.lbClient.setRequestWriter(new BinaryRequestWriter());
     this.lbClient.setParser(new BinaryResponseParser());
     this.updatesToLeaders = true;
@@ -308,6 +310,7 @@ public class CloudSolrClient extends SolrClient {
     this.clientIsInternal = httpClient == null;
     this.myClient = httpClient == null ? HttpClientUtil.createClient(null) : httpClient;
     this.lbClient = new LBHttpSolrClient(myClient);
+    this.lbClient.setReplicaSelector(new ReplicaSelector(rand));
     this.lbClient.setRequestWriter(new BinaryRequestWriter());
     this.lbClient.setParser(new BinaryResponseParser());
     this.updatesToLeaders = true;
@@ -340,6 +343,7 @@ public class CloudSolrClient extends SolrClient {
     this.clientIsInternal = httpClient == null;
     this.myClient = httpClient == null ? HttpClientUtil.createClient(null) : httpClient;
     this.lbClient = new LBHttpSolrClient(myClient);
+    this.lbClient.setReplicaSelector(new ReplicaSelector(rand));
     this.lbClient.setRequestWriter(new BinaryRequestWriter());
     this.lbClient.setParser(new BinaryResponseParser());
     this.updatesToLeaders = updatesToLeaders;
@@ -1086,6 +1090,11 @@ public class CloudSolrClient extends SolrClient {
       }
 
       Collections.shuffle(theUrlList, rand);
+      ReplicaSelector replicaSelector = lbClient.getReplicaSelector();
+      if (!sendToLeaders && replicaSelector != null) {
+        // prefer the less loaded of two random replicas
+        replicaSelector.order(theUrlList);
+      }
       if (sendToLeaders) {
         ArrayList<String> theReplicas = new ArrayList<>(
             replicasList.size());
@@ -208,6 +208,8 @@ public class ConcurrentUpdateSolrClient extends SolrClient {
           final boolean isXml = ClientUtils.TEXT_XML.equals(contentType);
 
           final ModifiableSolrParams origParams = new ModifiableSolrParams(updateRequest.getParams());
+          // computed once per stream rather than once per queued request
+          final NamedList<Object> origParamsList = origParams.toNamedList();
 
           EntityTemplate template = new EntityTemplate(new ContentProducer() {
 
@@ -219,8 +221,8 @@ public class ConcurrentUpdateSolrClient extends SolrClient {
                 }
                 UpdateRequest req = updateRequest;
                 while (req != null) {
-                  SolrParams currentParams = new ModifiableSolrParams(req.getParams());
-                  if (!origParams.toNamedList().equals(currentParams.toNamedList())) {
+                  SolrParams currentParams = req.getParams() != null ? req.getParams() : new ModifiableSolrParams();
+                  if (!origParamsList.equals(currentParams.toNamedList())) {
                     queue.add(req); // params are different, push back to queue
                     break;
                   }
@@ -107,6 +107,7 @@ public class LBHttpSolrClient extends SolrClient {
   private static final SolrQuery solrQuery = new SolrQuery("*:*");
   private volatile ResponseParser parser;
   private volatile RequestWriter requestWriter;
+  private volatile ReplicaSelector replicaSelector;
 
   private Set<String> queryParams = new HashSet<>();
 
@@ -368,8 +369,16 @@ public class LBHttpSolrClient extends SolrClient {
   protected Exception doRequest(HttpSolrClient client, Req req, Rsp rsp, boolean isUpdate,
       boolean isZombie, String zombieKey) throws SolrServerException, IOException {
     Exception ex = null;
+    final ReplicaSelector selector = replicaSelector;
+    final long startTime = System.nanoTime();
+    if (selector != null) {
+      selector.requestStarted(client.getBaseURL());
+    }
+    // whether the server answered normally, as opposed to failing
+    boolean answered = false;
     try {
       rsp.rsp = client.request(req.getRequest(), (String) null);
+      answered = true;
       if (isZombie) {
         zombieServers.remove(zombieKey);
       }
@@ -380,6 +389,7 @@ public class LBHttpSolrClient extends SolrClient {
         ex = (!isZombie) ? addZombie(client, e) : e;
       } else {
         // Server is alive but the request was likely malformed or invalid
+        answered = true;
         if (isZombie) {
           zombieServers.remove(zombieKey);
         }
@@ -408,6 +418,14 @@ public class LBHttpSolrClient extends SolrClient {
       }
     } catch (Exception e) {
       throw new SolrServerException(e);
+    } finally {
+      if (selector != null) {
+        if (answered) {
+          selector.requestFinished(client.getBaseURL(), System.nanoTime() - startTime);
+        } else {
+          selector.requestFailed(client.getBaseURL(), System.nanoTime() - startTime);
+        }
+      }
     }
 
     return ex;
@@ -692,6 +710,18 @@ public class LBHttpSolrClient extends SolrClient {
     this.parser = parser;
   }
 
+  /**
+   * Sets a {@link ReplicaSelector} that is told about the start and end of every request made through
+   * {@link #request(Req)}, or null (the default) to not track requests.
+   */
+  public void setReplicaSelector(ReplicaSelector replicaSelector) {
+    this.replicaSelector = replicaSelector;
+  }
+
+  public ReplicaSelector getReplicaSelector() {
+    return replicaSelector;
+  }
+
   /**
    * Changes the {@link RequestWriter} that will be used for the internal
    * SolrServer objects.
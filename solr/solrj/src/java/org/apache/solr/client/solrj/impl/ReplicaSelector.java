@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps an exponentially decayed average response time and the number of in-flight requests
+ * for each server url, and uses them to pick which of several equivalent replicas to try first.
+ * <p>
+ * Selection uses the "power of two choices": two candidates are picked at random and the one with
+ * the lower expected cost (average response time times the number of requests it would be serving)
+ * goes first. This moves traffic away from replicas that are slow, for example because of a merge or a
+ * GC pause, without sending everything to the single fastest one.
+ * <p>
+ * Since a server which loses the comparison gets no new samples, its average also decays over time
+ * toward the average of the other servers, and is forgotten entirely once it is older than a minute.
+ * An idle server without a recent sample is tried first, so a replica which was slow or failed
+ * once gets probed again instead of being starved for good.
+ * <p>
+ * This class is thread safe. {@link LBHttpSolrClient} records requests through
+ * {@link LBHttpSolrClient#setReplicaSelector(ReplicaSelector)}.
+ *
+ * @lucene.experimental
+ */
+public class ReplicaSelector {
+
+  /** Weight of a new response time sample in the decayed average. */
+  private static final double SAMPLE_WEIGHT = 0.2;
+
+  /** A failed request counts as this many times the usual response time. */
+  private static final double FAILURE_PENALTY = 4;
+
+  /** A failed request counts as at least this long, even if it failed fast. */
+  private static final long MIN_FAILURE_PENALTY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  /** Time after which half of the difference between a server's average and that of the other servers is gone. */
+  static final long DECAY_HALF_LIFE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  /** Samples older than this are forgotten, so that the server gets tried again. */
+  static final long MAX_SAMPLE_AGE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+  /** Idle servers are removed from the statistics once more than this many servers are tracked. */
+  static final int MAX_TRACKED_SERVERS = 1024;
+
+  private final ConcurrentMap<String,ServerStats> stats = new ConcurrentHashMap<>();
+  private final Random random;
+
+  public ReplicaSelector() {
+    this(new Random());
+  }
+
+  public ReplicaSelector(Random random) {
+    this.random = random;
+  }
+
+  private static class ServerStats {
+    final AtomicInteger inFlight = new AtomicInteger();
+    // guarded by "this"
+    double avgNanos;
+    long lastSampleNanos;
+    boolean sampled;
+
+    synchronized void addSample(long elapsedNanos, long now, double othersNanos) {
+      if (isSampled(now)) {
+        double current = getAvgNanos(now, othersNanos);
+        avgNanos = current + SAMPLE_WEIGHT * (elapsedNanos - current);
+      } else {
+        avgNanos = elapsedNanos;
+        sampled = true;
+      }
+      lastSampleNanos = now;
+    }
+
+    /** Whether the server has a sample which is not older than {@link #MAX_SAMPLE_AGE_NANOS}. */
+    synchronized boolean isSampled(long now) {
+      return sampled && now - lastSampleNanos <= MAX_SAMPLE_AGE_NANOS;
+    }
+
+    /** The average as of the last sample, without decay. */
+    synchronized double getLastAvgNanos() {
+      return avgNanos;
+    }
+
+    /** The average decayed toward the given average of the other servers, or not at all if that is negative. */
+    synchronized double getAvgNanos(long now, double othersNanos) {
+      if (othersNanos < 0) {
+        return avgNanos;
+      }
+      double remaining = Math.pow(0.5, (now - lastSampleNanos) / (double) DECAY_HALF_LIFE_NANOS);
+      return othersNanos + (avgNanos - othersNanos) * remaining;
+    }
+  }
+
+  /** The sum and count of the last averages of all servers with a recent sample. */
+  private static class FleetStats {
+    double sumNanos;
+    int count;
+
+    /** Returns the mean of all servers but the given one, or -1 if there are no other servers. */
+    double othersNanos(ServerStats exclude, long now) {
+      double sum = sumNanos;
+      int n = count;
+      if (exclude != null && exclude.isSampled(now)) {
+        sum -= exclude.getLastAvgNanos();
+        n--;
+      }
+      return n <= 0 ? -1 : sum / n;
+    }
+  }
+
+  /** Returns the current time; tests override it. */
+  long nanoTime() {
+    return System.nanoTime();
+  }
+
+  /** Strips a trailing '/' so that core urls and client base urls map to the same server. */
+  private static String key(String url) {
+    return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+  }
+
+  private ServerStats getStats(String url) {
+    String key = key(url);
+    ServerStats serverStats = stats.get(key);
+    if (serverStats == null) {
+      if (stats.size() >= MAX_TRACKED_SERVERS) {
+        prune(nanoTime());
+      }
+      ServerStats newStats = new ServerStats();
+      serverStats = stats.putIfAbsent(key, newStats);
+      if (serverStats == null) serverStats = newStats;
+    }
+    return serverStats;
+  }
+
+  /**
+   * Removes idle servers without a recent sample, which cost the same as unknown servers, and if that
+   * is not enough, any idle servers, until fewer than {@link #MAX_TRACKED_SERVERS} are tracked.
+   */
+  private void prune(long now) {
+    for (Iterator<ServerStats> it = stats.values().iterator(); it.hasNext(); ) {
+      ServerStats serverStats = it.next();
+      if (serverStats.inFlight.get() <= 0 && serverStats.isSampled(now) == false) {
+        it.remove();
+      }
+    }
+    for (Iterator<ServerStats> it = stats.values().iterator(); it.hasNext() && stats.size() >= MAX_TRACKED_SERVERS; ) {
+      if (it.next().inFlight.get() <= 0) {
+        it.remove();
+      }
+    }
+  }
+
+  /** Returns the number of servers with statistics. */
+  int getTrackedServerCount() {
+    return stats.size();
+  }
+
+  private FleetStats getFleetStats(long now) {
+    FleetStats fleet = new FleetStats();
+    for (ServerStats serverStats : stats.values()) {
+      if (serverStats.isSampled(now)) {
+        fleet.sumNanos += serverStats.getLastAvgNanos();
+        fleet.count++;
+      }
+    }
+    return fleet;
+  }
+
+  /** Records that a request to the given server has been sent. */
+  public void requestStarted(String url) {
+    getStats(url).inFlight.incrementAndGet();
+  }
+
+  /** Records that a request to the given server, started with {@link #requestStarted}, has completed. */
+  public void requestFinished(String url, long elapsedNanos) {
+    ServerStats serverStats = getStats(url);
+    serverStats.inFlight.decrementAndGet();
+    long now = nanoTime();
+    serverStats.addSample(elapsedNanos, now, getFleetStats(now).othersNanos(serverStats, now));
+  }
+
+  /**
+   * Records that a request to the given server, started with {@link #requestStarted}, has failed. A failure
+   * is recorded as a slow response, so that servers which fail fast are not preferred.
+   */
+  public void requestFailed(String url, long elapsedNanos) {
+    ServerStats serverStats = getStats(url);
+    serverStats.inFlight.decrementAndGet();
+    long now = nanoTime();
+    double othersNanos = getFleetStats(now).othersNanos(serverStats, now);
+    double usualNanos = serverStats.isSampled(now) ? serverStats.getAvgNanos(now, othersNanos) : Math.max(othersNanos, 0);
+    double penalty = FAILURE_PENALTY * Math.max(elapsedNanos, usualNanos);
+    serverStats.addSample((long) Math.max(penalty, MIN_FAILURE_PENALTY_NANOS), now, othersNanos);
+  }
+
+  /**
+   * Returns the expected cost of sending a request to the server: its average response time times the
+   * number of requests it would be serving. Servers without recent samples are assumed to be as fast as
+   * the average server, so only a server which is unknown and idle has a cost of 0.
+   */
+  public double getCost(String url) {
+    long now = nanoTime();
+    return getCost(url, now, getFleetStats(now));
+  }
+
+  private double getCost(String url, long now, FleetStats fleet) {
+    ServerStats serverStats = stats.get(key(url));
+    if (serverStats == null) {
+      return 0;
+    }
+    // a server which was pruned while a request was in flight may go below 0
+    int requests = Math.max(serverStats.inFlight.get(), 0) + 1;
+    if (serverStats.isSampled(now)) {
+      return serverStats.getAvgNanos(now, fleet.othersNanos(serverStats, now)) * requests;
+    }
+    if (requests == 1) {
+      return 0;
+    }
+    // never 0, so that requests pile up behind the first one to a server that doesn't answer
+    return Math.max(fleet.othersNanos(null, now), 1) * requests;
+  }
+
+  /**
+   * Moves the preferred url to the front of the (usually already shuffled) list, leaving the order
+   * of the others alone so they still serve as fail-over candidates.
+   */
+  public void order(List<String> urls) {
+    int size = urls.size();
+    if (size < 2) return;
+    int first = random.nextInt(size);
+    int second = random.nextInt(size - 1);
+    if (second >= first) second++;
+    long now = nanoTime();
+    FleetStats fleet = getFleetStats(now);
+    int best = getCost(urls.get(second), now, fleet) < getCost(urls.get(first), now, fleet) ? second : first;
+    if (best != 0) {
+      urls.add(0, urls.remove(best));
+    }
+  }
+}
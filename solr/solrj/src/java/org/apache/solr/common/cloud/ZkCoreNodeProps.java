@@ -70,5 +70,10 @@ public class ZkCoreNodeProps {
     return nodeProps.containsKey(ZkStateReader.LEADER_PROP);
   }
 
+  /** Pull replicas copy the leader's index instead of indexing updates, so updates are not sent to them. */
+  public boolean isPullReplica() {
+    return nodeProps.getBool(ZkStateReader.PULL_REPLICA_PROP, false);
+  }
+
 
 }
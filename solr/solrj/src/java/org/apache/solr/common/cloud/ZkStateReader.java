@@ -72,6 +72,7 @@ public class ZkStateReader implements Closeable {
   public static final String SHARD_PARENT_PROP = "shard_parent";
   public static final String NUM_SHARDS_PROP = "numShards";
   public static final String LEADER_PROP = "leader";
+  public static final String PULL_REPLICA_PROP = "pullReplica";
   public static final String PROPERTY_PROP = "property";
   public static final String PROPERTY_VALUE_PROP = "property.value";
   public static final String MAX_AT_ONCE_PROP = "maxAtOnce";
@@ -241,7 +242,7 @@ public class ZkStateReader implements Closeable {
       // Need a copy so we don't delete from what we're iterating over.
       Collection<String> safeCopy = new ArrayList<>(watchedCollectionStates.keySet());
       for (String coll : safeCopy) {
-        DocCollection newState = fetchCollectionState(coll, null);
+        DocCollection newState = fetchCollectionStateIfChanged(coll, null, watchedCollectionStates.get(coll));
         updateWatchedCollection(coll, newState);
       }
       refreshCollectionList(null);
@@ -506,6 +507,8 @@ public class ZkStateReader implements Closeable {
   private class LazyCollectionRef extends ClusterState.CollectionRef {
 
     private final String collName;
+    // the last state read; only re-parsed once the znode version moves on
+    private volatile DocCollection cachedDocCollection;
 
     public LazyCollectionRef(String collName) {
       super(null);
@@ -514,8 +517,16 @@ public class ZkStateReader implements Closeable {
 
     @Override
     public DocCollection get() {
-      // TODO: consider limited caching
-      return getCollectionLive(ZkStateReader.this, collName);
+      try {
+        DocCollection state = fetchCollectionStateIfChanged(collName, null, cachedDocCollection);
+        cachedDocCollection = state;
+        return state;
+      } catch (KeeperException e) {
+        throw new SolrException(ErrorCode.BAD_REQUEST, "Could not load collection from ZK: " + collName, e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SolrException(ErrorCode.BAD_REQUEST, "Could not load collection from ZK: " + collName, e);
+      }
     }
 
     @Override
@@ -815,9 +826,12 @@ public class ZkStateReader implements Closeable {
       LOG.info("A cluster state change: [{}] for collection [{}] has occurred - updating... (live nodes size: [{}])",
               event, coll, liveNodesSize);
 
-      refreshAndWatch(true);
-      synchronized (getUpdateLock()) {
-        constructState();
+      if (refreshAndWatch(true)) {
+        // rebuilding the cluster state touches every collection, so skip it if an earlier
+        // event already picked up this version
+        synchronized (getUpdateLock()) {
+          constructState();
+        }
       }
     }
 
@@ -827,15 +841,17 @@ public class ZkStateReader implements Closeable {
      * with the results of the refresh.
      *
      * @param expectExists if true, error if no state node exists
+     * @return true if {@link #watchedCollectionStates} changed
      */
-    public void refreshAndWatch(boolean expectExists) {
+    public boolean refreshAndWatch(boolean expectExists) {
       try {
-        DocCollection newState = fetchCollectionState(coll, this);
-        updateWatchedCollection(coll, newState);
+        DocCollection newState = fetchCollectionStateIfChanged(coll, this, watchedCollectionStates.get(coll));
+        return updateWatchedCollection(coll, newState);
       } catch (KeeperException.NoNodeException e) {
         if (expectExists) {
           LOG.warn("State node vanished for collection: [{}]", coll, e);
         }
+        return false;
       } catch (KeeperException.SessionExpiredException | KeeperException.ConnectionLossException e) {
         LOG.warn("ZooKeeper watch triggered, but Solr cannot talk to ZK: [{}]", e.getMessage());
       } catch (KeeperException e) {
@@ -845,6 +861,7 @@ public class ZkStateReader implements Closeable {
         Thread.currentThread().interrupt();
         LOG.error("Unwatched collection: [{}]", coll, e);
       }
+      return false;
     }
   }
 
@@ -975,6 +992,44 @@ public class ZkStateReader implements Closeable {
     }
   }
 
+  /**
+   * Like {@link #fetchCollectionState}, but only parses state.json if its version differs from
+   * {@code cached}. With a watcher, or without a cached state, this is a single getData call; without
+   * a watcher, a cached state is checked with an exists call first, so that a refresh of an unchanged
+   * collection doesn't transfer state.json. If the state node doesn't exist, the watcher is set through
+   * exists, so that it fires once the node is created.
+   */
+  private DocCollection fetchCollectionStateIfChanged(String coll, Watcher watcher, DocCollection cached)
+      throws KeeperException, InterruptedException {
+    String collectionPath = getCollectionPath(coll);
+    if (watcher == null && cached != null) {
+      Stat stat = zkClient.exists(collectionPath, null, true);
+      if (stat == null) {
+        return null;
+      }
+      if (cached.getZNodeVersion() == stat.getVersion()) {
+        return cached;
+      }
+    }
+    try {
+      Stat stat = new Stat();
+      byte[] data = zkClient.getData(collectionPath, watcher, stat, true);
+      if (cached != null && cached.getZNodeVersion() == stat.getVersion()) {
+        return cached;
+      }
+      ClusterState state = ClusterState.load(stat.getVersion(), data,
+              Collections.<String>emptySet(), collectionPath);
+      ClusterState.CollectionRef collectionRef = state.getCollectionStates().get(coll);
+      return collectionRef == null ? null : collectionRef.get();
+    } catch (KeeperException.NoNodeException e) {
+      if (watcher != null && zkClient.exists(collectionPath, watcher, true) != null) {
+        // created in the meantime, so the watch set by exists won't fire for it
+        return fetchCollectionStateIfChanged(coll, watcher, cached);
+      }
+      return null;
+    }
+  }
+
   public static String getCollectionPath(String coll) {
     return COLLECTIONS_ZKNODE+"/"+coll + "/state.json";
   }
@@ -989,13 +1044,18 @@ public class ZkStateReader implements Closeable {
     }
   }
 
-  private void updateWatchedCollection(String coll, DocCollection newState) {
+  /** Returns true if {@link #watchedCollectionStates} changed. */
+  private boolean updateWatchedCollection(String coll, DocCollection newState) {
     if (newState == null) {
+      if (watchedCollectionStates.remove(coll) == null) {
+        return false;
+      }
       LOG.info("Deleting data for [{}]", coll);
-      watchedCollectionStates.remove(coll);
-      return;
+      return true;
     }
 
+    boolean changed = false;
+
     // CAS update loop
     while (true) {
       if (!interestingCollections.contains(coll)) {
@@ -1005,6 +1065,7 @@ public class ZkStateReader implements Closeable {
       if (oldState == null) {
         if (watchedCollectionStates.putIfAbsent(coll, newState) == null) {
           LOG.info("Add data for [{}] ver [{}]", coll, newState.getZNodeVersion());
+          changed = true;
           break;
         }
       } else {
@@ -1014,6 +1075,7 @@ public class ZkStateReader implements Closeable {
         }
         if (watchedCollectionStates.replace(coll, oldState, newState)) {
           LOG.info("Updating data for [{}] from [{}] to [{}]", coll, oldState.getZNodeVersion(), newState.getZNodeVersion());
+          changed = true;
           break;
         }
       }
@@ -1023,7 +1085,9 @@ public class ZkStateReader implements Closeable {
     if (!interestingCollections.contains(coll)) {
       watchedCollectionStates.remove(coll);
       LOG.info("Removing uninteresting collection [{}]", coll);
+      changed = true;
     }
+    return changed;
   }
   
   /** This is not a public API. Only used by ZkController */
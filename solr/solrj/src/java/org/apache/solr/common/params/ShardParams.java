@@ -31,6 +31,13 @@ public interface ShardParams {
   /** per-shard start and rows */
   public static final String SHARDS_ROWS = "shards.rows";
   public static final String SHARDS_START = "shards.start";
+
+  /**
+   * Ask each shard for an estimate of the rows it contributes to start+rows instead of all of them,
+   * re-querying with the full rows in the rare case the estimate was too small. Only pays off when
+   * documents are spread randomly across shards, e.g. with compositeId routing. (true/false)
+   */
+  public static final String SHARDS_ROWS_ESTIMATE = "shards.rows.estimate";
   
   /** IDs of the shard documents */
   public static final String IDS = "ids";
@@ -57,4 +64,10 @@ public interface ShardParams {
 
   /** Force a single-pass distributed query? (true/false) */
   public static final String DISTRIB_SINGLE_PASS = "distrib.singlePass";
+
+  /**
+   * When {@link #DISTRIB_SINGLE_PASS} is not set, use a single-pass distributed query if the number of
+   * documents all shards together would return (start+rows per shard) is at most this value. (int, default 0)
+   */
+  public static final String DISTRIB_SINGLE_PASS_MAX_DOCS = "distrib.singlePass.maxDocs";
 }
@@ -19,6 +19,7 @@ package org.apache.solr.common.util;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 import org.noggit.CharArr;
 
@@ -71,8 +72,21 @@ public class ByteUtils {
     out.setEnd(out.getEnd() + n);
   }
 
+  /** Returns true if none of the bytes has its high bit set, i.e. each UTF8 byte is a single char. */
+  public static boolean isASCII(byte[] utf8, int offset, int len) {
+    final int limit = offset + len;
+    for (int i = offset; i < limit; i++) {
+      if (utf8[i] < 0) return false;
+    }
+    return true;
+  }
+
   /** Convert UTF8 bytes into a String */
   public static String UTF8toUTF16(byte[] utf8, int offset, int len) {
+    if (isASCII(utf8, offset, len)) {
+      // decoding is a plain widening copy, done directly into the new String
+      return new String(utf8, offset, len, StandardCharsets.ISO_8859_1);
+    }
     char[] out = new char[len];
     int n = UTF8toUTF16(utf8, offset, len, out, 0);
     return new String(out,0,n);
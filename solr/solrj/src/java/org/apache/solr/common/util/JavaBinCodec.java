@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -659,6 +660,9 @@ public class JavaBinCodec {
     dis.readFully(bytes, 0, sz);
     if (stringCache != null) {
       return stringCache.get(bytesRef.reset(bytes, 0, sz));
+    } else if (ByteUtils.isASCII(bytes, 0, sz)) {
+      // skip the intermediate char buffer: the String is built straight from the bytes
+      return new String(bytes, 0, sz, StandardCharsets.ISO_8859_1);
     } else {
       arr.reset();
       ByteUtils.UTF8toUTF16(bytes, 0, sz, arr);
@@ -902,9 +906,7 @@ public class JavaBinCodec {
       if (result == null) {
         //make a copy because the buffer received may be changed later by the caller
         StringBytes copy = new StringBytes(Arrays.copyOfRange(b.bytes, b.offset, b.offset + b.length), 0, b.length);
-        CharArr arr = new CharArr();
-        ByteUtils.UTF8toUTF16(b.bytes, b.offset, b.length, arr);
-        result = arr.toString();
+        result = ByteUtils.UTF8toUTF16(b.bytes, b.offset, b.length);
         cache.put(copy, result);
       }
       return result;
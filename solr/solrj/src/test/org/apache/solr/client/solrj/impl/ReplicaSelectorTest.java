@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.solr.client.solrj.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the ReplicaSelector.
+ */
+public class ReplicaSelectorTest {
+
+  /** A selector with a clock which only moves when told to. */
+  private static class ManualClockReplicaSelector extends ReplicaSelector {
+    long now = TimeUnit.HOURS.toNanos(1);
+
+    ManualClockReplicaSelector(Random random) {
+      super(random);
+    }
+
+    @Override
+    long nanoTime() {
+      return now;
+    }
+  }
+
+  @Test
+  public void testPrefersFasterServer() {
+    ReplicaSelector selector = new ReplicaSelector(new Random(42));
+    String slow = "http://127.0.0.1:8983/solr/collection1_shard1_replica1/";
+    String fast = "http://127.0.0.1:7574/solr/collection1_shard1_replica2/";
+
+    selector.requestStarted(slow);
+    selector.requestFinished(slow, TimeUnit.MILLISECONDS.toNanos(500));
+    selector.requestStarted(fast);
+    selector.requestFinished(fast, TimeUnit.MILLISECONDS.toNanos(5));
+
+    // the trailing '/' must not matter
+    assertTrue(selector.getCost(fast.substring(0, fast.length() - 1)) < selector.getCost(slow));
+
+    // with only two candidates, both are always compared
+    for (int i = 0; i < 20; i++) {
+      List<String> urls = new ArrayList<>(Arrays.asList(slow, fast));
+      selector.order(urls);
+      assertEquals(fast, urls.get(0));
+      assertEquals(slow, urls.get(1));
+    }
+  }
+
+  @Test
+  public void testInFlightRequestsAddCost() {
+    ReplicaSelector selector = new ReplicaSelector(new Random(42));
+    String busy = "http://127.0.0.1:8983/solr";
+    String idle = "http://127.0.0.1:7574/solr";
+
+    selector.requestStarted(busy);
+    selector.requestFinished(busy, 1000);
+    selector.requestStarted(idle);
+    selector.requestFinished(idle, 1000);
+    assertEquals(selector.getCost(busy), selector.getCost(idle), 0.0);
+
+    selector.requestStarted(busy);
+    selector.requestStarted(busy);
+    assertTrue(selector.getCost(busy) > selector.getCost(idle));
+
+    List<String> urls = new ArrayList<>(Arrays.asList(busy, idle));
+    selector.order(urls);
+    assertEquals(idle, urls.get(0));
+  }
+
+  @Test
+  public void testHangingUnsampledServerIsNotFree() {
+    ReplicaSelector selector = new ReplicaSelector(new Random(42));
+    String hanging = "http://127.0.0.1:8983/solr";
+    String known = "http://127.0.0.1:7574/solr";
+
+    selector.requestStarted(known);
+    selector.requestFinished(known, TimeUnit.MILLISECONDS.toNanos(10));
+
+    // the first request to a new server hasn't completed yet
+    assertEquals(0.0, selector.getCost(hanging), 0.0);
+    selector.requestStarted(hanging);
+    assertTrue(selector.getCost(hanging) > selector.getCost(known));
+
+    List<String> urls = new ArrayList<>(Arrays.asList(hanging, known));
+    selector.order(urls);
+    assertEquals(known, urls.get(0));
+  }
+
+  @Test
+  public void testFailuresArePenalized() {
+    ReplicaSelector selector = new ReplicaSelector(new Random(42));
+    String failing = "http://127.0.0.1:8983/solr";
+    String healthy = "http://127.0.0.1:7574/solr";
+
+    selector.requestStarted(healthy);
+    selector.requestFinished(healthy, TimeUnit.MILLISECONDS.toNanos(50));
+    // fails much faster than the healthy server answers
+    selector.requestStarted(failing);
+    selector.requestFailed(failing, TimeUnit.MILLISECONDS.toNanos(1));
+    assertTrue(selector.getCost(failing) > selector.getCost(healthy));
+
+    List<String> urls = new ArrayList<>(Arrays.asList(failing, healthy));
+    selector.order(urls);
+    assertEquals(healthy, urls.get(0));
+  }
+
+  @Test
+  public void testPenalizedServerRecovers() {
+    ManualClockReplicaSelector selector = new ManualClockReplicaSelector(new Random(42));
+    String failed = "http://127.0.0.1:8983/solr";
+    String healthy = "http://127.0.0.1:7574/solr";
+
+    selector.requestStarted(healthy);
+    selector.requestFinished(healthy, TimeUnit.MILLISECONDS.toNanos(10));
+    selector.requestStarted(failed);
+    selector.requestFailed(failed, TimeUnit.MILLISECONDS.toNanos(1));
+    double penalizedCost = selector.getCost(failed);
+
+    // under light load, only the healthy server gets requests and samples
+    for (int second = 1; second <= ReplicaSelector.DECAY_HALF_LIFE_NANOS / TimeUnit.SECONDS.toNanos(1); second++) {
+      selector.now += TimeUnit.SECONDS.toNanos(1);
+      List<String> urls = new ArrayList<>(Arrays.asList(failed, healthy));
+      selector.order(urls);
+      assertEquals(healthy, urls.get(0));
+      selector.requestStarted(healthy);
+      selector.requestFinished(healthy, TimeUnit.MILLISECONDS.toNanos(10));
+    }
+    // after one half-life, half of the penalty is gone
+    double decayedCost = selector.getCost(failed);
+    double healthyCost = selector.getCost(healthy);
+    assertEquals(healthyCost + (penalizedCost - healthyCost) / 2, decayedCost, 1000.0);
+
+    // once its sample is too old, the idle server is tried again
+    while (selector.now - TimeUnit.HOURS.toNanos(1) <= ReplicaSelector.MAX_SAMPLE_AGE_NANOS) {
+      selector.now += TimeUnit.SECONDS.toNanos(1);
+      selector.requestStarted(healthy);
+      selector.requestFinished(healthy, TimeUnit.MILLISECONDS.toNanos(10));
+    }
+    assertEquals(0.0, selector.getCost(failed), 0.0);
+    List<String> urls = new ArrayList<>(Arrays.asList(healthy, failed));
+    selector.order(urls);
+    assertEquals(failed, urls.get(0));
+
+    // and competes normally once it answers as fast as the other one
+    selector.requestStarted(failed);
+    selector.requestFinished(failed, TimeUnit.MILLISECONDS.toNanos(5));
+    urls = new ArrayList<>(Arrays.asList(healthy, failed));
+    selector.order(urls);
+    assertEquals(failed, urls.get(0));
+  }
+
+  @Test
+  public void testTrackedServersAreBounded() {
+    ManualClockReplicaSelector selector = new ManualClockReplicaSelector(new Random(42));
+    String busy = "http://127.0.0.1:8983/solr";
+    selector.requestStarted(busy);
+    for (int i = 0; i < 2 * ReplicaSelector.MAX_TRACKED_SERVERS; i++) {
+      String url = "http://127.0.0." + (i % 250) + ":" + (10000 + i) + "/solr";
+      selector.requestStarted(url);
+      selector.requestFinished(url, TimeUnit.MILLISECONDS.toNanos(10));
+      selector.now += TimeUnit.MILLISECONDS.toNanos(100);
+    }
+    assertTrue(selector.getTrackedServerCount() <= ReplicaSelector.MAX_TRACKED_SERVERS);
+    // servers with requests in flight are kept
+    assertFalse(selector.getCost(busy) == 0.0);
+  }
+
+  @Test
+  public void testUnknownServersKeepOrder() {
+    ReplicaSelector selector = new ReplicaSelector(new Random(42));
+    List<String> urls = new ArrayList<>(Arrays.asList("a", "b", "c"));
+    assertEquals(0.0, selector.getCost("a"), 0.0);
+    selector.order(urls);
+    assertEquals(3, urls.size());
+    assertTrue(urls.containsAll(Arrays.asList("a", "b", "c")));
+  }
+}
@@ -30,6 +30,8 @@ public class ShardParamsTest extends LuceneTestCase
   public void testShardsRows() { assertEquals(ShardParams.SHARDS_ROWS, "shards.rows"); }
   public void testShardsStart() { assertEquals(ShardParams.SHARDS_START, "shards.start"); }
 
+  public void testShardsRowsEstimate() { assertEquals(ShardParams.SHARDS_ROWS_ESTIMATE, "shards.rows.estimate"); }
+
   public void testIds() { assertEquals(ShardParams.IDS, "ids"); }
   
   public void testIsShard() { assertEquals(ShardParams.IS_SHARD, "isShard"); }
@@ -47,4 +49,6 @@ public class ShardParamsTest extends LuceneTestCase
   public void testRoute() { assertEquals(ShardParams._ROUTE_, "_route_"); }
   
   public void testDistribSinglePass() { assertEquals(ShardParams.DISTRIB_SINGLE_PASS, "distrib.singlePass"); }
+
+  public void testDistribSinglePassMaxDocs() { assertEquals(ShardParams.DISTRIB_SINGLE_PASS_MAX_DOCS, "distrib.singlePass.maxDocs"); }
 }
@@ -65,6 +65,19 @@ public class TestJavaBinCodec extends SolrTestCaseJ4 {
     }
   }
 
+  public void testASCIIAndUnicodeStrings() throws Exception {
+    JavaBinCodec javabin = new JavaBinCodec();
+    for (int i = 0; i < 1000 * RANDOM_MULTIPLIER; i++) {
+      // ASCII strings take a different decoding path than the rest
+      String s = random().nextBoolean() ? TestUtil.randomSimpleString(random()) : TestUtil.randomRealisticUnicodeString(random());
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      javabin.marshal(Arrays.asList(s, s + "\u00e9", s), os);
+      ByteArrayInputStream is = new ByteArrayInputStream(os.toByteArray());
+      Object o = javabin.unmarshal(is);
+      assertEquals(Arrays.asList(s, s + "\u00e9", s), o);
+    }
+  }
+
   private SolrDocument generateSolrDocumentWithChildDocs() {
     SolrDocument parentDocument = new SolrDocument();
     parentDocument.addField("id", "1");